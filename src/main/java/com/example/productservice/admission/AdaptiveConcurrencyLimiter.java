@@ -0,0 +1,97 @@
+package com.example.productservice.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adaptive in-flight request limit using additive increase / multiplicative decrease.
+ * <p>
+ * Every completed request reports its latency. While latency stays under the target the limit
+ * creeps up by one per full window of requests; a request slower than the target cuts the
+ * limit by the backoff ratio, at most once per decrease window. Without that window every request
+ * caught in the same latency spike would cut the limit again and collapse it to the minimum.
+ * Requests beyond the current limit are rejected immediately, so queueing happens in the client
+ * rather than on the database pool.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final long latencyTargetNanos;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long decreaseWindowNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger limit;
+    private final AtomicInteger successesSinceIncrease = new AtomicInteger();
+    private final AtomicLong lastDecreaseNanos;
+
+    /**
+     * @param decreaseWindowNanos minimum time between two cuts of the limit
+     */
+    public AdaptiveConcurrencyLimiter(long latencyTargetNanos, int initialLimit, int minLimit, int maxLimit,
+                                      double backoffRatio, long decreaseWindowNanos) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+        }
+        if (decreaseWindowNanos < 0) {
+            throw new IllegalArgumentException("decreaseWindowNanos must not be negative");
+        }
+        this.latencyTargetNanos = latencyTargetNanos;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.decreaseWindowNanos = decreaseWindowNanos;
+        this.limit = new AtomicInteger(initialLimit);
+        this.lastDecreaseNanos = new AtomicLong(System.nanoTime() - decreaseWindowNanos);
+    }
+
+    /**
+     * @return {@code true} if the request may proceed; the caller must then call {@link #release(long)}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Release a slot taken with {@link #tryAcquire()} and feed the observed latency back into the limit.
+     *
+     * @param latencyNanos how long the request took
+     * @param nowNanos     {@link System#nanoTime()} at completion
+     */
+    public void release(long latencyNanos, long nowNanos) {
+        inFlight.decrementAndGet();
+        if (latencyNanos > latencyTargetNanos) {
+            successesSinceIncrease.set(0);
+            long last = lastDecreaseNanos.get();
+            if (nowNanos - last >= decreaseWindowNanos && lastDecreaseNanos.compareAndSet(last, nowNanos)) {
+                limit.updateAndGet(l -> Math.max(minLimit, (int) (l * backoffRatio)));
+            }
+        } else {
+            int current = limit.get();
+            if (successesSinceIncrease.incrementAndGet() >= current) {
+                successesSinceIncrease.set(0);
+                limit.compareAndSet(current, Math.min(maxLimit, current + 1));
+            }
+        }
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
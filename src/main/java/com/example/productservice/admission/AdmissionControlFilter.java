@@ -0,0 +1,229 @@
+package com.example.productservice.admission;
+
+import com.example.productservice.logging.RateLimitedLogger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission control for the product API, running right after {@code JwtAuthenticationFilter}.
+ * <p>
+ * Each authenticated principal gets a token bucket per role, plus a separate, smaller bucket for
+ * the expensive list and search endpoints; exhausting a bucket returns 429. Independently, the
+ * adaptive concurrency limiter and the connection pool probe shed load with 503 once latency or
+ * pool saturation passes the configured thresholds. Both responses carry {@code Retry-After}.
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlFilter.class);
+    private static final RateLimitedLogger rejectionLogger = new RateLimitedLogger(logger, 10, 10_000L);
+
+    private static final String API_PREFIX = "/api/products";
+    private static final String ADMIN_ROLE = "ROLE_ADMIN";
+    private static final int MAX_BUCKETS = 10_000;
+
+    private static final byte[] TOO_MANY_REQUESTS_BODY =
+            "{\"error\":\"Too many requests\"}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] OVERLOADED_BODY =
+            "{\"error\":\"Service is overloaded. Please retry later.\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final boolean rateLimitEnabled;
+    private final Budget userBudget;
+    private final Budget adminBudget;
+    private final Budget searchBudget;
+
+    private final boolean loadSheddingEnabled;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final PoolSaturationProbe saturationProbe;
+    private final double saturationThreshold;
+    private final int retryAfterSeconds;
+
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    @Autowired
+    public AdmissionControlFilter(
+            ObjectProvider<DataSource> dataSources,
+            @Value("${admission.rate-limit.enabled:true}") boolean rateLimitEnabled,
+            @Value("${admission.rate-limit.user.permits-per-second:50}") double userRate,
+            @Value("${admission.rate-limit.user.burst:100}") int userBurst,
+            @Value("${admission.rate-limit.admin.permits-per-second:100}") double adminRate,
+            @Value("${admission.rate-limit.admin.burst:200}") int adminBurst,
+            @Value("${admission.rate-limit.search.permits-per-second:10}") double searchRate,
+            @Value("${admission.rate-limit.search.burst:20}") int searchBurst,
+            @Value("${admission.load-shedding.enabled:true}") boolean loadSheddingEnabled,
+            @Value("${admission.load-shedding.latency-target-ms:250}") long latencyTargetMs,
+            @Value("${admission.load-shedding.decrease-window-ms:1000}") long decreaseWindowMs,
+            @Value("${admission.load-shedding.initial-limit:100}") int initialLimit,
+            @Value("${admission.load-shedding.min-limit:8}") int minLimit,
+            @Value("${admission.load-shedding.max-limit:400}") int maxLimit,
+            @Value("${admission.load-shedding.pool-saturation-threshold:1.5}") double saturationThreshold,
+            @Value("${admission.load-shedding.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.rateLimitEnabled = rateLimitEnabled;
+        this.userBudget = new Budget("user", userRate, userBurst);
+        this.adminBudget = new Budget("admin", adminRate, adminBurst);
+        this.searchBudget = new Budget("search", searchRate, searchBurst);
+        this.loadSheddingEnabled = loadSheddingEnabled;
+        this.concurrencyLimiter = new AdaptiveConcurrencyLimiter(
+                TimeUnit.MILLISECONDS.toNanos(latencyTargetMs), initialLimit, minLimit, maxLimit, 0.9,
+                TimeUnit.MILLISECONDS.toNanos(decreaseWindowMs));
+        this.saturationProbe = new PoolSaturationProbe(dataSources, TimeUnit.MILLISECONDS.toNanos(100));
+        this.saturationThreshold = saturationThreshold;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !pathWithinApplication(request).startsWith(API_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long now = System.nanoTime();
+
+        if (rateLimitEnabled) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            // Unauthenticated requests are rejected by the security chain without touching the database
+            if (authentication != null && authentication.isAuthenticated()) {
+                long waitNanos = acquire(authentication, request, now);
+                if (waitNanos > 0) {
+                    rejectionLogger.warn("Rate limit exceeded for principal '{}'", authentication.getName());
+                    reject(response, HttpStatus.TOO_MANY_REQUESTS, TOO_MANY_REQUESTS_BODY,
+                            (int) Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)));
+                    return;
+                }
+            }
+        }
+
+        if (!loadSheddingEnabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (saturationProbe.getSaturation(now) > saturationThreshold || !concurrencyLimiter.tryAcquire()) {
+            rejectionLogger.warn("Shedding load: limit={}, inFlight={}",
+                    concurrencyLimiter.getLimit(), concurrencyLimiter.getInFlight());
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, OVERLOADED_BODY, retryAfterSeconds);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long end = System.nanoTime();
+            concurrencyLimiter.release(end - now, end);
+        }
+    }
+
+    private long acquire(Authentication authentication, HttpServletRequest request, long now) {
+        String role = primaryRole(authentication);
+        Budget budget = ADMIN_ROLE.equals(role) ? adminBudget : userBudget;
+        long waitNanos = bucket(budget, authentication.getName(), role, now).tryAcquire(now);
+        if (waitNanos > 0 || !isExpensive(request)) {
+            return waitNanos;
+        }
+        return bucket(searchBudget, authentication.getName(), role, now).tryAcquire(now);
+    }
+
+    private TokenBucket bucket(Budget budget, String subject, String role, long now) {
+        String key = budget.name + '|' + role + '|' + subject;
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= MAX_BUCKETS) {
+            sweepIdleBuckets(now);
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(budget.permitsPerSecond, budget.burst, now));
+    }
+
+    // A full bucket is indistinguishable from a new one, so idle buckets can be dropped safely
+    private void sweepIdleBuckets(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Iterator<TokenBucket> it = buckets.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().isIdle(now)) {
+                    it.remove();
+                }
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    // Full listings and the finder endpoints scan the table; point lookups and writes do not
+    private static boolean isExpensive(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return false;
+        }
+        String path = pathWithinApplication(request);
+        return path.equals(API_PREFIX)
+                || path.startsWith(API_PREFIX + "/search")
+                || path.startsWith(API_PREFIX + "/price/")
+                || path.startsWith(API_PREFIX + "/stock/");
+    }
+
+    private static String primaryRole(Authentication authentication) {
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (ADMIN_ROLE.equals(authority.getAuthority())) {
+                return ADMIN_ROLE;
+            }
+        }
+        return authentication.getAuthorities().isEmpty()
+                ? "NONE" : authentication.getAuthorities().iterator().next().getAuthority();
+    }
+
+    private static String pathWithinApplication(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String contextPath = request.getContextPath();
+        return contextPath != null && !contextPath.isEmpty() && uri.startsWith(contextPath)
+                ? uri.substring(contextPath.length()) : uri;
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, byte[] body, int retryAfterSeconds)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Integer.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static final class Budget {
+        private final String name;
+        private final double permitsPerSecond;
+        private final int burst;
+
+        private Budget(String name, double permitsPerSecond, int burst) {
+            this.name = name;
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.productservice.admission;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads connection pool saturation from HikariCP.
+ * <p>
+ * Saturation is {@code (active + threads waiting for a connection) / maximum pool size}, so a
+ * value above 1.0 means callers are already queueing for connections. The value is cached for
+ * a short interval so the request path only reads a volatile field. Proxies and routing
+ * datasources are unwrapped so every underlying pool is watched.
+ */
+public class PoolSaturationProbe {
+
+    private final List<HikariDataSource> pools;
+    private final long refreshIntervalNanos;
+
+    private volatile double saturation;
+    private volatile long lastRefreshNanos;
+
+    public PoolSaturationProbe(Iterable<DataSource> dataSources, long refreshIntervalNanos) {
+        Set<HikariDataSource> found = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (DataSource dataSource : dataSources) {
+            collectPools(dataSource, found);
+        }
+        this.pools = new ArrayList<>(found);
+        this.refreshIntervalNanos = refreshIntervalNanos;
+        this.lastRefreshNanos = System.nanoTime() - refreshIntervalNanos;
+    }
+
+    /**
+     * @return the highest saturation across the known pools, or 0 if no pool is available
+     */
+    public double getSaturation(long nowNanos) {
+        if (nowNanos - lastRefreshNanos >= refreshIntervalNanos) {
+            lastRefreshNanos = nowNanos;
+            saturation = measure();
+        }
+        return saturation;
+    }
+
+    private static void collectPools(DataSource dataSource, Set<HikariDataSource> found) {
+        if (dataSource instanceof HikariDataSource) {
+            found.add((HikariDataSource) dataSource);
+        } else if (dataSource instanceof DelegatingDataSource) {
+            DataSource target = ((DelegatingDataSource) dataSource).getTargetDataSource();
+            if (target != null) {
+                collectPools(target, found);
+            }
+        } else if (dataSource instanceof AbstractRoutingDataSource) {
+            ((AbstractRoutingDataSource) dataSource).getResolvedDataSources().values()
+                    .forEach(target -> collectPools(target, found));
+        }
+    }
+
+    private double measure() {
+        double max = 0.0;
+        for (HikariDataSource pool : pools) {
+            HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+            int maxSize = pool.getMaximumPoolSize();
+            if (bean == null || maxSize <= 0) {
+                continue;
+            }
+            double value = (bean.getActiveConnections() + bean.getThreadsAwaitingConnection()) / (double) maxSize;
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.productservice.bulk;
+
+import com.example.productservice.cache.CatalogVersion;
+import com.example.productservice.stock.StockWriteBehind;
+import com.example.productservice.store.ProductStore;
+import com.example.productservice.suggest.ProductSuggestIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Creates the {@link ProductBulkUpdater}.
+ */
+@Configuration
+public class BulkUpdateConfig {
+
+    // A chunk becomes an SQL IN list, and Oracle accepts at most 1000 entries
+    private static final int MAX_CHUNK_SIZE = 1000;
+
+    @Bean
+    public ProductBulkUpdater productBulkUpdater(ProductStore productStore,
+                                                 PlatformTransactionManager transactionManager,
+                                                 CatalogVersion catalogVersion,
+                                                 StockWriteBehind stockWriteBehind,
+                                                 ProductSuggestIndex suggestIndex,
+                                                 @Value("${bulk.chunk-size:500}") int chunkSize) {
+        if (chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("bulk.chunk-size must be at most " + MAX_CHUNK_SIZE);
+        }
+        return new ProductBulkUpdater(productStore, new TransactionTemplate(transactionManager), catalogVersion,
+                stockWriteBehind, suggestIndex, chunkSize);
+    }
+}
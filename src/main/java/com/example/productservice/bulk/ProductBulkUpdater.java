@@ -0,0 +1,128 @@
+package com.example.productservice.bulk;
+
+import com.example.productservice.cache.CatalogVersion;
+import com.example.productservice.dto.BulkUpdateResult;
+import com.example.productservice.dto.ProductFieldSet;
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.BulkMutation;
+import com.example.productservice.repository.ProductFilter;
+import com.example.productservice.stock.StockWriteBehind;
+import com.example.productservice.store.ProductStore;
+import com.example.productservice.suggest.ProductSuggestIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Applies a {@link BulkMutation} to every product matching a filter.
+ * <p>
+ * The matching ids are read first, then updated in chunks of {@code chunkSize} ids, each in its own
+ * transaction with a set-based UPDATE that re-checks the filter, so products that changed in the
+ * meantime are updated only if they still match. Short transactions keep row locks and undo small no
+ * matter how many products match; in exchange, a failure leaves the chunks before it committed. The
+ * ids updated by each committed chunk are handed to a consumer as they come, and the catalog version
+ * and (for stock) the suggest index are updated with them when the chunk commits.
+ */
+public class ProductBulkUpdater {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductBulkUpdater.class);
+
+    private final ProductStore productStore;
+    private final TransactionOperations transactions;
+    private final CatalogVersion catalogVersion;
+    private final StockWriteBehind stockWriteBehind;
+    private final ProductSuggestIndex suggestIndex;
+    private final int chunkSize;
+
+    public ProductBulkUpdater(ProductStore productStore, TransactionOperations transactions,
+                              CatalogVersion catalogVersion, StockWriteBehind stockWriteBehind,
+                              ProductSuggestIndex suggestIndex, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1");
+        }
+        this.productStore = productStore;
+        this.transactions = transactions;
+        this.catalogVersion = catalogVersion;
+        this.stockWriteBehind = stockWriteBehind;
+        this.suggestIndex = suggestIndex;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the filter has no condition
+     */
+    public BulkUpdateResult update(ProductFilter filter, BulkMutation mutation) {
+        return update(filter, mutation, ids -> {
+        });
+    }
+
+    /**
+     * @param affected receives the ids updated by each chunk, ascending, after the chunk commits
+     * @throws IllegalArgumentException if the filter has no condition
+     */
+    public BulkUpdateResult update(ProductFilter filter, BulkMutation mutation, Consumer<List<Long>> affected) {
+        if (!filter.hasConditions()) {
+            throw new IllegalArgumentException("Bulk update needs ids or at least one condition");
+        }
+        boolean stock = mutation.getField() == BulkMutation.Field.STOCK;
+        if (stock) {
+            // A pending absolute stock value would otherwise overwrite the result when it is flushed
+            stockWriteBehind.flush();
+        }
+
+        List<Long> candidates = candidates(filter);
+        int updated = 0;
+        int chunks = 0;
+        for (int from = 0; from < candidates.size(); from += chunkSize) {
+            List<Long> chunk = candidates.subList(from, Math.min(from + chunkSize, candidates.size()));
+            List<Long> ids = transactions.execute(status -> {
+                List<Long> changed = productStore.bulkUpdate(filter.withIds(chunk), mutation);
+                if (!changed.isEmpty()) {
+                    catalogVersion.bumpAfterCommit();
+                    if (stock) {
+                        refreshSuggestions(changed);
+                    }
+                }
+                return changed;
+            });
+            chunks++;
+            if (ids == null || ids.isEmpty()) {
+                continue;
+            }
+            updated += ids.size();
+            affected.accept(Collections.unmodifiableList(ids));
+        }
+        logger.info("Bulk update {}: {} of {} matching products updated in {} chunks",
+                mutation, updated, candidates.size(), chunks);
+        return new BulkUpdateResult(candidates.size(), updated, chunks);
+    }
+
+    // Ascending, so chunks lock rows in the same order as other bulk updates and never deadlock with them.
+    // findIds is not capped like the finders, so every match is found however large the catalog
+    private List<Long> candidates(ProductFilter filter) {
+        if (filter.getIds() != null) {
+            return new ArrayList<>(new TreeSet<>(filter.getIds()));
+        }
+        return productStore.findIds(filter);
+    }
+
+    // Read the updated products back in the chunk's transaction, so the index gets the values it committed
+    private void refreshSuggestions(List<Long> ids) {
+        List<Object[]> rows = stockWriteBehind.readRows(ProductFieldSet.ALL,
+                fields -> productStore.findFields(ProductFilter.all().withIds(ids), fields));
+        for (Object[] row : rows) {
+            // ALL is in declaration order: id, name, description, price, stock
+            Product product = new Product((String) row[1], (String) row[2], (BigDecimal) row[3],
+                    row[4] == null ? null : ((Number) row[4]).intValue());
+            product.setId(((Number) row[0]).longValue());
+            suggestIndex.putAfterCommit(product);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.productservice.cache;
+
+import com.example.productservice.feed.ChangeFeedConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Conditional GET and response caching for the product list and search endpoints.
+ * <p>
+ * The ETag is derived from the {@link CatalogVersion} and the normalized query, so a matching
+ * {@code If-None-Match} is answered with 304 without touching the controller or the database.
+ * Successful responses are stored gzip-compressed in a {@link CompressedResponseCache} keyed by
+ * version and query; clients that accept gzip get the cached bytes as-is.
+ * <p>
+ * The filter is off while reads are routed to replicas: a read from a lagging replica right after a
+ * write would be cached under the version that write produced, and served until the next one. It is
+ * also off unless the change feed is followed: without it the version only moves on this instance's
+ * writes, so with several instances a stale response would be served until this one writes.
+ * <p>
+ * Runs last, after Spring Security and after {@code SearchRecordingFilter}, which counts the
+ * searches answered here.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class CatalogResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogResponseCacheFilter.class);
+
+    private static final String API_PREFIX = "/api/products";
+
+    private final CatalogVersion catalogVersion;
+    private final CompressedResponseCache cache;
+    private final boolean enabled;
+
+    @Autowired
+    public CatalogResponseCacheFilter(CatalogVersion catalogVersion,
+                                      @Value("${catalog.cache.enabled:true}") boolean enabled,
+                                      @Value("${catalog.cache.max-bytes:67108864}") long maxBytes,
+                                      @Value("${catalog.cache.max-entry-bytes:4194304}") int maxEntryBytes,
+                                      @Value("${datasource.routing.enabled:false}") boolean replicaReads,
+                                      @Value("#{" + ChangeFeedConfig.FOLLOWING + "}") boolean following) {
+        this.catalogVersion = catalogVersion;
+        this.enabled = enabled && !replicaReads && following;
+        if (enabled && replicaReads) {
+            logger.info("Catalog response cache disabled: reads are routed to replicas");
+        } else if (enabled && !following) {
+            logger.info("Catalog response cache disabled: other instances' writes are only seen through the change feed");
+        }
+        this.cache = new CompressedResponseCache(maxBytes, maxEntryBytes);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"GET".equals(request.getMethod()) || !isCacheable(pathWithinApplication(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // Cached responses skip the controller's @PreAuthorize, so apply the same role check here
+        if (!isAuthorized()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long version = catalogVersion.current();
+        String query = normalizedQuery(request);
+        String etag = etag(version, query);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (etagMatches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        String cacheKey = version + " " + query;
+        CompressedResponseCache.Entry cached = cache.get(cacheKey);
+        if (cached != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+            write(request, response, cached, null);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        byte[] body = wrapper.getContentAsByteArray();
+        CompressedResponseCache.Entry entry =
+                new CompressedResponseCache.Entry(gzip(body), body.length, wrapper.getContentType());
+        // A write committed while this response was built: it may mix versions, so don't cache it
+        if (catalogVersion.current() == version) {
+            cache.put(cacheKey, entry);
+            response.setHeader(HttpHeaders.ETAG, etag);
+        }
+        write(request, response, entry, body);
+    }
+
+    private static void write(HttpServletRequest request, HttpServletResponse response,
+                              CompressedResponseCache.Entry entry, byte[] identityBody) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        if (entry.getContentType() != null) {
+            response.setContentType(entry.getContentType());
+        }
+        byte[] body;
+        if (acceptsGzip(request)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            body = entry.getGzipBody();
+        } else {
+            body = identityBody != null ? identityBody : gunzip(entry.getGzipBody(), entry.getIdentityLength());
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static boolean isCacheable(String path) {
+        return path.equals(API_PREFIX)
+                || path.equals(API_PREFIX + "/search")
+                || path.equals(API_PREFIX + "/search/stock")
+                || path.equals(API_PREFIX + "/price/min")
+                || path.equals(API_PREFIX + "/price/range")
+                || path.equals(API_PREFIX + "/stock/max");
+    }
+
+    private static boolean isAuthorized() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return false;
+        }
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            String name = authority.getAuthority();
+            if ("ROLE_USER".equals(name) || "ROLE_ADMIN".equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Path plus sorted parameters; name searches are case-insensitive so their values are lower-cased
+    private static String normalizedQuery(HttpServletRequest request) {
+        StringBuilder sb = new StringBuilder(pathWithinApplication(request));
+        Map<String, String[]> sorted = new TreeMap<>(request.getParameterMap());
+        char separator = '?';
+        for (Map.Entry<String, String[]> param : sorted.entrySet()) {
+            String[] values = param.getValue().clone();
+            if ("name".equals(param.getKey())) {
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = values[i].toLowerCase(Locale.ROOT);
+                }
+            }
+            Arrays.sort(values);
+            for (String value : values) {
+                sb.append(separator).append(param.getKey()).append('=').append(value);
+                separator = '&';
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String etag(long version, String query) {
+        CRC32 crc = new CRC32();
+        crc.update(query.getBytes(StandardCharsets.UTF_8));
+        return "W/\"" + Long.toHexString(version) + '-' + Long.toHexString(crc.getValue()) + '"';
+    }
+
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = etag.substring(2);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || trimmed.equals(etag) || trimmed.equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.contains("gzip");
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] gzipBody, int identityLength) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipBody))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(identityLength);
+            StreamUtils.copy(in, out);
+            return out.toByteArray();
+        }
+    }
+
+    private static String pathWithinApplication(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String contextPath = request.getContextPath();
+        return contextPath != null && !contextPath.isEmpty() && uri.startsWith(contextPath)
+                ? uri.substring(contextPath.length()) : uri;
+    }
+}
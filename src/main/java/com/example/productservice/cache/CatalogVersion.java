@@ -0,0 +1,63 @@
+package com.example.productservice.cache;
+
+import com.example.productservice.dto.ProductChange;
+import com.example.productservice.feed.ChangeFeedListener;
+import com.example.productservice.model.Product;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Catalog version of this instance, bumped by every committed product write.
+ * <p>
+ * List and search responses are a function of the catalog version and the query, so the version
+ * is used to build ETags and response cache keys. It starts from the startup time so versions
+ * from before a restart are never reused.
+ * <p>
+ * Writes through this instance bump it as they commit. Writes through other instances only reach
+ * it through the change feed ({@code product.change-feed.enabled}), which bumps it for every batch
+ * of changes it delivers; without the feed, the version is only correct for a single instance.
+ */
+@Component
+public class CatalogVersion implements ChangeFeedListener {
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    public long current() {
+        return version.get();
+    }
+
+    public long bump() {
+        return version.incrementAndGet();
+    }
+
+    @Override
+    public void reload(List<Product> products) {
+        bump();
+    }
+
+    @Override
+    public void apply(List<ProductChange> changes) {
+        bump();
+    }
+
+    /**
+     * Bump the version once the current transaction commits, or immediately if there is none.
+     * Bumping before commit would let a concurrent read cache pre-write data under the new version.
+     */
+    public void bumpAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump();
+            }
+        });
+    }
+}
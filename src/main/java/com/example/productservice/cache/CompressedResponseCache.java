@@ -0,0 +1,84 @@
+package com.example.productservice.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of gzip-compressed response bodies bounded by total size in bytes.
+ * <p>
+ * Keys include the catalog version, so entries for old versions are simply never hit again and
+ * age out through LRU eviction.
+ */
+public class CompressedResponseCache {
+
+    private final long maxBytes;
+    private final int maxEntryBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    public CompressedResponseCache(long maxBytes, int maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public synchronized Entry get(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Store an entry, evicting least recently used entries until the cache fits its budget.
+     * Entries larger than the per-entry limit are not cached.
+     */
+    public synchronized void put(String key, Entry entry) {
+        if (entry.size() > maxEntryBytes) {
+            return;
+        }
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            totalBytes -= previous.size();
+        }
+        totalBytes += entry.size();
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            totalBytes -= it.next().getValue().size();
+            it.remove();
+        }
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public static final class Entry {
+        private final byte[] gzipBody;
+        private final int identityLength;
+        private final String contentType;
+
+        public Entry(byte[] gzipBody, int identityLength, String contentType) {
+            this.gzipBody = gzipBody;
+            this.identityLength = identityLength;
+            this.contentType = contentType;
+        }
+
+        public byte[] getGzipBody() {
+            return gzipBody;
+        }
+
+        public int getIdentityLength() {
+            return identityLength;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        int size() {
+            return gzipBody.length;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.productservice.config;
+
+import com.example.productservice.stock.StockWriteBehind;
+import com.example.productservice.store.ProductStore;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Keeps the beans the first request depends on eager when {@code spring.main.lazy-initialization=true}
+ * (the fast-startup profile), so lazy initialization shortens startup without moving the cost onto
+ * the first request.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.main.lazy-initialization", havingValue = "true")
+public class LazyStartupConfig {
+
+    // Connection pools and stores open at startup; write-behind must also replay its journal
+    // and start flushing without waiting for a stock update
+    @Bean
+    public static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DataSource.class, ProductStore.class,
+                StockWriteBehind.class);
+    }
+}
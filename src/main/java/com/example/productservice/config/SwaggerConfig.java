@@ -1,5 +1,9 @@
 package com.example.productservice.config;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import springfox.documentation.builders.ApiInfoBuilder;
@@ -7,6 +11,7 @@ import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.service.ApiInfo;
 import springfox.documentation.spi.DocumentationType;
+import springfox.documentation.spring.web.plugins.DocumentationPluginsBootstrapper;
 import springfox.documentation.spring.web.plugins.Docket;
 
 @Configuration
@@ -22,6 +27,20 @@ public class SwaggerConfig {
                 .apiInfo(apiInfo());
     }
 
+    // With springfox.documentation.auto-startup=false (fast-startup profile) the controller scan runs
+    // in the background once the application is ready instead of delaying startup
+    @Bean
+    @ConditionalOnProperty(name = "springfox.documentation.auto-startup", havingValue = "false")
+    public ApplicationListener<ApplicationReadyEvent> deferredSwaggerScan(
+            ObjectProvider<DocumentationPluginsBootstrapper> bootstrapper) {
+        return event -> {
+            Thread scan = new Thread(() -> bootstrapper.ifAvailable(DocumentationPluginsBootstrapper::start),
+                    "swagger-scan");
+            scan.setDaemon(true);
+            scan.start();
+        };
+    }
+
     private ApiInfo apiInfo() {
         return new ApiInfoBuilder()
                 .title("Product Service API")
@@ -0,0 +1,38 @@
+package com.example.productservice.controller;
+
+import com.example.productservice.dto.HotKeysReport;
+import com.example.productservice.service.ProductService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+/**
+ * Internal diagnostics for cache sizing and index planning; not part of the product API.
+ */
+@RestController
+@RequestMapping("/api/internal")
+@Validated
+public class HotKeysController {
+
+    private final ProductService productService;
+
+    @Autowired
+    public HotKeysController(ProductService productService) {
+        this.productService = productService;
+    }
+
+    // Hottest product ids and search terms, most frequent first, with decayed access counts
+    @GetMapping("/hot-keys")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<HotKeysReport> getHotKeys(@RequestParam(value = "limit", defaultValue = "20") @Min(1) @Max(1000) int limit) {
+        return ResponseEntity.ok(productService.getHotKeys(limit));
+    }
+}
@@ -1,16 +1,37 @@
 package com.example.productservice.controller;
 
+import com.example.productservice.dto.BulkUpdateRequest;
+import com.example.productservice.dto.BulkUpdateResult;
+import com.example.productservice.dto.MerkleNodes;
+import com.example.productservice.dto.ProductChanges;
+import com.example.productservice.dto.ProductFieldSet;
+import com.example.productservice.dto.ProductRows;
+import com.example.productservice.dto.ProductSuggestion;
 import com.example.productservice.model.Product;
+import com.example.productservice.repository.BulkMutation;
+import com.example.productservice.repository.ProductFilter;
 import com.example.productservice.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,17 +40,25 @@ import java.util.Optional;
 @Validated
 public class ProductController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final ProductService productService;
+    // One JSON document per line, whatever the configured indentation
+    private final ObjectWriter lineWriter;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ObjectMapper objectMapper) {
         this.productService = productService;
+        this.lineWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
     }
 
     // Get all products
     @GetMapping
     @PreAuthorize("hasAuthority('ROLE_USER') or hasAuthority('ROLE_ADMIN')")
-    public ResponseEntity<List<Product>> getAllProducts() {
+    public ResponseEntity<?> getAllProducts(@RequestParam(value = "fields", required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(productService.findProductFields(ProductFilter.all(), ProductFieldSet.parse(fields)));
+        }
         List<Product> products = productService.getAllProducts();
         return ResponseEntity.ok(products);
     }
@@ -43,10 +72,10 @@ public class ProductController {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
-    // Create new product
+    // Create new product; the service validates the body and answers 400 with the field messages
     @PostMapping
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
-    public ResponseEntity<Product> createProduct(@Valid @RequestBody Product product) {
+    public ResponseEntity<Product> createProduct(@RequestBody Product product) {
         Product createdProduct = productService.createProduct(product);
         return new ResponseEntity<>(createdProduct, HttpStatus.CREATED);
     }
@@ -54,11 +83,58 @@ public class ProductController {
     // Update product
     @PutMapping("/{id}")
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
-    public ResponseEntity<Product> updateProduct(@PathVariable Long id, @Valid @RequestBody Product productDetails) {
+    public ResponseEntity<Product> updateProduct(@PathVariable Long id, @RequestBody Product productDetails) {
         Product updatedProduct = productService.updateProduct(id, productDetails);
         return ResponseEntity.ok(updatedProduct);
     }
 
+    // Add a delta to a product's stock (staged when stock write-behind is enabled)
+    @PatchMapping("/{id}/stock")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<Product> adjustStock(@PathVariable Long id, @RequestParam("delta") int delta) {
+        return ResponseEntity.ok(productService.adjustStock(id, delta));
+    }
+
+    // Set, add to or multiply the price or stock of every product matching the conditions
+    // With Accept: application/x-ndjson, the updated ids are streamed as {"ids": [...]} lines as each
+    // chunk commits, and the counts follow on the last line
+    @PostMapping("/bulk")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<?> bulkUpdate(@Valid @RequestBody BulkUpdateRequest request,
+                                        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        ProductFilter filter = ProductFilter.of(request.getNameContains(), request.getMinPrice(),
+                request.getMaxPrice(), request.getStockLessThan(), request.getStockGreaterThan());
+        if (request.getIds() != null) {
+            filter = filter.withIds(request.getIds());
+        }
+        BulkMutation mutation = BulkMutation.of(request.getField(), request.getOperation(), request.getValue());
+        if (accept == null || !MediaType.parseMediaTypes(accept).contains(NDJSON)) {
+            return ResponseEntity.ok(productService.bulkUpdate(filter, mutation));
+        }
+        // Checked before streaming starts, while the error can still be sent as a normal response
+        if (!filter.hasConditions()) {
+            throw new IllegalArgumentException("Bulk update needs ids or at least one condition");
+        }
+        ProductFilter matching = filter;
+        StreamingResponseBody body = out -> {
+            BulkUpdateResult result = productService.bulkUpdate(matching, mutation,
+                    ids -> writeLine(out, Collections.singletonMap("ids", ids)));
+            writeLine(out, result);
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    // A client that has gone away stops the bulk update after the chunk that just committed
+    private void writeLine(OutputStream out, Object value) {
+        try {
+            out.write(lineWriter.writeValueAsBytes(value));
+            out.write('\n');
+            out.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
     // Delete product
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
@@ -70,15 +146,57 @@ public class ProductController {
     // Search products by name
     @GetMapping("/search")
     @PreAuthorize("hasAuthority('ROLE_USER') or hasAuthority('ROLE_ADMIN')")
-    public ResponseEntity<List<Product>> searchProductsByName(@RequestParam("name") String name) {
+    public ResponseEntity<?> searchProductsByName(@RequestParam("name") String name,
+                                                  @RequestParam(value = "fields", required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(productService.searchProductFields(name, ProductFieldSet.parse(fields)));
+        }
         List<Product> products = productService.searchProductsByName(name);
         return ResponseEntity.ok(products);
     }
 
+    // Autocomplete: products with a name word starting with the prefix, most stock first
+    @GetMapping("/suggest")
+    @PreAuthorize("hasAuthority('ROLE_USER') or hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<List<ProductSuggestion>> suggestProducts(@RequestParam("prefix") String prefix,
+                                                                   @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productService.suggestProducts(prefix, limit));
+    }
+
+    // Changes after a modification sequence number; pass the returned nextSince as since to continue
+    @GetMapping("/changes")
+    @PreAuthorize("hasAuthority('ROLE_USER') or hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<ProductChanges> getChanges(@RequestParam(value = "since", defaultValue = "0") @Min(0) long since,
+                                                     @RequestParam(value = "limit", defaultValue = "500") @Min(1) @Max(5000) int limit) {
+        return ResponseEntity.ok(productService.getChangesSince(since, limit));
+    }
+
+    // Hashes of consecutive nodes of one level of the catalog hash tree; level 0 is the root
+    @GetMapping("/merkle")
+    @PreAuthorize("hasAuthority('ROLE_USER') or hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<MerkleNodes> getMerkleNodes(@RequestParam(value = "level", defaultValue = "0") @Min(0) int level,
+                                                      @RequestParam(value = "offset", defaultValue = "0") @Min(0) int offset,
+                                                      @RequestParam(value = "limit", defaultValue = "256") @Min(1) @Max(4096) int limit) {
+        return ResponseEntity.ok(productService.getMerkleNodes(level, offset, limit));
+    }
+
+    // Products with ids from fromId to toId, to replace a range whose hash differs
+    @GetMapping("/merkle/products")
+    @PreAuthorize("hasAuthority('ROLE_USER') or hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<ProductRows> getProductRange(@RequestParam("fromId") long fromId,
+                                                       @RequestParam("toId") long toId) {
+        return ResponseEntity.ok(productService.getProductRange(fromId, toId));
+    }
+
     // Find products by price greater than or equal
     @GetMapping("/price/min")
     @PreAuthorize("hasAuthority('ROLE_USER') or hasAuthority('ROLE_ADMIN')")
-    public ResponseEntity<List<Product>> findProductsByPriceGreaterThanEqual(@RequestParam("price") BigDecimal price) {
+    public ResponseEntity<?> findProductsByPriceGreaterThanEqual(@RequestParam("price") BigDecimal price,
+                                                                 @RequestParam(value = "fields", required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(productService.findProductFields(
+                    ProductFilter.priceAtLeast(price), ProductFieldSet.parse(fields)));
+        }
         List<Product> products = productService.findProductsByPriceGreaterThanEqual(price);
         return ResponseEntity.ok(products);
     }
@@ -86,7 +204,12 @@ public class ProductController {
     // Find products by stock less than
     @GetMapping("/stock/max")
     @PreAuthorize("hasAuthority('ROLE_USER') or hasAuthority('ROLE_ADMIN')")
-    public ResponseEntity<List<Product>> findProductsByStockLessThan(@RequestParam("stock") Integer stock) {
+    public ResponseEntity<?> findProductsByStockLessThan(@RequestParam("stock") Integer stock,
+                                                         @RequestParam(value = "fields", required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(productService.findProductFields(
+                    ProductFilter.stockLessThan(stock), ProductFieldSet.parse(fields)));
+        }
         List<Product> products = productService.findProductsByStockLessThan(stock);
         return ResponseEntity.ok(products);
     }
@@ -94,8 +217,13 @@ public class ProductController {
     // Find products by price range
     @GetMapping("/price/range")
     @PreAuthorize("hasAuthority('ROLE_USER') or hasAuthority('ROLE_ADMIN')")
-    public ResponseEntity<List<Product>> findProductsByPriceBetween(@RequestParam("minPrice") BigDecimal minPrice,
-                                                                   @RequestParam("maxPrice") BigDecimal maxPrice) {
+    public ResponseEntity<?> findProductsByPriceBetween(@RequestParam("minPrice") BigDecimal minPrice,
+                                                        @RequestParam("maxPrice") BigDecimal maxPrice,
+                                                        @RequestParam(value = "fields", required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(productService.findProductFields(
+                    ProductFilter.priceBetween(minPrice, maxPrice), ProductFieldSet.parse(fields)));
+        }
         List<Product> products = productService.findProductsByPriceBetween(minPrice, maxPrice);
         return ResponseEntity.ok(products);
     }
@@ -103,8 +231,13 @@ public class ProductController {
     // Find products by name and stock greater than
     @GetMapping("/search/stock")
     @PreAuthorize("hasAuthority('ROLE_USER') or hasAuthority('ROLE_ADMIN')")
-    public ResponseEntity<List<Product>> findProductsByNameAndStockGreaterThan(@RequestParam("name") String name,
-                                                                               @RequestParam("stock") Integer stock) {
+    public ResponseEntity<?> findProductsByNameAndStockGreaterThan(@RequestParam("name") String name,
+                                                                   @RequestParam("stock") Integer stock,
+                                                                   @RequestParam(value = "fields", required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(productService.findProductFields(
+                    ProductFilter.nameContainsAndStockGreaterThan(name, stock), ProductFieldSet.parse(fields)));
+        }
         List<Product> products = productService.findProductsByNameAndStockGreaterThan(name, stock);
         return ResponseEntity.ok(products);
     }
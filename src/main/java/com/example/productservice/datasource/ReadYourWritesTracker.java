@@ -0,0 +1,53 @@
+package com.example.productservice.datasource;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Remembers when each principal last committed a write, so its following reads can be pinned
+ * to the primary until replicas have had time to catch up.
+ */
+public class ReadYourWritesTracker {
+
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    private final long windowNanos;
+    private final ConcurrentMap<String, Long> lastWriteNanos = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(long windowNanos) {
+        this.windowNanos = windowNanos;
+    }
+
+    public void recordWrite(String principal, long nowNanos) {
+        if (lastWriteNanos.size() >= SWEEP_THRESHOLD) {
+            sweep(nowNanos);
+        }
+        lastWriteNanos.put(principal, nowNanos);
+    }
+
+    /**
+     * @return {@code true} if the principal wrote within the stickiness window
+     */
+    public boolean isSticky(String principal, long nowNanos) {
+        Long written = lastWriteNanos.get(principal);
+        if (written == null) {
+            return false;
+        }
+        if (nowNanos - written < windowNanos) {
+            return true;
+        }
+        lastWriteNanos.remove(principal, written);
+        return false;
+    }
+
+    private void sweep(long nowNanos) {
+        Iterator<Map.Entry<String, Long>> it = lastWriteNanos.entrySet().iterator();
+        while (it.hasNext()) {
+            if (nowNanos - it.next().getValue() >= windowNanos) {
+                it.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.productservice.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically measures replica lag and marks replicas that fall behind as ineligible for reads.
+ * <p>
+ * The request path only reads a map of flags; lag queries run on a single background thread.
+ * A replica whose lag query fails is treated as lagging.
+ */
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final Map<String, DataSource> replicas;
+    private final String lagQuery;
+    private final long maxLagMs;
+    private final Map<String, Boolean> eligible = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(Map<String, DataSource> replicas, String lagQuery, long maxLagMs, long intervalMs) {
+        this.replicas = replicas;
+        this.lagQuery = lagQuery;
+        this.maxLagMs = maxLagMs;
+        replicas.keySet().forEach(key -> eligible.put(key, Boolean.TRUE));
+        if (StringUtils.hasText(lagQuery) && !replicas.isEmpty() && intervalMs > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "replica-lag-monitor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::checkReplicas, 0, intervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    public boolean isEligible(String replicaKey) {
+        return eligible.getOrDefault(replicaKey, Boolean.FALSE);
+    }
+
+    /**
+     * Run the lag query against every replica and update eligibility.
+     */
+    public void checkReplicas() {
+        if (!StringUtils.hasText(lagQuery)) {
+            return;
+        }
+        replicas.forEach((key, dataSource) -> {
+            boolean current = measureLag(key, dataSource) <= maxLagMs;
+            Boolean previous = eligible.put(key, current);
+            if (previous != null && previous != current) {
+                logger.info("Replica '{}' is now {} for reads", key, current ? "eligible" : "ineligible");
+            }
+        });
+    }
+
+    private long measureLag(String key, DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            return resultSet.next() ? resultSet.getLong(1) : Long.MAX_VALUE;
+        } catch (Exception ex) {
+            logger.warn("Could not measure lag of replica '{}': {}", key, ex.getMessage());
+            return Long.MAX_VALUE;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
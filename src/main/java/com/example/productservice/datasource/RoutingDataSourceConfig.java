@@ -0,0 +1,65 @@
+package com.example.productservice.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replaces the auto-configured datasource with a read/write router when
+ * {@code datasource.routing.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(RoutingDataSourceProperties.class)
+public class RoutingDataSourceConfig {
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(DataSourceProperties primaryProperties,
+                                                        RoutingDataSourceProperties routing) {
+        HikariDataSource primary = primaryProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName(ReadWriteRoutingDataSource.PRIMARY);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < routing.getReplicas().size(); i++) {
+            RoutingDataSourceProperties.Replica replica = routing.getReplicas().get(i);
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(replica.getDriverClassName() != null
+                            ? replica.getDriverClassName() : primaryProperties.getDriverClassName())
+                    .url(replica.getUrl())
+                    .username(replica.getUsername())
+                    .password(replica.getPassword())
+                    .build();
+            String key = "replica-" + i;
+            pool.setPoolName(key);
+            pool.setReadOnly(true);
+            replicas.put(key, pool);
+        }
+
+        ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(replicas, routing.getReplicaLagQuery(),
+                routing.getMaxReplicaLagMs(), routing.getLagCheckIntervalMs());
+        ReadYourWritesTracker writeTracker =
+                new ReadYourWritesTracker(TimeUnit.MILLISECONDS.toNanos(routing.getReadYourWritesWindowMs()));
+        return new ReadWriteRoutingDataSource(primary, replicas, lagMonitor, writeTracker);
+    }
+
+    // Defer connection lookup until the first statement, when the read-only flag is already bound
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
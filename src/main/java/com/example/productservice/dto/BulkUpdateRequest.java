@@ -0,0 +1,113 @@
+package com.example.productservice.dto;
+
+import com.example.productservice.repository.BulkMutation;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Body of a bulk update: the products to change, as ids and/or the finder conditions, and the
+ * change to make to their price or stock.
+ */
+public class BulkUpdateRequest {
+
+    // Ids are updated in chunks, so the bound only keeps request bodies reasonable (about 2 MB of JSON)
+    @Size(max = 200000, message = "At most 200000 ids per bulk update")
+    private List<Long> ids;
+
+    private String nameContains;
+
+    private BigDecimal minPrice;
+
+    private BigDecimal maxPrice;
+
+    private Integer stockLessThan;
+
+    private Integer stockGreaterThan;
+
+    @NotNull(message = "Field is required")
+    private BulkMutation.Field field;
+
+    @NotNull(message = "Operation is required")
+    private BulkMutation.Operation operation;
+
+    @NotNull(message = "Value is required")
+    private BigDecimal value;
+
+    public BulkUpdateRequest() {
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public String getNameContains() {
+        return nameContains;
+    }
+
+    public void setNameContains(String nameContains) {
+        this.nameContains = nameContains;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(BigDecimal minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(BigDecimal maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public Integer getStockLessThan() {
+        return stockLessThan;
+    }
+
+    public void setStockLessThan(Integer stockLessThan) {
+        this.stockLessThan = stockLessThan;
+    }
+
+    public Integer getStockGreaterThan() {
+        return stockGreaterThan;
+    }
+
+    public void setStockGreaterThan(Integer stockGreaterThan) {
+        this.stockGreaterThan = stockGreaterThan;
+    }
+
+    public BulkMutation.Field getField() {
+        return field;
+    }
+
+    public void setField(BulkMutation.Field field) {
+        this.field = field;
+    }
+
+    public BulkMutation.Operation getOperation() {
+        return operation;
+    }
+
+    public void setOperation(BulkMutation.Operation operation) {
+        this.operation = operation;
+    }
+
+    public BigDecimal getValue() {
+        return value;
+    }
+
+    public void setValue(BigDecimal value) {
+        this.value = value;
+    }
+}
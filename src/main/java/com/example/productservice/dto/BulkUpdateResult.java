@@ -0,0 +1,35 @@
+package com.example.productservice.dto;
+
+/**
+ * Outcome of a bulk update. {@code skipped} products matched when the update started but were
+ * left unchanged, because they changed in the meantime or their result would have been invalid.
+ * The updated ids are not included; they are streamed per chunk to clients that ask for them.
+ */
+public final class BulkUpdateResult {
+
+    private final int matched;
+    private final int updated;
+    private final int chunks;
+
+    public BulkUpdateResult(int matched, int updated, int chunks) {
+        this.matched = matched;
+        this.updated = updated;
+        this.chunks = chunks;
+    }
+
+    public int getMatched() {
+        return matched;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public int getSkipped() {
+        return matched - updated;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+}
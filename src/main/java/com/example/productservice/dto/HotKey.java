@@ -0,0 +1,23 @@
+package com.example.productservice.dto;
+
+/**
+ * A frequently accessed key with its estimated, decayed access count.
+ */
+public final class HotKey<K> {
+
+    private final K key;
+    private final long count;
+
+    public HotKey(K key, long count) {
+        this.key = key;
+        this.count = count;
+    }
+
+    public K getKey() {
+        return key;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
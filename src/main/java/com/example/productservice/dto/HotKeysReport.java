@@ -0,0 +1,25 @@
+package com.example.productservice.dto;
+
+import java.util.List;
+
+/**
+ * The hottest product ids looked up by id and the hottest name search terms, most frequent first.
+ */
+public final class HotKeysReport {
+
+    private final List<HotKey<Long>> products;
+    private final List<HotKey<String>> searches;
+
+    public HotKeysReport(List<HotKey<Long>> products, List<HotKey<String>> searches) {
+        this.products = products;
+        this.searches = searches;
+    }
+
+    public List<HotKey<Long>> getProducts() {
+        return products;
+    }
+
+    public List<HotKey<String>> getSearches() {
+        return searches;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.productservice.dto;
+
+/**
+ * One node of the catalog hash tree: the hash of every product with an id in {@code fromId} to
+ * {@code toId}, both inclusive, as 16 hex digits.
+ */
+public final class MerkleNode {
+
+    private final int index;
+    private final long fromId;
+    private final long toId;
+    private final String hash;
+
+    public MerkleNode(int index, long fromId, long toId, String hash) {
+        this.index = index;
+        this.fromId = fromId;
+        this.toId = toId;
+        this.hash = hash;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public long getFromId() {
+        return fromId;
+    }
+
+    public long getToId() {
+        return toId;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+}
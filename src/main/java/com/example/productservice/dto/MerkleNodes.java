@@ -0,0 +1,40 @@
+package com.example.productservice.dto;
+
+import java.util.List;
+
+/**
+ * Consecutive nodes of one level of the catalog hash tree, with the tree's shape. Level 0 is the
+ * root and level {@code depth} the leaves; node {@code i} of a level has children {@code 2i} and
+ * {@code 2i + 1} on the next one. A client whose copy gives the same hash for a node holds the
+ * same products in its id range.
+ */
+public final class MerkleNodes {
+
+    private final long leafWidth;
+    private final int depth;
+    private final int level;
+    private final List<MerkleNode> nodes;
+
+    public MerkleNodes(long leafWidth, int depth, int level, List<MerkleNode> nodes) {
+        this.leafWidth = leafWidth;
+        this.depth = depth;
+        this.level = level;
+        this.nodes = nodes;
+    }
+
+    public long getLeafWidth() {
+        return leafWidth;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public List<MerkleNode> getNodes() {
+        return nodes;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.productservice.dto;
+
+import com.example.productservice.model.Product;
+
+/**
+ * One entry of the change feed: the current state of a written product, or a delete.
+ */
+public final class ProductChange {
+
+    private final long seq;
+    private final long id;
+    private final boolean deleted;
+    private final Product product;
+
+    private ProductChange(long seq, long id, boolean deleted, Product product) {
+        this.seq = seq;
+        this.id = id;
+        this.deleted = deleted;
+        this.product = product;
+    }
+
+    public static ProductChange written(Product product) {
+        return new ProductChange(product.getModSeq(), product.getId(), false, product);
+    }
+
+    public static ProductChange deleted(long seq, long id) {
+        return new ProductChange(seq, id, true, null);
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    // null for deletes
+    public Product getProduct() {
+        return product;
+    }
+}
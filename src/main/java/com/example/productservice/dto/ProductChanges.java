@@ -0,0 +1,32 @@
+package com.example.productservice.dto;
+
+import java.util.List;
+
+/**
+ * A page of the change feed, oldest change first. Pass {@link #getNextSince()} as {@code since}
+ * to get the next page; when {@link #isHasMore()} is false the client is up to date.
+ */
+public final class ProductChanges {
+
+    private final List<ProductChange> changes;
+    private final long nextSince;
+    private final boolean hasMore;
+
+    public ProductChanges(List<ProductChange> changes, long nextSince, boolean hasMore) {
+        this.changes = changes;
+        this.nextSince = nextSince;
+        this.hasMore = hasMore;
+    }
+
+    public List<ProductChange> getChanges() {
+        return changes;
+    }
+
+    public long getNextSince() {
+        return nextSince;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.productservice.dto;
+
+import com.example.productservice.model.Product;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Product fields that can be requested with {@code fields=}.
+ * <p>
+ * Each field knows its entity attribute (for the SELECT list) and carries a pre-encoded JSON name
+ * and a typed value writer, so writing a row never goes through reflection.
+ */
+public enum ProductField {
+
+    ID("id") {
+        @Override
+        void writeValue(JsonGenerator generator, Object value) throws IOException {
+            generator.writeNumber((Long) value);
+        }
+    },
+    NAME("name") {
+        @Override
+        void writeValue(JsonGenerator generator, Object value) throws IOException {
+            generator.writeString((String) value);
+        }
+    },
+    DESCRIPTION("description") {
+        @Override
+        void writeValue(JsonGenerator generator, Object value) throws IOException {
+            generator.writeString((String) value);
+        }
+    },
+    PRICE("price") {
+        @Override
+        void writeValue(JsonGenerator generator, Object value) throws IOException {
+            generator.writeNumber((BigDecimal) value);
+        }
+    },
+    STOCK("stock") {
+        @Override
+        void writeValue(JsonGenerator generator, Object value) throws IOException {
+            generator.writeNumber((Integer) value);
+        }
+    };
+
+    private final String attribute;
+    private final SerializedString jsonName;
+
+    ProductField(String attribute) {
+        this.attribute = attribute;
+        this.jsonName = new SerializedString(attribute);
+    }
+
+    /**
+     * @return the {@code Product} entity attribute, which is also the JSON property name
+     */
+    public String getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * @return this field's value on an in-memory product
+     */
+    public Object readFrom(Product product) {
+        switch (this) {
+            case ID:
+                return product.getId();
+            case NAME:
+                return product.getName();
+            case DESCRIPTION:
+                return product.getDescription();
+            case PRICE:
+                return product.getPrice();
+            default:
+                return product.getStock();
+        }
+    }
+
+    SerializedString getJsonName() {
+        return jsonName;
+    }
+
+    abstract void writeValue(JsonGenerator generator, Object value) throws IOException;
+
+    void write(JsonGenerator generator, Object value) throws IOException {
+        generator.writeFieldName(jsonName);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            writeValue(generator, value);
+        }
+    }
+}
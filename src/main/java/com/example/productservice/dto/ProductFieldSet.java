@@ -0,0 +1,96 @@
+package com.example.productservice.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An immutable selection of {@link ProductField}s.
+ * <p>
+ * There are only 2^5 possible selections, so every one is built once up front and
+ * {@link #parse(String)} just maps a {@code fields=} value onto a cached instance.
+ */
+public final class ProductFieldSet {
+
+    private static final ProductField[] ALL_FIELDS = ProductField.values();
+    private static final ProductFieldSet[] CACHE = new ProductFieldSet[1 << ALL_FIELDS.length];
+
+    static {
+        for (int mask = 1; mask < CACHE.length; mask++) {
+            CACHE[mask] = new ProductFieldSet(mask);
+        }
+    }
+
+    public static final ProductFieldSet ALL = CACHE[CACHE.length - 1];
+
+    private final int mask;
+    private final ProductField[] fields;
+
+    private ProductFieldSet(int mask) {
+        this.mask = mask;
+        List<ProductField> selected = new ArrayList<>();
+        for (ProductField field : ALL_FIELDS) {
+            if ((mask & (1 << field.ordinal())) != 0) {
+                selected.add(field);
+            }
+        }
+        this.fields = selected.toArray(new ProductField[0]);
+    }
+
+    /**
+     * Parse a comma-separated list of field names such as {@code id,name,price}.
+     *
+     * @param fields the raw parameter; {@code null} or blank selects every field
+     * @return the cached field set, with fields in declaration order
+     * @throws IllegalArgumentException if a name is not a product field
+     */
+    public static ProductFieldSet parse(String fields) {
+        if (fields == null || fields.trim().isEmpty()) {
+            return ALL;
+        }
+        int mask = 0;
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            mask |= 1 << lookup(trimmed).ordinal();
+        }
+        return mask == 0 ? ALL : CACHE[mask];
+    }
+
+    private static ProductField lookup(String name) {
+        for (ProductField field : ALL_FIELDS) {
+            if (field.getAttribute().equalsIgnoreCase(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown product field: " + name);
+    }
+
+    /**
+     * @return the selected fields in declaration order; callers must not modify the array
+     */
+    public ProductField[] getFields() {
+        return fields;
+    }
+
+    public int size() {
+        return fields.length;
+    }
+
+    public boolean contains(ProductField field) {
+        return (mask & (1 << field.ordinal())) != 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (ProductField field : fields) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(field.getAttribute());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.productservice.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.List;
+
+/**
+ * A list of partial products, one {@code Object[]} per row with values in {@link ProductFieldSet} order.
+ * Serialized as a JSON array of objects containing only the selected fields.
+ */
+@JsonSerialize(using = ProductRowsSerializer.class)
+public class ProductRows {
+
+    private final ProductFieldSet fields;
+    private final List<Object[]> rows;
+
+    public ProductRows(ProductFieldSet fields, List<Object[]> rows) {
+        this.fields = fields;
+        this.rows = rows;
+    }
+
+    public ProductFieldSet getFields() {
+        return fields;
+    }
+
+    public List<Object[]> getRows() {
+        return rows;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.productservice.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link ProductRows} using the field set's pre-encoded names and typed writers.
+ */
+public class ProductRowsSerializer extends StdSerializer<ProductRows> {
+
+    public ProductRowsSerializer() {
+        super(ProductRows.class);
+    }
+
+    @Override
+    public void serialize(ProductRows value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        ProductField[] fields = value.getFields().getFields();
+        generator.writeStartArray();
+        for (Object[] row : value.getRows()) {
+            generator.writeStartObject();
+            for (int i = 0; i < fields.length; i++) {
+                fields[i].write(generator, row[i]);
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+}
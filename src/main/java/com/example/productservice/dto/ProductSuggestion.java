@@ -0,0 +1,29 @@
+package com.example.productservice.dto;
+
+/**
+ * One autocomplete suggestion: enough to render the entry and link to the product.
+ */
+public final class ProductSuggestion {
+
+    private final long id;
+    private final String name;
+    private final int stock;
+
+    public ProductSuggestion(long id, String name, int stock) {
+        this.id = id;
+        this.name = name;
+        this.stock = stock;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getStock() {
+        return stock;
+    }
+}
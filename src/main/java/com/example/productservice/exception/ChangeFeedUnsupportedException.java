@@ -0,0 +1,12 @@
+package com.example.productservice.exception;
+
+/**
+ * Thrown when the change feed is asked of a store that does not keep a change log. Mapped to
+ * 501 Not Implemented.
+ */
+public class ChangeFeedUnsupportedException extends ProductServiceException {
+
+    public ChangeFeedUnsupportedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.productservice.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pre-serialized {@code {"error": "..."}} response bodies.
+ * <p>
+ * Error responses are written as raw JSON bytes instead of going through a per-request
+ * {@code Map} and Jackson. Fixed messages are encoded once; dynamic messages are escaped
+ * straight into a byte array.
+ */
+final class ErrorBodies {
+
+    static final byte[] UNEXPECTED_ERROR = encode("An unexpected error occurred. Please try again later.");
+
+    private static final HttpHeaders JSON_HEADERS = new HttpHeaders();
+
+    static {
+        JSON_HEADERS.setContentType(MediaType.APPLICATION_JSON);
+    }
+
+    private ErrorBodies() {
+    }
+
+    static ResponseEntity<Object> response(HttpStatus status, byte[] body) {
+        return new ResponseEntity<>(body, HttpHeaders.readOnlyHttpHeaders(JSON_HEADERS), status);
+    }
+
+    static ResponseEntity<Object> response(HttpStatus status, String message) {
+        return response(status, encode(message));
+    }
+
+    static ResponseEntity<Object> response(HttpStatus status, String message, long retryAfterSeconds) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(JSON_HEADERS);
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        return new ResponseEntity<>(encode(message), headers, status);
+    }
+
+    static byte[] encode(String message) {
+        StringBuilder json = new StringBuilder(message == null ? 16 : message.length() + 16);
+        json.append("{\"error\":");
+        if (message == null) {
+            json.append("null");
+        } else {
+            json.append('"');
+            appendEscaped(json, message);
+            json.append('"');
+        }
+        json.append('}');
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendEscaped(StringBuilder json, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.productservice.exception;
 
+import com.example.productservice.logging.RateLimitedLogger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
@@ -21,6 +22,10 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    // Client errors are expected under misbehaving clients or scanners: rate-limit them
+    private static final RateLimitedLogger clientErrorLogger = new RateLimitedLogger(logger, 20, 10_000L);
+    private static final RateLimitedLogger serverErrorLogger = new RateLimitedLogger(logger, 50, 10_000L);
+
     // Handle validation errors (from @Valid)
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex,
@@ -33,7 +38,7 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
             String errorMessage = error.getDefaultMessage();
             errors.put(fieldName, errorMessage);
         });
-        logger.warn("Validation failed: {}", errors);
+        clientErrorLogger.warn("Validation failed: {}", errors);
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
 
@@ -46,25 +51,56 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
             String message = violation.getMessage();
             errors.put(field, message);
         });
-        logger.warn("Constraint violation: {}", errors);
+        clientErrorLogger.warn("Constraint violation: {}", errors);
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
 
-    // Handle IllegalArgumentException (e.g., not found, bad input)
+    // Handle InvalidProductException (service-level validation of products from any caller)
+    @ExceptionHandler(InvalidProductException.class)
+    public ResponseEntity<Object> handleInvalidProductException(InvalidProductException ex) {
+        clientErrorLogger.warn("Validation failed: {}", ex.getViolations());
+        return new ResponseEntity<>(ex.getViolations(), HttpStatus.BAD_REQUEST);
+    }
+
+    // Handle ProductNotFoundException (unknown product id)
+    @ExceptionHandler(ProductNotFoundException.class)
+    public ResponseEntity<Object> handleProductNotFoundException(ProductNotFoundException ex) {
+        clientErrorLogger.warn("Not found: {}", ex.getMessage());
+        return ErrorBodies.response(HttpStatus.NOT_FOUND, ex.getMessage());
+    }
+
+    // Handle ProductConflictException and InsufficientStockException (write conflicts with current state)
+    @ExceptionHandler({ProductConflictException.class, InsufficientStockException.class})
+    public ResponseEntity<Object> handleConflictException(ProductServiceException ex) {
+        clientErrorLogger.warn("Conflict: {}", ex.getMessage());
+        return ErrorBodies.response(HttpStatus.CONFLICT, ex.getMessage());
+    }
+
+    // Handle IllegalArgumentException (e.g., bad input)
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Object> handleIllegalArgumentException(IllegalArgumentException ex) {
-        logger.warn("Illegal argument: {}", ex.getMessage());
-        Map<String, String> error = new HashMap<>();
-        error.put("error", ex.getMessage());
-        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        clientErrorLogger.warn("Illegal argument: {}", ex.getMessage());
+        return ErrorBodies.response(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    // Handle ShardTimeoutException (a shard did not answer a fanned-out query in time)
+    @ExceptionHandler(ShardTimeoutException.class)
+    public ResponseEntity<Object> handleShardTimeoutException(ShardTimeoutException ex) {
+        serverErrorLogger.warn("Shard timeout: {}", ex.getMessage());
+        return ErrorBodies.response(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), 1);
+    }
+
+    // Handle ChangeFeedUnsupportedException (the change feed on a store without a change log)
+    @ExceptionHandler(ChangeFeedUnsupportedException.class)
+    public ResponseEntity<Object> handleChangeFeedUnsupportedException(ChangeFeedUnsupportedException ex) {
+        clientErrorLogger.warn("Not implemented: {}", ex.getMessage());
+        return ErrorBodies.response(HttpStatus.NOT_IMPLEMENTED, ex.getMessage());
     }
 
     // Handle all other exceptions
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Object> handleAllExceptions(Exception ex) {
-        logger.error("Unexpected error: ", ex);
-        Map<String, String> error = new HashMap<>();
-        error.put("error", "An unexpected error occurred. Please try again later.");
-        return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
+        serverErrorLogger.error("Unexpected error: ", ex);
+        return ErrorBodies.response(HttpStatus.INTERNAL_SERVER_ERROR, ErrorBodies.UNEXPECTED_ERROR);
     }
 }
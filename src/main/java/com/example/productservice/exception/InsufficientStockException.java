@@ -0,0 +1,31 @@
+package com.example.productservice.exception;
+
+/**
+ * Thrown when a stock change would take a product below zero. Mapped to 409 Conflict.
+ */
+public class InsufficientStockException extends ProductServiceException {
+
+    private final Long productId;
+    private final int available;
+    private final int requested;
+
+    public InsufficientStockException(Long productId, int available, int requested) {
+        super("Insufficient stock for product id: " + productId
+                + " (available " + available + ", requested " + requested + ")");
+        this.productId = productId;
+        this.available = available;
+        this.requested = requested;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.productservice.exception;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Thrown when a product reaching the service fails validation. Mapped to 400 Bad Request with the
+ * same field-to-message body as a rejected request body.
+ */
+public class InvalidProductException extends ProductServiceException {
+
+    private final Map<String, String> violations;
+
+    public InvalidProductException(Map<String, String> violations) {
+        super("Invalid product: " + violations);
+        this.violations = Collections.unmodifiableMap(violations);
+    }
+
+    public Map<String, String> getViolations() {
+        return violations;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.productservice.exception;
+
+/**
+ * Thrown when a write conflicts with the current state of a product. Mapped to 409 Conflict.
+ */
+public class ProductConflictException extends ProductServiceException {
+
+    public ProductConflictException(String message) {
+        super(message);
+    }
+}
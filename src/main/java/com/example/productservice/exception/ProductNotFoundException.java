@@ -0,0 +1,18 @@
+package com.example.productservice.exception;
+
+/**
+ * Thrown when a product id does not exist. Mapped to 404 Not Found.
+ */
+public class ProductNotFoundException extends ProductServiceException {
+
+    private final Long productId;
+
+    public ProductNotFoundException(Long productId) {
+        super("Product not found with id: " + productId);
+        this.productId = productId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+}
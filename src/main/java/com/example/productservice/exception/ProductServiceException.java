@@ -0,0 +1,15 @@
+package com.example.productservice.exception;
+
+/**
+ * Base class for expected domain errors raised by the product service.
+ * <p>
+ * These exceptions describe client mistakes (unknown id, conflicting write, not enough stock),
+ * not bugs, so they are created without a stack trace and without suppression support.
+ * That keeps the error path as cheap as the happy path when clients misbehave.
+ */
+public abstract class ProductServiceException extends RuntimeException {
+
+    protected ProductServiceException(String message) {
+        super(message, null, false, false);
+    }
+}
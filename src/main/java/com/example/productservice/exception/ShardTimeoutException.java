@@ -0,0 +1,11 @@
+package com.example.productservice.exception;
+
+/**
+ * Thrown when a shard does not answer a fanned-out query in time. Mapped to 503 Service Unavailable.
+ */
+public class ShardTimeoutException extends ProductServiceException {
+
+    public ShardTimeoutException(int shard, long timeoutMs) {
+        super("Shard " + shard + " did not answer within " + timeoutMs + " ms");
+    }
+}
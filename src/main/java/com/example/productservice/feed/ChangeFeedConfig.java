@@ -0,0 +1,47 @@
+package com.example.productservice.feed;
+
+import com.example.productservice.stock.StockWriteBehind;
+import com.example.productservice.store.ProductStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Follows the change feed into every {@link ChangeFeedListener} bean, when the feed is enabled on
+ * the {@code jpa} store. Without it, listeners only see this instance's writes.
+ */
+@Configuration
+@ConditionalOnExpression(ChangeFeedConfig.FOLLOWING)
+public class ChangeFeedConfig {
+
+    /**
+     * Condition under which the change feed is followed, for components that fall back to something else.
+     */
+    public static final String FOLLOWING =
+            "'${product.store.type:jpa}' == 'jpa' and ${product.change-feed.enabled:false}";
+
+    @Bean(destroyMethod = "close")
+    public ChangeFeedFollower changeFeedFollower(
+            ProductStore productStore,
+            PlatformTransactionManager transactionManager,
+            StockWriteBehind stockWriteBehind,
+            List<ChangeFeedListener> listeners,
+            @Value("${product.change-feed.follow-interval-ms:1000}") long followIntervalMs,
+            @Value("${product.change-feed.rebuild-interval-ms:3600000}") long rebuildIntervalMs) {
+        return new ChangeFeedFollower(productStore, new TransactionTemplate(transactionManager), stockWriteBehind,
+                listeners, followIntervalMs, rebuildIntervalMs);
+    }
+
+    // Started once the application is ready, like the other in-memory indexes
+    @Bean
+    public ApplicationListener<ApplicationReadyEvent> changeFeedFollowerStarter(ChangeFeedFollower follower) {
+        return event -> follower.start();
+    }
+}
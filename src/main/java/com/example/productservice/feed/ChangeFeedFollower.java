@@ -0,0 +1,159 @@
+package com.example.productservice.feed;
+
+import com.example.productservice.dto.ProductChange;
+import com.example.productservice.dto.ProductChanges;
+import com.example.productservice.logging.RateLimitedLogger;
+import com.example.productservice.model.Product;
+import com.example.productservice.stock.StockWriteBehind;
+import com.example.productservice.store.ProductStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follows the store's change feed and hands every committed write, from this instance or any
+ * other, to the {@link ChangeFeedListener}s.
+ * <p>
+ * Following starts with a rebuild: the committed sequence number is read first and the whole
+ * catalog second, in one transaction, so the snapshot holds every change up to that number and
+ * polling continues from it. Changes committed between the two reads are delivered again, which
+ * listeners tolerate. The rebuild repeats every {@code rebuildIntervalMs} to repair anything a
+ * listener got wrong. Everything runs on one thread, so listeners see changes in commit order and
+ * never concurrently. Written products carry their pending write-behind stock, like other reads.
+ */
+public class ChangeFeedFollower implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeedFollower.class);
+    private static final RateLimitedLogger failureLogger = new RateLimitedLogger(logger, 1, 10_000L);
+
+    static final int PAGE_SIZE = 500;
+
+    private final ProductStore productStore;
+    private final TransactionOperations transactions;
+    private final StockWriteBehind stockWriteBehind;
+    private final List<ChangeFeedListener> listeners;
+    private final long followIntervalMs;
+    private final long rebuildIntervalNanos;
+    private final ScheduledExecutorService follower;
+
+    // Only touched by the follower thread (or a test calling follow() directly)
+    private long cursor;
+    private long lastRebuildNanos;
+    private boolean rebuilt;
+
+    /**
+     * @param transactions must not be read-only, so that the reads go to the primary database
+     */
+    public ChangeFeedFollower(ProductStore productStore, TransactionOperations transactions,
+                              StockWriteBehind stockWriteBehind, List<ChangeFeedListener> listeners,
+                              long followIntervalMs, long rebuildIntervalMs) {
+        this.productStore = productStore;
+        this.transactions = transactions;
+        this.stockWriteBehind = stockWriteBehind;
+        this.listeners = new ArrayList<>(listeners);
+        this.followIntervalMs = followIntervalMs;
+        this.rebuildIntervalNanos = TimeUnit.MILLISECONDS.toNanos(rebuildIntervalMs);
+        this.follower = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "change-feed-follower");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Load the listeners and keep following in the background.
+     */
+    public void start() {
+        follower.scheduleWithFixedDelay(this::followQuietly, 0, followIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Rebuild if one is due, then deliver every change committed since the last call.
+     */
+    void follow(long nowNanos) {
+        if (!rebuilt || nowNanos - lastRebuildNanos >= rebuildIntervalNanos) {
+            rebuild();
+            lastRebuildNanos = nowNanos;
+            rebuilt = true;
+        }
+        ProductChanges page;
+        do {
+            long since = cursor;
+            page = transactions.execute(status -> productStore.findChangesSince(since, PAGE_SIZE));
+            if (!page.getChanges().isEmpty()) {
+                List<ProductChange> changes = withPendingStock(page.getChanges());
+                for (ChangeFeedListener listener : listeners) {
+                    listener.apply(changes);
+                }
+            }
+            cursor = page.getNextSince();
+        } while (page.isHasMore());
+    }
+
+    private void rebuild() {
+        Snapshot snapshot = transactions.execute(status -> {
+            long seq = productStore.currentChangeSeq();
+            return new Snapshot(seq, stockWriteBehind.readProducts(productStore::findAll));
+        });
+        for (ChangeFeedListener listener : listeners) {
+            listener.reload(snapshot.products);
+        }
+        cursor = snapshot.seq;
+        logger.info("Rebuilt {} change feed listeners from {} products at sequence {}", listeners.size(),
+                snapshot.products.size(), snapshot.seq);
+    }
+
+    private List<ProductChange> withPendingStock(List<ProductChange> changes) {
+        List<Product> written = new ArrayList<>(changes.size());
+        for (ProductChange change : changes) {
+            if (!change.isDeleted()) {
+                written.add(change.getProduct());
+            }
+        }
+        if (written.isEmpty()) {
+            return changes;
+        }
+        Map<Long, Product> current = new HashMap<>();
+        for (Product product : stockWriteBehind.readProducts(() -> written)) {
+            current.put(product.getId(), product);
+        }
+        List<ProductChange> result = new ArrayList<>(changes.size());
+        for (ProductChange change : changes) {
+            result.add(change.isDeleted() ? change : ProductChange.written(current.get(change.getId())));
+        }
+        return result;
+    }
+
+    private void followQuietly() {
+        try {
+            follow(System.nanoTime());
+        } catch (RuntimeException ex) {
+            // The cursor only moves past delivered changes, so the next run picks up from here
+            failureLogger.warn("Following the change feed failed", ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        follower.shutdownNow();
+    }
+
+    private static final class Snapshot {
+        private final long seq;
+        private final List<Product> products;
+
+        private Snapshot(long seq, List<Product> products) {
+            this.seq = seq;
+            this.products = products;
+        }
+    }
+}
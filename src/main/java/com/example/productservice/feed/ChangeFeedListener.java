@@ -0,0 +1,25 @@
+package com.example.productservice.feed;
+
+import com.example.productservice.dto.ProductChange;
+import com.example.productservice.model.Product;
+
+import java.util.List;
+
+/**
+ * Receives the catalog from a {@link ChangeFeedFollower}: a full snapshot when following starts and
+ * at every rebuild, then the changes committed after it. Calls come from a single thread, in commit
+ * order.
+ */
+public interface ChangeFeedListener {
+
+    /**
+     * Replace everything with this snapshot of the catalog.
+     */
+    void reload(List<Product> products);
+
+    /**
+     * Apply changes committed since the previous call, oldest first. Each written product carries its
+     * latest state, so a change may be delivered again without harm.
+     */
+    void apply(List<ProductChange> changes);
+}
@@ -0,0 +1,106 @@
+package com.example.productservice.hotkeys;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size frequency estimator. Each key is counted in one cell of each of {@code depth} rows,
+ * and its estimate is the smallest of those cells. Callers pass a 64-bit hash of the key (see
+ * {@link #hashLong} and {@link #hashChars}); each row mixes it with its own random seed, so two
+ * keys share a cell in one row independently of the other rows. Estimates are
+ * never below the true count and exceed it by at most about {@code e * total / width} with
+ * probability {@code 1 - e^-depth}.
+ * <p>
+ * Cells are atomic counters, so {@link #add} takes no lock. {@link #decay} halves every cell, so
+ * old traffic weighs half as much after each call.
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final long[] seeds;
+    private final AtomicLongArray cells;
+
+    /**
+     * @param width cells per row, rounded up to a power of two
+     */
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1 || width > 1 << 24) {
+            throw new IllegalArgumentException("Sketch depth must be positive and width between 1 and 2^24");
+        }
+        int rowWidth = Integer.highestOneBit(width) == width ? width : Integer.highestOneBit(width) << 1;
+        this.depth = depth;
+        this.mask = rowWidth - 1;
+        this.seeds = new long[depth];
+        for (int row = 0; row < depth; row++) {
+            seeds[row] = mix((row + 1) * 0x9E3779B97F4A7C15L);
+        }
+        this.cells = new AtomicLongArray(depth * rowWidth);
+    }
+
+    /**
+     * Add {@code count} occurrences of a key.
+     *
+     * @param hash a 64-bit hash of the key; rows derive their own hashes from it
+     * @return the key's estimate after the addition
+     */
+    public long add(long hash, long count) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, cells.addAndGet(cell(row, hash), count));
+        }
+        return estimate;
+    }
+
+    public long estimate(long hash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, cells.get(cell(row, hash)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Halve every cell. Additions made while this runs may be halved or not; either is fine for
+     * an estimate.
+     */
+    public void decay() {
+        for (int i = 0; i < cells.length(); i++) {
+            cells.getAndUpdate(i, count -> count >>> 1);
+        }
+    }
+
+    private int cell(int row, long hash) {
+        return row * (mask + 1) + (int) (mix(hash ^ seeds[row]) & mask);
+    }
+
+    /**
+     * 64-bit hash of a number. Unlike {@link Long#hashCode}, distinct values never collide.
+     */
+    public static long hashLong(Long value) {
+        return mix(value);
+    }
+
+    /**
+     * 64-bit hash of a string (FNV-1a over its chars, then mixed). {@link String#hashCode} has only
+     * 32 bits and is easy to collide on purpose, for example {@code "Aa"} and {@code "BB"}.
+     */
+    public static long hashChars(CharSequence value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(hash ^ value.length());
+    }
+
+    /**
+     * Spread the bits of a 64-bit value (the MurmurHash3 finalizer).
+     */
+    static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB93FE53A87EBL;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.productservice.hotkeys;
+
+import com.example.productservice.dto.HotKey;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * The most frequent keys of a stream, in fixed memory: a {@link CountMinSketch} estimates the
+ * frequency of every key, and the {@code capacity} keys with the highest estimates are kept by
+ * name. A key joins the set once its estimate beats the smallest one in it, which then leaves.
+ * <p>
+ * {@link #record} is lock-free for keys already in the set and for keys whose estimate stays
+ * below the entry threshold, which is nearly every call once the set has filled up; only a key
+ * that earns its place takes the admission lock.
+ *
+ * @param <K> key type; the sketch counts keys by a 64-bit hash, the top set by {@code equals}
+ */
+public class HotKeyTracker<K> {
+
+    private static final Comparator<Map.Entry<?, AtomicLong>> HOTTEST_FIRST =
+            Comparator.comparingLong((Map.Entry<?, AtomicLong> entry) -> entry.getValue().get()).reversed();
+
+    private final CountMinSketch sketch;
+    private final ToLongFunction<? super K> hash;
+    private final int capacity;
+    private final ConcurrentHashMap<K, AtomicLong> top;
+    private final Object admissionLock = new Object();
+    // Smallest count in the set once it is full; 0 while it still has room
+    private volatile long threshold;
+
+    /**
+     * @param hash 64-bit hash of a key, such as {@link CountMinSketch#hashLong}
+     */
+    public HotKeyTracker(int depth, int width, int capacity, ToLongFunction<? super K> hash) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Hot key capacity must be positive");
+        }
+        this.sketch = new CountMinSketch(depth, width);
+        this.hash = hash;
+        this.capacity = capacity;
+        this.top = new ConcurrentHashMap<>(capacity * 2);
+    }
+
+    public void record(K key) {
+        add(key, 1);
+    }
+
+    /**
+     * Add occurrences of a key, for example counts saved before a restart.
+     */
+    public void add(K key, long count) {
+        long estimate = sketch.add(hash.applyAsLong(key), count);
+        AtomicLong current = top.get(key);
+        if (current != null) {
+            current.set(estimate);
+        } else if (estimate > threshold) {
+            admit(key, estimate);
+        }
+    }
+
+    /**
+     * @return up to {@code limit} keys, most frequent first, with their decayed counts
+     */
+    public List<HotKey<K>> top(int limit) {
+        List<Map.Entry<K, AtomicLong>> entries = new ArrayList<>(top.entrySet());
+        entries.sort(HOTTEST_FIRST);
+        List<HotKey<K>> result = new ArrayList<>(Math.min(limit, entries.size()));
+        for (Map.Entry<K, AtomicLong> entry : entries) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(new HotKey<>(entry.getKey(), entry.getValue().get()));
+        }
+        return result;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Halve all counts, so the ranking follows recent traffic. Keys whose count drops to zero leave
+     * the set.
+     */
+    public void decay() {
+        sketch.decay();
+        synchronized (admissionLock) {
+            top.entrySet().removeIf(entry -> entry.getValue().updateAndGet(count -> count >>> 1) == 0);
+            threshold = top.size() < capacity ? 0 : smallest();
+        }
+    }
+
+    private void admit(K key, long estimate) {
+        synchronized (admissionLock) {
+            if (top.containsKey(key)) {
+                return;
+            }
+            if (top.size() >= capacity) {
+                K coldest = null;
+                long coldestCount = Long.MAX_VALUE;
+                for (Map.Entry<K, AtomicLong> entry : top.entrySet()) {
+                    long count = entry.getValue().get();
+                    if (count < coldestCount) {
+                        coldest = entry.getKey();
+                        coldestCount = count;
+                    }
+                }
+                if (estimate <= coldestCount) {
+                    threshold = coldestCount;
+                    return;
+                }
+                top.remove(coldest);
+            }
+            top.put(key, new AtomicLong(estimate));
+            threshold = top.size() < capacity ? 0 : smallest();
+        }
+    }
+
+    private long smallest() {
+        long smallest = Long.MAX_VALUE;
+        for (AtomicLong count : top.values()) {
+            smallest = Math.min(smallest, count.get());
+        }
+        return smallest;
+    }
+}
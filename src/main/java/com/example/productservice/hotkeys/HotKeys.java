@@ -0,0 +1,210 @@
+package com.example.productservice.hotkeys;
+
+import com.example.productservice.dto.HotKey;
+import com.example.productservice.dto.HotKeysReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access frequencies of product ids looked up by id and of name search terms, each tracked by a
+ * {@link HotKeyTracker}. Searches are recorded by {@link SearchRecordingFilter}, so cached answers
+ * count too. Counts are halved every decay interval, so they reflect recent load.
+ * <p>
+ * With a snapshot file, the hottest keys and their counts are written to it after every decay and
+ * on close, and added back when the application starts, so the ranking survives restarts.
+ */
+public class HotKeys implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotKeys.class);
+    // Search terms are counted like the search matches them: trimmed and case-insensitive
+    private static final int MAX_TERM_LENGTH = 100;
+    private static final String PRODUCT = "P";
+    private static final String SEARCH = "S";
+
+    private final boolean enabled;
+    private final HotKeyTracker<Long> products;
+    private final HotKeyTracker<String> searches;
+    private final Path snapshotFile;
+    private final ScheduledExecutorService decayer;
+
+    /**
+     * @return an instance that tracks nothing and reports empty lists
+     */
+    public static HotKeys disabled() {
+        return new HotKeys();
+    }
+
+    /**
+     * @param decayIntervalMs interval between halvings, or 0 to decay only on demand
+     * @param snapshotFile    where to save and restore the hottest keys, or {@code null} for none
+     */
+    public HotKeys(int depth, int width, int capacity, long decayIntervalMs, Path snapshotFile) {
+        this.enabled = true;
+        this.products = new HotKeyTracker<>(depth, width, capacity, CountMinSketch::hashLong);
+        this.searches = new HotKeyTracker<>(depth, width, capacity, CountMinSketch::hashChars);
+        this.snapshotFile = snapshotFile;
+        if (snapshotFile != null) {
+            restore();
+        }
+        this.decayer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "hot-keys-decay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (decayIntervalMs > 0) {
+            decayer.scheduleWithFixedDelay(this::decayQuietly, decayIntervalMs, decayIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private HotKeys() {
+        this.enabled = false;
+        this.products = null;
+        this.searches = null;
+        this.snapshotFile = null;
+        this.decayer = null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void recordProduct(Long id) {
+        if (enabled && id != null) {
+            products.record(id);
+        }
+    }
+
+    public void recordSearch(String name) {
+        if (!enabled || name == null) {
+            return;
+        }
+        String term = normalize(name);
+        if (!term.isEmpty()) {
+            searches.record(term);
+        }
+    }
+
+    /**
+     * @return up to {@code limit} hottest product ids and search terms each
+     */
+    public HotKeysReport report(int limit) {
+        if (!enabled) {
+            return new HotKeysReport(Collections.emptyList(), Collections.emptyList());
+        }
+        return new HotKeysReport(products.top(limit), searches.top(limit));
+    }
+
+    // Largest useful report limit
+    public int capacity() {
+        return enabled ? products.capacity() : 0;
+    }
+
+    /**
+     * Halve all counts, then save the snapshot if there is one.
+     */
+    public void decay() {
+        if (!enabled) {
+            return;
+        }
+        products.decay();
+        searches.decay();
+        if (snapshotFile != null) {
+            save();
+        }
+    }
+
+    /**
+     * Stop decaying and save the snapshot.
+     */
+    @Override
+    public void close() {
+        if (!enabled) {
+            return;
+        }
+        decayer.shutdownNow();
+        if (snapshotFile != null) {
+            save();
+        }
+    }
+
+    private void decayQuietly() {
+        try {
+            decay();
+        } catch (RuntimeException ex) {
+            logger.warn("Hot key decay failed", ex);
+        }
+    }
+
+    // One key per line: P <count> <id> or S <count> <term>; the term is last so it may contain spaces
+    private void save() {
+        Path temporary = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try {
+            Path parent = snapshotFile.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                for (HotKey<Long> key : products.top(products.capacity())) {
+                    writer.write(PRODUCT + ' ' + key.getCount() + ' ' + key.getKey());
+                    writer.newLine();
+                }
+                for (HotKey<String> key : searches.top(searches.capacity())) {
+                    if (key.getKey().indexOf('\n') < 0 && key.getKey().indexOf('\r') < 0) {
+                        writer.write(SEARCH + ' ' + key.getCount() + ' ' + key.getKey());
+                        writer.newLine();
+                    }
+                }
+            }
+            Files.move(temporary, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            logger.warn("Could not save hot keys to {}", snapshotFile, ex);
+        }
+    }
+
+    private void restore() {
+        if (!Files.exists(snapshotFile)) {
+            return;
+        }
+        int restored = 0;
+        try {
+            for (String line : Files.readAllLines(snapshotFile, StandardCharsets.UTF_8)) {
+                String[] parts = line.split(" ", 3);
+                if (parts.length < 3) {
+                    continue;
+                }
+                long count = Long.parseLong(parts[1]);
+                if (PRODUCT.equals(parts[0])) {
+                    products.add(Long.valueOf(parts[2]), count);
+                    restored++;
+                } else if (SEARCH.equals(parts[0])) {
+                    searches.add(parts[2], count);
+                    restored++;
+                }
+            }
+            logger.info("Restored {} hot keys from {}", restored, snapshotFile);
+        } catch (IOException | NumberFormatException ex) {
+            // A stale ranking only costs a warm-up; never fail startup over it
+            logger.warn("Could not restore hot keys from {}", snapshotFile, ex);
+        }
+    }
+
+    private static String normalize(String name) {
+        String term = name.trim().toLowerCase(Locale.ROOT);
+        return term.length() > MAX_TERM_LENGTH ? term.substring(0, MAX_TERM_LENGTH) : term;
+    }
+}
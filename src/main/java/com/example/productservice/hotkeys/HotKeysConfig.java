@@ -0,0 +1,69 @@
+package com.example.productservice.hotkeys;
+
+import com.example.productservice.dto.HotKey;
+import com.example.productservice.dto.ProductFieldSet;
+import com.example.productservice.repository.ProductFilter;
+import com.example.productservice.store.ProductStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the {@link HotKeys} tracker, enabled unless {@code hotkeys.enabled=false}, and optionally
+ * preloads the hottest products once the application is ready.
+ */
+@Configuration
+public class HotKeysConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotKeysConfig.class);
+    // Preloaded ids become one SQL IN list, and Oracle accepts at most 1000 entries
+    private static final int MAX_TOP_SIZE = 1000;
+
+    @Bean(destroyMethod = "close")
+    public HotKeys hotKeys(@Value("${hotkeys.enabled:true}") boolean enabled,
+                           @Value("${hotkeys.sketch.depth:4}") int depth,
+                           @Value("${hotkeys.sketch.width:4096}") int width,
+                           @Value("${hotkeys.top-size:100}") int topSize,
+                           @Value("${hotkeys.decay-interval-ms:60000}") long decayIntervalMs,
+                           @Value("${hotkeys.preload.enabled:false}") boolean preload,
+                           @Value("${hotkeys.preload.snapshot-file:data/hot-keys.txt}") String snapshotFile) {
+        if (!enabled) {
+            return HotKeys.disabled();
+        }
+        if (topSize > MAX_TOP_SIZE) {
+            throw new IllegalArgumentException("hotkeys.top-size must be at most " + MAX_TOP_SIZE);
+        }
+        return new HotKeys(depth, width, topSize, decayIntervalMs, preload ? Paths.get(snapshotFile) : null);
+    }
+
+    // The hottest products from before the restart are read in one query, so their rows are in the
+    // database cache before the first lookups arrive
+    @Bean
+    public ApplicationListener<ApplicationReadyEvent> hotKeysPreloader(HotKeys hotKeys, ProductStore productStore,
+                                                                       @Value("${hotkeys.preload.enabled:false}") boolean preload) {
+        return event -> {
+            if (!preload || !hotKeys.isEnabled()) {
+                return;
+            }
+            List<Long> ids = new ArrayList<>();
+            for (HotKey<Long> key : hotKeys.report(hotKeys.capacity()).getProducts()) {
+                ids.add(key.getKey());
+            }
+            if (ids.isEmpty()) {
+                return;
+            }
+            long start = System.nanoTime();
+            int loaded = productStore.findFields(ProductFilter.all().withIds(ids), ProductFieldSet.ALL).size();
+            logger.info("Preloaded {} of {} hot products in {} ms", loaded, ids.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.productservice.hotkeys;
+
+import com.example.productservice.cache.CatalogResponseCacheFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Counts name searches in {@link HotKeys}. It runs just before {@link CatalogResponseCacheFilter},
+ * which answers cache hits and 304s without reaching the service, so those count too. Only
+ * searches answered with 200 or 304 are counted; rejected and failed ones are not.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class SearchRecordingFilter extends OncePerRequestFilter {
+
+    private static final String SEARCH_PATH = "/api/products/search";
+
+    private final HotKeys hotKeys;
+
+    public SearchRecordingFilter(HotKeys hotKeys) {
+        this.hotKeys = hotKeys;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !hotKeys.isEnabled() || !"GET".equals(request.getMethod())
+                || !SEARCH_PATH.equals(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        filterChain.doFilter(request, response);
+        int status = response.getStatus();
+        if (status == HttpServletResponse.SC_OK || status == HttpServletResponse.SC_NOT_MODIFIED) {
+            hotKeys.recordSearch(request.getParameter("name"));
+        }
+    }
+}
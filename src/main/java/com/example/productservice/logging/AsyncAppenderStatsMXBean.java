@@ -0,0 +1,21 @@
+package com.example.productservice.logging;
+
+/**
+ * JMX view of a {@link CountingAsyncAppender}.
+ */
+public interface AsyncAppenderStatsMXBean {
+
+    /**
+     * @return events dropped because the queue was full and the appender never blocks
+     */
+    long getDroppedCount();
+
+    /**
+     * @return TRACE/DEBUG/INFO events discarded because the queue passed the discarding threshold
+     */
+    long getDiscardedCount();
+
+    int getQueueSize();
+
+    int getRemainingCapacity();
+}
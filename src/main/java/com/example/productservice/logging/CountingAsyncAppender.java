@@ -0,0 +1,74 @@
+package com.example.productservice.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import javax.management.ObjectName;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link AsyncAppender} that counts the events it drops and publishes the counts over JMX as
+ * {@code com.example.productservice:type=AsyncAppender,name=<appender name>}.
+ */
+public class CountingAsyncAppender extends AsyncAppender implements AsyncAppenderStatsMXBean {
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+    private ObjectName objectName;
+
+    @Override
+    public void start() {
+        super.start();
+        if (!isStarted()) {
+            return;
+        }
+        try {
+            objectName = JmxRegistration.register(this, "AsyncAppender", getName());
+        } catch (Exception ex) {
+            addWarn("Could not register JMX stats for appender [" + getName() + "]", ex);
+            objectName = null;
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (objectName != null) {
+            try {
+                JmxRegistration.unregister(objectName);
+            } catch (Exception ex) {
+                addWarn("Could not unregister JMX stats for appender [" + getName() + "]", ex);
+            }
+            objectName = null;
+        }
+        super.stop();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        // A non-blocking appender silently loses events offered to a full queue; count them instead
+        if (isNeverBlock() && getRemainingCapacity() == 0) {
+            dropped.increment();
+            return;
+        }
+        super.append(event);
+    }
+
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        boolean discardable = super.isDiscardable(event);
+        if (discardable) {
+            discarded.increment();
+        }
+        return discardable;
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    @Override
+    public long getDiscardedCount() {
+        return discarded.sum();
+    }
+}
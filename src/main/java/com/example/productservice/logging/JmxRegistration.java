@@ -0,0 +1,32 @@
+package com.example.productservice.logging;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Registers logging components on the platform MBean server under {@code com.example.productservice}.
+ */
+final class JmxRegistration {
+
+    private JmxRegistration() {
+    }
+
+    static ObjectName register(Object bean, String type, String name) throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName("com.example.productservice:type=" + type
+                + ",name=" + ObjectName.quote(name == null ? type : name));
+        if (server.isRegistered(objectName)) {
+            server.unregisterMBean(objectName);
+        }
+        server.registerMBean(bean, objectName);
+        return objectName;
+    }
+
+    static void unregister(ObjectName objectName) throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(objectName)) {
+            server.unregisterMBean(objectName);
+        }
+    }
+}
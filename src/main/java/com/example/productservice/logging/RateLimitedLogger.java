@@ -0,0 +1,113 @@
+package com.example.productservice.logging;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate-limited wrapper around an SLF4J logger for noisy error paths.
+ * <p>
+ * At most {@code permitsPerWindow} events are written per time window. Everything else is counted,
+ * and the next event that gets through carries a summary of how many events were suppressed since
+ * the last one.
+ * The fast path is a couple of atomic operations with no locking or message formatting.
+ */
+public class RateLimitedLogger {
+
+    private final Logger delegate;
+    private final int permitsPerWindow;
+    private final long windowMillis;
+    private final LongSupplier clock;
+
+    private final AtomicReference<Window> window;
+    private final LongAdder suppressed = new LongAdder();
+
+    /**
+     * @param delegate         the logger to write to
+     * @param permitsPerWindow maximum number of events written per window
+     * @param windowMillis     window length in milliseconds
+     */
+    public RateLimitedLogger(Logger delegate, int permitsPerWindow, long windowMillis) {
+        this(delegate, permitsPerWindow, windowMillis, System::currentTimeMillis);
+    }
+
+    RateLimitedLogger(Logger delegate, int permitsPerWindow, long windowMillis, LongSupplier clock) {
+        if (permitsPerWindow < 1 || windowMillis < 1) {
+            throw new IllegalArgumentException("permitsPerWindow and windowMillis must be positive");
+        }
+        this.delegate = delegate;
+        this.permitsPerWindow = permitsPerWindow;
+        this.windowMillis = windowMillis;
+        this.clock = clock;
+        this.window = new AtomicReference<>(new Window(clock.getAsLong()));
+    }
+
+    public void warn(String format, Object... args) {
+        if (delegate.isWarnEnabled() && tryAcquire()) {
+            long count = suppressed.sumThenReset();
+            delegate.warn(withSummary(format, count), withSuppressed(args, count));
+        }
+    }
+
+    public void error(String format, Object... args) {
+        if (delegate.isErrorEnabled() && tryAcquire()) {
+            long count = suppressed.sumThenReset();
+            delegate.error(withSummary(format, count), withSuppressed(args, count));
+        }
+    }
+
+    /**
+     * @return number of events suppressed since the last one that was written
+     */
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+
+    private boolean tryAcquire() {
+        long now = clock.getAsLong();
+        Window current = window.get();
+        if (now - current.start >= windowMillis) {
+            Window next = new Window(now);
+            current = window.compareAndSet(current, next) ? next : window.get();
+        }
+        if (current.used.incrementAndGet() > permitsPerWindow) {
+            suppressed.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private static String withSummary(String format, long count) {
+        return count == 0 ? format : format + " [suppressed {} similar events]";
+    }
+
+    private static Object[] withSuppressed(Object[] args, long count) {
+        if (count == 0) {
+            return args;
+        }
+        // Keep a trailing Throwable last so SLF4J still prints it as the exception
+        int last = args.length - 1;
+        Object[] extended = new Object[args.length + 1];
+        if (last >= 0 && args[last] instanceof Throwable) {
+            System.arraycopy(args, 0, extended, 0, last);
+            extended[last] = count;
+            extended[last + 1] = args[last];
+        } else {
+            System.arraycopy(args, 0, extended, 0, args.length);
+            extended[args.length] = count;
+        }
+        return extended;
+    }
+
+    private static final class Window {
+        private final long start;
+        private final AtomicLong used = new AtomicLong();
+
+        private Window(long start) {
+            this.start = start;
+        }
+    }
+}
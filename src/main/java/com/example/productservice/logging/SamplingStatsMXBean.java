@@ -0,0 +1,14 @@
+package com.example.productservice.logging;
+
+/**
+ * JMX view of a {@link SamplingTurboFilter}.
+ */
+public interface SamplingStatsMXBean {
+
+    /**
+     * @return DEBUG/TRACE events suppressed by sampling
+     */
+    long getSampledOutCount();
+
+    int getSampleRate();
+}
@@ -0,0 +1,98 @@
+package com.example.productservice.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import javax.management.ObjectName;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lets through one in every {@code sampleRate} enabled DEBUG/TRACE events from hot-path loggers
+ * (for example {@code org.hibernate.SQL}), before any logging event is created.
+ * INFO and above are never sampled. The number of sampled-out events is published over JMX.
+ */
+public class SamplingTurboFilter extends TurboFilter implements SamplingStatsMXBean {
+
+    private final List<String> loggerPrefixes = new ArrayList<>();
+    private final AtomicLong counter = new AtomicLong();
+    private final LongAdder sampledOut = new LongAdder();
+    private int sampleRate = 100;
+    private ObjectName objectName;
+
+    public void addLoggerPrefix(String loggerPrefix) {
+        loggerPrefixes.add(loggerPrefix.trim());
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public void start() {
+        if (sampleRate < 1) {
+            addError("sampleRate must be positive");
+            return;
+        }
+        super.start();
+        try {
+            objectName = JmxRegistration.register(this, "SamplingTurboFilter", getName());
+        } catch (Exception ex) {
+            addWarn("Could not register JMX stats for sampling filter", ex);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (objectName != null) {
+            try {
+                JmxRegistration.unregister(objectName);
+            } catch (Exception ex) {
+                addWarn("Could not unregister JMX stats for sampling filter", ex);
+            }
+            objectName = null;
+        }
+        super.stop();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+                              Throwable t) {
+        if (!isStarted() || level == null || level.isGreaterOrEqual(Level.INFO) || sampleRate == 1) {
+            return FilterReply.NEUTRAL;
+        }
+        // Disabled events are dropped by the logger anyway; don't let them skew the sample
+        if (!level.isGreaterOrEqual(logger.getEffectiveLevel()) || !matches(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        if (counter.incrementAndGet() % sampleRate == 0) {
+            return FilterReply.NEUTRAL;
+        }
+        sampledOut.increment();
+        return FilterReply.DENY;
+    }
+
+    @Override
+    public long getSampledOutCount() {
+        return sampledOut.sum();
+    }
+
+    @Override
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    private boolean matches(String loggerName) {
+        for (int i = 0; i < loggerPrefixes.size(); i++) {
+            if (loggerName.startsWith(loggerPrefixes.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.productservice.merkle;
+
+import com.example.productservice.dto.MerkleNode;
+import com.example.productservice.dto.MerkleNodes;
+import com.example.productservice.dto.ProductChange;
+import com.example.productservice.exception.ChangeFeedUnsupportedException;
+import com.example.productservice.feed.ChangeFeedFollower;
+import com.example.productservice.feed.ChangeFeedListener;
+import com.example.productservice.model.Product;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hash tree over the catalog, for checking a copy of it range by range.
+ * <p>
+ * The id space is cut into leaves of {@code leafWidth} consecutive ids. A product's hash is the
+ * first 8 bytes of the SHA-256 of {@code id\nname\ndescription\nprice\nstock} in UTF-8 (price with
+ * two decimals, missing values empty); a leaf's hash is the sum of its products' hashes modulo
+ * 2^64, so a write changes it by the difference of two product hashes; and every other node's
+ * hash is the first 8 bytes of the SHA-256 of its two children's hashes, 8 bytes each, big-endian.
+ * A write therefore rehashes only its leaf's path to the root.
+ * <p>
+ * The tree starts with one leaf and doubles its leaves as larger ids arrive. Beyond
+ * {@code maxDepth} levels it doubles the leaf width instead, merging neighbouring leaves, so its
+ * size stays bounded. Clients read the current shape with every list of nodes.
+ * <p>
+ * The tree is fed only by the {@link ChangeFeedFollower}: one thread, in commit order, from every
+ * instance, rebuilt from a full snapshot periodically. Without the feed it is {@link #disabled()}.
+ * Deletions in the feed carry only the id, so the tree keeps every product's hash by id to take
+ * it out of its leaf: memory grows with the catalog, about 80 bytes per product.
+ */
+public class CatalogMerkleTree implements ChangeFeedListener {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(CatalogMerkleTree::sha256);
+
+    private final boolean enabled;
+    private final long initialLeafWidth;
+    private final int maxDepth;
+    private final long maxFetchLeaves;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Product hashes by id, to take a product's old hash out of its leaf; O(catalog size)
+    private final Map<Long, Long> hashes = new HashMap<>();
+    private long leafWidth;
+    private int depth;
+    // Heap layout: the root at 1, children of node n at 2n and 2n + 1, leaves from 1 << depth
+    private long[] nodes;
+
+    /**
+     * @return a tree that holds nothing and rejects reads, for when the change feed is not followed
+     */
+    public static CatalogMerkleTree disabled() {
+        return new CatalogMerkleTree(false, 1, 0, 1);
+    }
+
+    /**
+     * @param maxFetchLeaves widest range, in leaves, that {@link #checkFetchRange} accepts
+     */
+    public CatalogMerkleTree(long leafWidth, int maxDepth, long maxFetchLeaves) {
+        this(true, leafWidth, maxDepth, maxFetchLeaves);
+    }
+
+    private CatalogMerkleTree(boolean enabled, long leafWidth, int maxDepth, long maxFetchLeaves) {
+        if (leafWidth < 1 || maxDepth < 0 || maxDepth > 24 || maxFetchLeaves < 1) {
+            throw new IllegalArgumentException("Leaf width and fetch size must be positive and depth 0 to 24");
+        }
+        this.enabled = enabled;
+        this.initialLeafWidth = leafWidth;
+        this.leafWidth = leafWidth;
+        this.maxDepth = maxDepth;
+        this.maxFetchLeaves = maxFetchLeaves;
+        this.nodes = new long[2];
+        rehashAll();
+    }
+
+    public void put(Product product) {
+        if (product.getId() == null || product.getId() < 0) {
+            return;
+        }
+        long hash = hash(product);
+        lock.writeLock().lock();
+        try {
+            Long previous = hashes.put(product.getId(), hash);
+            if (previous != null && previous == hash) {
+                return;
+            }
+            fit(product.getId());
+            addToLeaf(product.getId(), hash - (previous == null ? 0 : previous));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            Long previous = hashes.remove(id);
+            if (previous != null) {
+                addToLeaf(id, -previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void apply(List<ProductChange> changes) {
+        for (ProductChange change : changes) {
+            if (change.isDeleted()) {
+                remove(change.getId());
+            } else {
+                put(change.getProduct());
+            }
+        }
+    }
+
+    /**
+     * Replace the whole tree with the given products.
+     */
+    @Override
+    public void reload(List<Product> products) {
+        lock.writeLock().lock();
+        try {
+            hashes.clear();
+            long maxId = 0;
+            for (Product product : products) {
+                if (product.getId() != null && product.getId() >= 0) {
+                    hashes.put(product.getId(), hash(product));
+                    maxId = Math.max(maxId, product.getId());
+                }
+            }
+            leafWidth = initialLeafWidth;
+            depth = 0;
+            nodes = new long[2];
+            fit(maxId);
+            hashes.forEach((id, hash) -> nodes[leaf(id)] += hash);
+            rehashAll();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return up to {@code limit} nodes of a level starting at {@code offset}, with the tree's shape
+     * @throws IllegalArgumentException if the level is deeper than the tree or the offset is past its end
+     * @throws ChangeFeedUnsupportedException if the tree is disabled
+     */
+    public MerkleNodes nodes(int level, int offset, int limit) {
+        checkEnabled();
+        lock.readLock().lock();
+        try {
+            if (level < 0 || level > depth) {
+                throw new IllegalArgumentException("level must be between 0 and " + depth);
+            }
+            int width = 1 << level;
+            if (offset < 0 || offset >= width) {
+                throw new IllegalArgumentException("offset must be between 0 and " + (width - 1));
+            }
+            long span = leafWidth << (depth - level);
+            int end = (int) Math.min(width, (long) offset + limit);
+            List<MerkleNode> result = new ArrayList<>(end - offset);
+            for (int i = offset; i < end; i++) {
+                result.add(new MerkleNode(i, i * span, (i + 1) * span - 1, hex(nodes[width + i])));
+            }
+            return new MerkleNodes(leafWidth, depth, level, result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the id range is empty or wider than the fetch limit
+     * @throws ChangeFeedUnsupportedException if the tree is disabled
+     */
+    public void checkFetchRange(long fromId, long toId) {
+        checkEnabled();
+        long maxIds;
+        lock.readLock().lock();
+        try {
+            maxIds = leafWidth * maxFetchLeaves;
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (fromId < 0 || toId < fromId) {
+            throw new IllegalArgumentException("Id range must satisfy 0 <= fromId <= toId");
+        }
+        if (toId - fromId >= maxIds) {
+            throw new IllegalArgumentException("Id range may span at most " + maxIds + " ids; compare child nodes first");
+        }
+    }
+
+    /**
+     * @return the product's hash, as described in the class comment
+     */
+    static long hash(Product product) {
+        BigDecimal price = product.getPrice();
+        String canonical = product.getId() + "\n"
+                + (product.getName() == null ? "" : product.getName()) + "\n"
+                + (product.getDescription() == null ? "" : product.getDescription()) + "\n"
+                + (price == null ? "" : price.setScale(2, RoundingMode.HALF_UP).toPlainString()) + "\n"
+                + (product.getStock() == null ? "" : product.getStock());
+        MessageDigest digest = SHA_256.get();
+        return ByteBuffer.wrap(digest.digest(canonical.getBytes(StandardCharsets.UTF_8))).getLong();
+    }
+
+    static long parent(long left, long right) {
+        MessageDigest digest = SHA_256.get();
+        return ByteBuffer.wrap(digest.digest(ByteBuffer.allocate(16).putLong(left).putLong(right).array())).getLong();
+    }
+
+    static String hex(long hash) {
+        String digits = Long.toHexString(hash);
+        return "0000000000000000".substring(digits.length()) + digits;
+    }
+
+    private int leaf(long id) {
+        return (1 << depth) + (int) (id / leafWidth);
+    }
+
+    private void addToLeaf(long id, long delta) {
+        int node = leaf(id);
+        nodes[node] += delta;
+        for (node >>>= 1; node > 0; node >>>= 1) {
+            nodes[node] = parent(nodes[2 * node], nodes[2 * node + 1]);
+        }
+    }
+
+    // Grow the tree until the id falls in a leaf; leaf hashes are sums, so merged leaves add up
+    private void fit(long id) {
+        if (id / leafWidth < 1L << depth) {
+            return;
+        }
+        while (id / leafWidth >= 1L << depth) {
+            int leaves = 1 << depth;
+            if (depth < maxDepth) {
+                long[] grown = new long[4 * leaves];
+                System.arraycopy(nodes, leaves, grown, 2 * leaves, leaves);
+                nodes = grown;
+                depth++;
+            } else {
+                for (int i = 0; i < leaves / 2; i++) {
+                    nodes[leaves + i] = nodes[leaves + 2 * i] + nodes[leaves + 2 * i + 1];
+                }
+                for (int i = (leaves + 1) / 2; i < leaves; i++) {
+                    nodes[leaves + i] = 0;
+                }
+                leafWidth *= 2;
+            }
+        }
+        rehashAll();
+    }
+
+    private void rehashAll() {
+        for (int node = (1 << depth) - 1; node > 0; node--) {
+            nodes[node] = parent(nodes[2 * node], nodes[2 * node + 1]);
+        }
+    }
+
+    private void checkEnabled() {
+        if (!enabled) {
+            throw new ChangeFeedUnsupportedException(
+                    "The catalog hash tree needs the change feed (product.change-feed.enabled on the jpa store)");
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.productservice.merkle;
+
+import com.example.productservice.feed.ChangeFeedConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Creates the catalog hash tree. The change feed follower fills it and keeps it current; without
+ * the feed the tree is disabled and its endpoints answer 501.
+ */
+@Configuration
+public class MerkleConfig {
+
+    @Bean
+    public CatalogMerkleTree catalogMerkleTree(@Value("#{" + ChangeFeedConfig.FOLLOWING + "}") boolean following,
+                                               @Value("${merkle.leaf-width:256}") long leafWidth,
+                                               @Value("${merkle.max-depth:16}") int maxDepth,
+                                               @Value("${merkle.max-fetch-leaves:16}") long maxFetchLeaves) {
+        if (!following) {
+            return CatalogMerkleTree.disabled();
+        }
+        return new CatalogMerkleTree(leafWidth, maxDepth, maxFetchLeaves);
+    }
+}
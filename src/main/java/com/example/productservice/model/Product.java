@@ -1,5 +1,7 @@
 package com.example.productservice.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import javax.persistence.*;
 import javax.validation.constraints.*;
 import java.io.Serializable;
@@ -7,7 +9,7 @@ import java.math.BigDecimal;
 import java.util.Objects;
 
 @Entity
-@Table(name = "PRODUCTS")
+@Table(name = "PRODUCTS", indexes = @Index(name = "IDX_PRODUCTS_MOD_SEQ", columnList = "MOD_SEQ"))
 public class Product implements Serializable {
 
     @Id
@@ -35,6 +37,11 @@ public class Product implements Serializable {
     @Column(name = "STOCK", nullable = false)
     private Integer stock;
 
+    // Position of the last write in the change feed; assigned by the store, not part of the API body
+    @JsonIgnore
+    @Column(name = "MOD_SEQ")
+    private Long modSeq;
+
     public Product() {
     }
 
@@ -85,6 +92,14 @@ public class Product implements Serializable {
         this.stock = stock;
     }
 
+    public Long getModSeq() {
+        return modSeq;
+    }
+
+    public void setModSeq(Long modSeq) {
+        this.modSeq = modSeq;
+    }
+
     // Utility methods
     @Override
     public boolean equals(Object o) {
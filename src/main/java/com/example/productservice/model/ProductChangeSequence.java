@@ -0,0 +1,30 @@
+package com.example.productservice.model;
+
+import javax.persistence.*;
+
+/**
+ * The counter that hands out modification sequence numbers. It has a single row, which is
+ * updated (and so locked) by every write until that write commits.
+ */
+@Entity
+@Table(name = "PRODUCT_CHANGE_SEQ")
+public class ProductChangeSequence {
+
+    @Id
+    @Column(name = "NAME", length = 30)
+    private String name;
+
+    @Column(name = "LAST_SEQ", nullable = false)
+    private Long lastSeq;
+
+    protected ProductChangeSequence() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Long getLastSeq() {
+        return lastSeq;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.productservice.model;
+
+import javax.persistence.*;
+
+/**
+ * Marks a deleted product in the change feed, so that clients syncing with
+ * {@code /api/products/changes} learn about the delete.
+ */
+@Entity
+@Table(name = "PRODUCT_TOMBSTONES", indexes = @Index(name = "IDX_PRODUCT_TOMBSTONES_MOD_SEQ", columnList = "MOD_SEQ"))
+public class ProductTombstone {
+
+    @Id
+    @Column(name = "PRODUCT_ID")
+    private Long productId;
+
+    @Column(name = "MOD_SEQ", nullable = false)
+    private Long modSeq;
+
+    protected ProductTombstone() {
+    }
+
+    public ProductTombstone(Long productId, Long modSeq) {
+        this.productId = productId;
+        this.modSeq = modSeq;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Long getModSeq() {
+        return modSeq;
+    }
+}
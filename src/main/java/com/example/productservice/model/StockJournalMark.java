@@ -0,0 +1,31 @@
+package com.example.productservice.model;
+
+import javax.persistence.*;
+
+/**
+ * The last stock journal generation whose changes a flush has committed, one row per journal. It is
+ * written in the flush's transaction, so replay after a crash can skip generations that are already
+ * in the database even if their files were not deleted.
+ */
+@Entity
+@Table(name = "STOCK_JOURNAL_MARKS")
+public class StockJournalMark {
+
+    @Id
+    @Column(name = "JOURNAL_ID", length = 36)
+    private String journalId;
+
+    @Column(name = "FLUSHED_GENERATION", nullable = false)
+    private Long flushedGeneration;
+
+    protected StockJournalMark() {
+    }
+
+    public String getJournalId() {
+        return journalId;
+    }
+
+    public Long getFlushedGeneration() {
+        return flushedGeneration;
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.productservice.repository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * A change applied to the price or stock of many products at once: set a value, add to it, or
+ * multiply it. Results are rounded half away from zero to the column's scale (2 for price, whole
+ * units for stock), which is what SQL {@code ROUND} does, so in-memory stores and SQL agree.
+ * Products whose result would be invalid (price not positive, stock negative, or either too large
+ * for its column) are left unchanged.
+ */
+public final class BulkMutation {
+
+    public enum Field {
+        PRICE("PRICE", 2),
+        STOCK("STOCK", 0);
+
+        private final String column;
+        private final int scale;
+
+        Field(String column, int scale) {
+            this.column = column;
+            this.scale = scale;
+        }
+    }
+
+    public enum Operation {
+        SET,
+        ADD,
+        MULTIPLY
+    }
+
+    // PRICE is NUMBER(12,2), STOCK an INT
+    private static final BigDecimal PRICE_LIMIT = new BigDecimal("10000000000");
+    private static final BigDecimal STOCK_LIMIT = BigDecimal.valueOf(Integer.MAX_VALUE);
+    // The bound value is cast to a wide decimal, so the database neither infers the column's type
+    // for it (which would round a multiplier) nor overflows INT arithmetic on stock
+    private static final int VALUE_SCALE = 10;
+    private static final String VALUE = "CAST(? AS DECIMAL(30, " + VALUE_SCALE + "))";
+
+    private final Field field;
+    private final Operation operation;
+    private final BigDecimal value;
+
+    private BulkMutation(Field field, Operation operation, BigDecimal value) {
+        this.field = field;
+        this.operation = operation;
+        this.value = value;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value cannot produce a valid result: a factor that is not
+     *                                  positive, a fractional stock amount, or an invalid value to set
+     */
+    public static BulkMutation of(Field field, Operation operation, BigDecimal value) {
+        if (field == null || operation == null || value == null) {
+            throw new IllegalArgumentException("Bulk update needs a field, an operation and a value");
+        }
+        if (operation == Operation.MULTIPLY) {
+            if (value.signum() <= 0) {
+                throw new IllegalArgumentException("Multiplier must be greater than 0");
+            }
+            if (value.stripTrailingZeros().scale() > VALUE_SCALE) {
+                throw new IllegalArgumentException("Multiplier must have at most " + VALUE_SCALE + " decimals");
+            }
+            return new BulkMutation(field, operation, value);
+        }
+        BigDecimal amount = value.setScale(field.scale, RoundingMode.HALF_UP);
+        if (amount.compareTo(value) != 0) {
+            throw new IllegalArgumentException(field == Field.STOCK
+                    ? "Stock amount must be a whole number" : "Price amount must have at most 2 decimals");
+        }
+        if (operation == Operation.SET && !isValid(field, amount)) {
+            throw new IllegalArgumentException("Invalid " + field.name().toLowerCase() + ": " + value);
+        }
+        return new BulkMutation(field, operation, amount);
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public BigDecimal getValue() {
+        return value;
+    }
+
+    /**
+     * @return the new value for a current value, rounded like {@link #appendSqlAssignment}
+     */
+    public BigDecimal apply(BigDecimal current) {
+        BigDecimal result;
+        switch (operation) {
+            case SET:
+                result = value;
+                break;
+            case ADD:
+                result = current.add(value);
+                break;
+            default:
+                result = current.multiply(value);
+        }
+        return result.setScale(field.scale, RoundingMode.HALF_UP);
+    }
+
+    public boolean isValid(BigDecimal result) {
+        return isValid(field, result);
+    }
+
+    private static boolean isValid(Field field, BigDecimal result) {
+        if (field == Field.PRICE) {
+            return result.signum() > 0 && result.compareTo(PRICE_LIMIT) < 0;
+        }
+        return result.signum() >= 0 && result.compareTo(STOCK_LIMIT) <= 0;
+    }
+
+    /**
+     * Append {@code COLUMN = expression} for an SQL UPDATE, and its bind value.
+     */
+    public void appendSqlAssignment(StringBuilder sql, List<Object> args) {
+        sql.append(field.column).append(" = ").append(sqlExpression());
+        args.add(value);
+    }
+
+    /**
+     * Add the SQL condition that the new value is valid (see {@link #isValid}), and its bind values.
+     * Values to set are checked by {@link #of} and need no guard.
+     */
+    public void addSqlGuard(List<String> conditions, List<Object> args) {
+        if (operation == Operation.SET) {
+            return;
+        }
+        String expression = sqlExpression();
+        if (field == Field.PRICE) {
+            conditions.add(expression + " > 0");
+            conditions.add(expression + " < " + PRICE_LIMIT.toPlainString());
+        } else {
+            conditions.add(expression + " >= 0");
+            conditions.add(expression + " <= " + STOCK_LIMIT.toPlainString());
+        }
+        args.add(value);
+        args.add(value);
+    }
+
+    private String sqlExpression() {
+        switch (operation) {
+            case SET:
+                return "?";
+            case ADD:
+                return "(" + field.column + " + " + VALUE + ")";
+            default:
+                return "ROUND(" + field.column + " * " + VALUE + ", " + field.scale + ")";
+        }
+    }
+
+    @Override
+    public String toString() {
+        return operation + " " + field + " " + value.toPlainString();
+    }
+}
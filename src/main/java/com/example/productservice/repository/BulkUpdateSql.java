@@ -0,0 +1,85 @@
+package com.example.productservice.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The two statements of one bulk update chunk on the PRODUCTS table, shared by the JPA repository and
+ * the plain JDBC store. Both must run in the same transaction.
+ */
+public final class BulkUpdateSql {
+
+    private BulkUpdateSql() {
+    }
+
+    /**
+     * Lock the products that match the filter and would get a valid value. The locks keep them from
+     * changing before {@link #update}, so the returned ids are exactly the rows it changes.
+     *
+     * @return ids of the locked products, ascending
+     */
+    public static List<Long> lockMatching(Connection connection, ProductFilter filter, BulkMutation mutation)
+            throws SQLException {
+        List<String> conditions = new ArrayList<>(6);
+        List<Object> args = new ArrayList<>();
+        filter.addSqlConditions(conditions, args);
+        mutation.addSqlGuard(conditions, args);
+        StringBuilder sql = new StringBuilder("SELECT ID FROM PRODUCTS");
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY ID FOR UPDATE");
+        List<Long> ids = new ArrayList<>();
+        try (PreparedStatement statement = prepare(connection, sql.toString(), args);
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Apply the mutation to the given (locked) products in one UPDATE statement.
+     *
+     * @param modSeqBase when not null, MOD_SEQ is set to this plus the product id
+     * @return number of rows updated
+     */
+    public static int update(Connection connection, List<Long> ids, BulkMutation mutation, Long modSeqBase)
+            throws SQLException {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Object> args = new ArrayList<>(ids.size() + 2);
+        StringBuilder sql = new StringBuilder("UPDATE PRODUCTS SET ");
+        mutation.appendSqlAssignment(sql, args);
+        if (modSeqBase != null) {
+            sql.append(", MOD_SEQ = ? + ID");
+            args.add(modSeqBase);
+        }
+        List<String> conditions = new ArrayList<>(1);
+        ProductFilter.all().withIds(ids).addSqlConditions(conditions, args);
+        sql.append(" WHERE ").append(conditions.get(0));
+        try (PreparedStatement statement = prepare(connection, sql.toString(), args)) {
+            return statement.executeUpdate();
+        }
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql, List<Object> args)
+            throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        try {
+            for (int i = 0; i < args.size(); i++) {
+                statement.setObject(i + 1, args.get(i));
+            }
+            return statement;
+        } catch (SQLException ex) {
+            statement.close();
+            throw ex;
+        }
+    }
+}
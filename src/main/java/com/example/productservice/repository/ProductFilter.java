@@ -0,0 +1,261 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.model.Product;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The name, price and stock conditions supported by the {@link ProductRepository} finders, plus an
+ * optional set or range of product ids, combined with AND. Unset conditions are ignored, so {@link #all()}
+ * matches every product.
+ */
+public final class ProductFilter {
+
+    private static final ProductFilter ALL = new ProductFilter(null, null, null, null, null, null, null, null);
+
+    // Escape character of the name LIKE pattern, so '%' and '_' in a search term match literally
+    private static final char LIKE_ESCAPE = '\\';
+
+    private final String nameContains;
+    private final BigDecimal minPrice;
+    private final BigDecimal maxPrice;
+    private final Integer stockLessThan;
+    private final Integer stockGreaterThan;
+    private final Set<Long> ids;
+    private final Long minId;
+    private final Long maxId;
+
+    private ProductFilter(String nameContains, BigDecimal minPrice, BigDecimal maxPrice,
+                          Integer stockLessThan, Integer stockGreaterThan, Set<Long> ids, Long minId, Long maxId) {
+        this.nameContains = nameContains;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.stockLessThan = stockLessThan;
+        this.stockGreaterThan = stockGreaterThan;
+        this.ids = ids;
+        this.minId = minId;
+        this.maxId = maxId;
+    }
+
+    public static ProductFilter all() {
+        return ALL;
+    }
+
+    public static ProductFilter of(String nameContains, BigDecimal minPrice, BigDecimal maxPrice,
+                                   Integer stockLessThan, Integer stockGreaterThan) {
+        return new ProductFilter(nameContains, minPrice, maxPrice, stockLessThan, stockGreaterThan, null, null, null);
+    }
+
+    // Same conditions as findByNameContainingIgnoreCase
+    public static ProductFilter nameContains(String name) {
+        return new ProductFilter(name, null, null, null, null, null, null, null);
+    }
+
+    // Same conditions as findByPriceGreaterThanEqual
+    public static ProductFilter priceAtLeast(BigDecimal price) {
+        return new ProductFilter(null, price, null, null, null, null, null, null);
+    }
+
+    // Same conditions as findByStockLessThan
+    public static ProductFilter stockLessThan(Integer stock) {
+        return new ProductFilter(null, null, null, stock, null, null, null, null);
+    }
+
+    // Same conditions as findByPriceBetween
+    public static ProductFilter priceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        return new ProductFilter(null, minPrice, maxPrice, null, null, null, null, null);
+    }
+
+    // Same conditions as findByNameAndStockGreaterThan
+    public static ProductFilter nameContainsAndStockGreaterThan(String name, Integer stock) {
+        return new ProductFilter(name, null, null, null, stock, null, null, null);
+    }
+
+    // Products with ids from minId to maxId, both inclusive
+    public static ProductFilter idBetween(long minId, long maxId) {
+        return new ProductFilter(null, null, null, null, null, null, minId, maxId);
+    }
+
+    /**
+     * The same conditions, restricted to the given product ids. Keep the ids to a few hundred: they
+     * become an SQL IN list, and Oracle accepts at most 1000 entries.
+     */
+    public ProductFilter withIds(Collection<Long> ids) {
+        return new ProductFilter(nameContains, minPrice, maxPrice, stockLessThan, stockGreaterThan,
+                Collections.unmodifiableSet(new LinkedHashSet<>(ids)), minId, maxId);
+    }
+
+    public String getNameContains() {
+        return nameContains;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    public Integer getStockLessThan() {
+        return stockLessThan;
+    }
+
+    public Integer getStockGreaterThan() {
+        return stockGreaterThan;
+    }
+
+    // null when not restricted to ids
+    public Set<Long> getIds() {
+        return ids;
+    }
+
+    public Long getMinId() {
+        return minId;
+    }
+
+    public Long getMaxId() {
+        return maxId;
+    }
+
+    /**
+     * @return whether any condition is set
+     */
+    public boolean hasConditions() {
+        return nameContains != null || minPrice != null || maxPrice != null
+                || stockLessThan != null || stockGreaterThan != null || ids != null
+                || minId != null || maxId != null;
+    }
+
+    /**
+     * Evaluate this filter against an in-memory product, with the same semantics as {@link #toPredicates}.
+     */
+    public boolean matches(Product product) {
+        if (ids != null && !ids.contains(product.getId())) {
+            return false;
+        }
+        if ((minId != null && product.getId() < minId) || (maxId != null && product.getId() > maxId)) {
+            return false;
+        }
+        if (nameContains != null && (product.getName() == null
+                || !product.getName().toLowerCase(Locale.ROOT).contains(nameContains.toLowerCase(Locale.ROOT)))) {
+            return false;
+        }
+        BigDecimal price = product.getPrice();
+        if (minPrice != null && (price == null || price.compareTo(minPrice) < 0)) {
+            return false;
+        }
+        if (maxPrice != null && (price == null || price.compareTo(maxPrice) > 0)) {
+            return false;
+        }
+        Integer stock = product.getStock();
+        if (stockLessThan != null && (stock == null || stock >= stockLessThan)) {
+            return false;
+        }
+        return stockGreaterThan == null || (stock != null && stock > stockGreaterThan);
+    }
+
+    /**
+     * Build the JPA criteria predicates for this filter.
+     */
+    public Predicate[] toPredicates(CriteriaBuilder cb, Root<Product> root) {
+        List<Predicate> predicates = new ArrayList<>(4);
+        if (ids != null) {
+            // An empty IN list is not valid SQL; disjunction() is always false
+            predicates.add(ids.isEmpty() ? cb.disjunction() : root.get("id").in(ids));
+        }
+        if (minId != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("id"), minId));
+        }
+        if (maxId != null) {
+            predicates.add(cb.lessThanOrEqualTo(root.get("id"), maxId));
+        }
+        if (nameContains != null) {
+            predicates.add(cb.like(cb.lower(root.get("name")), likePattern(nameContains), LIKE_ESCAPE));
+        }
+        if (minPrice != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("price"), minPrice));
+        }
+        if (maxPrice != null) {
+            predicates.add(cb.lessThanOrEqualTo(root.get("price"), maxPrice));
+        }
+        if (stockLessThan != null) {
+            predicates.add(cb.lessThan(root.get("stock"), stockLessThan));
+        }
+        if (stockGreaterThan != null) {
+            predicates.add(cb.greaterThan(root.get("stock"), stockGreaterThan));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    /**
+     * Add the SQL conditions for this filter on the PRODUCTS columns, with the same semantics as
+     * {@link #toPredicates}, and their bind values in order.
+     */
+    public void addSqlConditions(List<String> conditions, List<Object> args) {
+        if (ids != null && ids.isEmpty()) {
+            conditions.add("1 = 0");
+        } else if (ids != null) {
+            StringBuilder in = new StringBuilder(ids.size() * 3 + 8).append("ID IN (");
+            String separator = "";
+            for (Long id : ids) {
+                in.append(separator).append('?');
+                separator = ", ";
+                args.add(id);
+            }
+            conditions.add(in.append(')').toString());
+        }
+        if (minId != null) {
+            conditions.add("ID >= ?");
+            args.add(minId);
+        }
+        if (maxId != null) {
+            conditions.add("ID <= ?");
+            args.add(maxId);
+        }
+        if (nameContains != null) {
+            conditions.add("LOWER(NAME) LIKE ? ESCAPE '" + LIKE_ESCAPE + "'");
+            args.add(likePattern(nameContains));
+        }
+        if (minPrice != null) {
+            conditions.add("PRICE >= ?");
+            args.add(minPrice);
+        }
+        if (maxPrice != null) {
+            conditions.add("PRICE <= ?");
+            args.add(maxPrice);
+        }
+        if (stockLessThan != null) {
+            conditions.add("STOCK < ?");
+            args.add(stockLessThan);
+        }
+        if (stockGreaterThan != null) {
+            conditions.add("STOCK > ?");
+            args.add(stockGreaterThan);
+        }
+    }
+
+    // Lower-cased, with LIKE wildcards and the escape character escaped, wrapped in '%'
+    private static String likePattern(String contains) {
+        String lower = contains.toLowerCase(Locale.ROOT);
+        StringBuilder pattern = new StringBuilder(lower.length() + 8).append('%');
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                pattern.append(LIKE_ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+}
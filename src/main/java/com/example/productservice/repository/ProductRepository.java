@@ -10,7 +10,7 @@ import java.math.BigDecimal;
 import java.util.List;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
 
     // Find products by name containing (case-insensitive)
     List<Product> findByNameContainingIgnoreCase(String name);
@@ -26,6 +26,8 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByPriceBetween(@Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice);
 
     // Custom query: Find products by name and stock greater than a value
-    @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%')) AND p.stock > :stock")
+    // '%' and '_' in the name match literally, like in the derived ContainingIgnoreCase finder
+    @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :#{escape(#name)}, '%')) "
+            + "ESCAPE :#{escapeCharacter()} AND p.stock > :stock")
     List<Product> findByNameAndStockGreaterThan(@Param("name") String name, @Param("stock") Integer stock);
 }
@@ -0,0 +1,86 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.dto.ProductChanges;
+import com.example.productservice.dto.ProductFieldSet;
+
+import java.util.List;
+
+/**
+ * Hand-written queries that Spring Data cannot derive, implemented by {@link ProductRepositoryImpl}.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Select only the given columns of the products matching the filter.
+     *
+     * @return one array per row, values in {@link ProductFieldSet#getFields()} order
+     */
+    List<Object[]> findFields(ProductFilter filter, ProductFieldSet fields);
+
+    /**
+     * Apply stock updates with batched JDBC UPDATE statements in the current transaction, stamping each
+     * updated row with a new modification sequence number when the change feed is enabled. Updates for products that no longer exist are
+     * skipped. Absolute and relative updates run as separate batches, so each product must appear at most once.
+     *
+     * @return number of rows updated
+     */
+    int updateStock(List<StockUpdate> updates);
+
+    /**
+     * Add a delta to a product's stock with one conditional UPDATE in the current transaction, stamping the
+     * row with a new modification sequence number when the change feed is enabled.
+     *
+     * @return {@code false} if the product does not exist or the stock would drop below zero
+     */
+    boolean addStock(long productId, int delta);
+
+    /**
+     * Apply a bulk mutation to the products matching the filter (a chunk of ids) whose result is valid,
+     * with one locking SELECT and one UPDATE in the current transaction. With the change feed enabled, the
+     * updated rows get consecutive modification sequence numbers by id.
+     *
+     * @return ids of the updated products, ascending
+     */
+    List<Long> bulkUpdate(ProductFilter filter, BulkMutation mutation);
+
+    /**
+     * Reserve {@code count} consecutive modification sequence numbers. The counter row stays locked until
+     * the current transaction ends, so writers are numbered in the order they commit.
+     *
+     * @return the first reserved number
+     */
+    long allocateModSeqs(int count);
+
+    /**
+     * Write a tombstone for a deleted product, numbered after every earlier write.
+     */
+    void recordDeletion(long productId);
+
+    /**
+     * Products written and deleted after {@code since}, oldest change first, at most {@code limit} of them.
+     */
+    ProductChanges findChangesSince(long since, int limit);
+
+    /**
+     * The highest modification sequence number whose write has committed.
+     */
+    long currentChangeSeq();
+
+    /**
+     * Record that a stock journal's generations up to {@code generation} are flushed, in the current
+     * transaction.
+     */
+    void markStockJournalFlushed(String journalId, long generation);
+
+    /**
+     * @return the last generation recorded by {@link #markStockJournalFlushed}, or 0 if there is none
+     */
+    long flushedStockJournalGeneration(String journalId);
+
+    /**
+     * Number the products that have no modification sequence yet (rows written before the column existed).
+     *
+     * @return number of rows numbered
+     */
+    int backfillModSeqs();
+}
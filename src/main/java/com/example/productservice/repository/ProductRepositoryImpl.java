@@ -0,0 +1,298 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.dto.ProductChange;
+import com.example.productservice.dto.ProductChanges;
+import com.example.productservice.dto.ProductField;
+import com.example.productservice.dto.ProductFieldSet;
+import com.example.productservice.model.Product;
+import com.example.productservice.model.ProductTombstone;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    private static final int STOCK_BATCH_SIZE = 500;
+    // A NULL number (change feed disabled) leaves MOD_SEQ as it was
+    private static final String SET_STOCK_SQL =
+            "UPDATE PRODUCTS SET STOCK = ?, MOD_SEQ = COALESCE(?, MOD_SEQ) WHERE ID = ?";
+    private static final String ADD_STOCK_SQL =
+            "UPDATE PRODUCTS SET STOCK = STOCK + ?, MOD_SEQ = COALESCE(?, MOD_SEQ) WHERE ID = ?";
+    private static final String ADD_AVAILABLE_STOCK_SQL =
+            "UPDATE PRODUCTS SET STOCK = STOCK + ?, MOD_SEQ = COALESCE(?, MOD_SEQ) WHERE ID = ? AND STOCK + ? >= 0";
+    private static final String ADVANCE_SEQ_SQL =
+            "UPDATE PRODUCT_CHANGE_SEQ SET LAST_SEQ = LAST_SEQ + ? WHERE NAME = 'PRODUCTS'";
+    private static final String READ_SEQ_SQL = "SELECT LAST_SEQ FROM PRODUCT_CHANGE_SEQ WHERE NAME = 'PRODUCTS'";
+    private static final String CREATE_SEQ_SQL = "INSERT INTO PRODUCT_CHANGE_SEQ (NAME, LAST_SEQ) VALUES ('PRODUCTS', 0)";
+    private static final String MARK_JOURNAL_SQL =
+            "UPDATE STOCK_JOURNAL_MARKS SET FLUSHED_GENERATION = ? WHERE JOURNAL_ID = ?";
+    private static final String CREATE_JOURNAL_MARK_SQL =
+            "INSERT INTO STOCK_JOURNAL_MARKS (FLUSHED_GENERATION, JOURNAL_ID) VALUES (?, ?)";
+    private static final String READ_JOURNAL_MARK_SQL =
+            "SELECT FLUSHED_GENERATION FROM STOCK_JOURNAL_MARKS WHERE JOURNAL_ID = ?";
+    private static final String UNNUMBERED_MAX_ID_SQL = "SELECT MAX(ID) FROM PRODUCTS WHERE MOD_SEQ IS NULL";
+    private static final String BACKFILL_SQL = "UPDATE PRODUCTS SET MOD_SEQ = ? + ID WHERE MOD_SEQ IS NULL";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Off by default: every stamped write holds the single counter row until it commits
+    @Value("${product.change-feed.enabled:false}")
+    private boolean changeFeedEnabled;
+
+    @Override
+    public List<Object[]> findFields(ProductFilter filter, ProductFieldSet fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> root = query.from(Product.class);
+
+        ProductField[] selected = fields.getFields();
+        List<Selection<?>> selections = new ArrayList<>(selected.length);
+        for (ProductField field : selected) {
+            selections.add(root.get(field.getAttribute()));
+        }
+        query.multiselect(selections).where(filter.toPredicates(cb, root));
+
+        // Scalar projection: no entities are instantiated or tracked by the persistence context
+        List<Tuple> tuples = entityManager.createQuery(query).getResultList();
+        List<Object[]> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            rows.add(tuple.toArray());
+        }
+        return rows;
+    }
+
+    @Override
+    public int updateStock(List<StockUpdate> updates) {
+        if (updates.isEmpty()) {
+            return 0;
+        }
+        // Plain JDBC batches: bulk JPQL updates are not batched, and the rows need not be loaded as entities
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            // Updates of missing products leave gaps in the numbering, which readers do not rely on
+            Long seq = changeFeedEnabled ? advanceSequence(connection, updates.size()) - updates.size() + 1 : null;
+            int updated = 0;
+            try (PreparedStatement set = connection.prepareStatement(SET_STOCK_SQL);
+                 PreparedStatement add = connection.prepareStatement(ADD_STOCK_SQL)) {
+                int setBatch = 0;
+                int addBatch = 0;
+                for (StockUpdate update : updates) {
+                    PreparedStatement statement = update.isRelative() ? add : set;
+                    statement.setInt(1, update.getValue());
+                    statement.setObject(2, seq, Types.BIGINT);
+                    statement.setLong(3, update.getProductId());
+                    if (seq != null) {
+                        seq++;
+                    }
+                    statement.addBatch();
+                    if (update.isRelative() ? ++addBatch == STOCK_BATCH_SIZE : ++setBatch == STOCK_BATCH_SIZE) {
+                        updated += executeBatch(statement);
+                        if (update.isRelative()) {
+                            addBatch = 0;
+                        } else {
+                            setBatch = 0;
+                        }
+                    }
+                }
+                if (setBatch > 0) {
+                    updated += executeBatch(set);
+                }
+                if (addBatch > 0) {
+                    updated += executeBatch(add);
+                }
+            }
+            return updated;
+        });
+    }
+
+    @Override
+    public boolean addStock(long productId, int delta) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            Long seq = changeFeedEnabled ? advanceSequence(connection, 1) : null;
+            try (PreparedStatement add = connection.prepareStatement(ADD_AVAILABLE_STOCK_SQL)) {
+                add.setInt(1, delta);
+                add.setObject(2, seq, Types.BIGINT);
+                add.setLong(3, productId);
+                add.setInt(4, delta);
+                return add.executeUpdate() == 1;
+            }
+        });
+    }
+
+    @Override
+    public List<Long> bulkUpdate(ProductFilter filter, BulkMutation mutation) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            List<Long> ids = BulkUpdateSql.lockMatching(connection, filter, mutation);
+            if (ids.isEmpty() || !changeFeedEnabled) {
+                BulkUpdateSql.update(connection, ids, mutation, null);
+                return ids;
+            }
+            // One number per id in the chunk's range keeps MOD_SEQ unique while staying a single UPDATE
+            long first = ids.get(0);
+            long span = ids.get(ids.size() - 1) - first + 1;
+            long base = advanceSequence(connection, span) - span + 1 - first;
+            BulkUpdateSql.update(connection, ids, mutation, base);
+            return ids;
+        });
+    }
+
+    @Override
+    public long allocateModSeqs(int count) {
+        return entityManager.unwrap(Session.class)
+                .doReturningWork(connection -> advanceSequence(connection, count) - count + 1);
+    }
+
+    @Override
+    public void recordDeletion(long productId) {
+        entityManager.merge(new ProductTombstone(productId, allocateModSeqs(1)));
+    }
+
+    @Override
+    public ProductChanges findChangesSince(long since, int limit) {
+        // A number is only visible in the counter once the writer that took it has committed, and every
+        // writer with a lower number committed before it (see advanceSequence). Bounding both queries by
+        // the counter read first keeps them consistent with each other and never skips a late commit.
+        long upTo = entityManager.unwrap(Session.class).doReturningWork(ProductRepositoryImpl::readSequence);
+        List<Product> written = entityManager.createQuery(
+                        "SELECT p FROM Product p WHERE p.modSeq > :since AND p.modSeq <= :upTo ORDER BY p.modSeq",
+                        Product.class)
+                .setParameter("since", since)
+                .setParameter("upTo", upTo)
+                .setMaxResults(limit)
+                .getResultList();
+        List<ProductTombstone> deleted = entityManager.createQuery(
+                        "SELECT t FROM ProductTombstone t WHERE t.modSeq > :since AND t.modSeq <= :upTo ORDER BY t.modSeq",
+                        ProductTombstone.class)
+                .setParameter("since", since)
+                .setParameter("upTo", upTo)
+                .setMaxResults(limit)
+                .getResultList();
+
+        List<ProductChange> changes = new ArrayList<>(Math.min(limit, written.size() + deleted.size()));
+        int w = 0;
+        int d = 0;
+        while (changes.size() < limit && (w < written.size() || d < deleted.size())) {
+            if (d == deleted.size()
+                    || (w < written.size() && written.get(w).getModSeq() < deleted.get(d).getModSeq())) {
+                changes.add(ProductChange.written(written.get(w++)));
+            } else {
+                ProductTombstone tombstone = deleted.get(d++);
+                changes.add(ProductChange.deleted(tombstone.getModSeq(), tombstone.getProductId()));
+            }
+        }
+        // A full page from either query may have more behind it
+        boolean hasMore = written.size() == limit || deleted.size() == limit
+                || w < written.size() || d < deleted.size();
+        long nextSince = hasMore ? changes.get(changes.size() - 1).getSeq() : Math.max(since, upTo);
+        return new ProductChanges(changes, nextSince, hasMore);
+    }
+
+    @Override
+    public long currentChangeSeq() {
+        return entityManager.unwrap(Session.class).doReturningWork(ProductRepositoryImpl::readSequence);
+    }
+
+    @Override
+    public int backfillModSeqs() {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            long maxId;
+            try (PreparedStatement query = connection.prepareStatement(UNNUMBERED_MAX_ID_SQL);
+                 ResultSet rs = query.executeQuery()) {
+                rs.next();
+                maxId = rs.getLong(1);
+            }
+            if (maxId == 0) {
+                return 0;
+            }
+            // One block as large as the highest id, so that base + ID is unique per row
+            long base = advanceSequence(connection, maxId) - maxId;
+            try (PreparedStatement backfill = connection.prepareStatement(BACKFILL_SQL)) {
+                backfill.setLong(1, base);
+                return backfill.executeUpdate();
+            }
+        });
+    }
+
+    // Each journal belongs to one instance, so the row is never created concurrently
+    @Override
+    public void markStockJournalFlushed(String journalId, long generation) {
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement mark = connection.prepareStatement(MARK_JOURNAL_SQL)) {
+                mark.setLong(1, generation);
+                mark.setString(2, journalId);
+                if (mark.executeUpdate() == 1) {
+                    return;
+                }
+            }
+            try (PreparedStatement create = connection.prepareStatement(CREATE_JOURNAL_MARK_SQL)) {
+                create.setLong(1, generation);
+                create.setString(2, journalId);
+                create.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    public long flushedStockJournalGeneration(String journalId) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement query = connection.prepareStatement(READ_JOURNAL_MARK_SQL)) {
+                query.setString(1, journalId);
+                try (ResultSet rs = query.executeQuery()) {
+                    return rs.next() ? rs.getLong(1) : 0L;
+                }
+            }
+        });
+    }
+
+    // Plain JDBC so that a lost race to create the counter row does not mark the JPA transaction for rollback.
+    // The UPDATE locks the row until the transaction ends: a later writer waits, gets a higher number, and
+    // commits after this one.
+    private static long advanceSequence(Connection connection, long count) throws SQLException {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try (PreparedStatement advance = connection.prepareStatement(ADVANCE_SEQ_SQL)) {
+                advance.setLong(1, count);
+                if (advance.executeUpdate() == 1) {
+                    return readSequence(connection);
+                }
+            }
+            try (PreparedStatement create = connection.prepareStatement(CREATE_SEQ_SQL)) {
+                create.executeUpdate();
+            } catch (SQLIntegrityConstraintViolationException ex) {
+                // Another writer created it first
+            }
+        }
+        throw new IllegalStateException("PRODUCT_CHANGE_SEQ has no PRODUCTS row");
+    }
+
+    private static long readSequence(Connection connection) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(READ_SEQ_SQL);
+             ResultSet rs = query.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static int executeBatch(PreparedStatement statement) throws SQLException {
+        int updated = 0;
+        for (int count : statement.executeBatch()) {
+            // Some drivers only report that a batched statement succeeded, not how many rows it touched
+            updated += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+        }
+        return updated;
+    }
+}
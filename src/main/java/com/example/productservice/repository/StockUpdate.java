@@ -0,0 +1,42 @@
+package com.example.productservice.repository;
+
+/**
+ * A stock change for one product: either a new absolute value or a delta added to the stored value.
+ */
+public final class StockUpdate {
+
+    private final long productId;
+    private final boolean relative;
+    private final int value;
+
+    private StockUpdate(long productId, boolean relative, int value) {
+        this.productId = productId;
+        this.relative = relative;
+        this.value = value;
+    }
+
+    public static StockUpdate set(long productId, int stock) {
+        return new StockUpdate(productId, false, stock);
+    }
+
+    public static StockUpdate add(long productId, int delta) {
+        return new StockUpdate(productId, true, delta);
+    }
+
+    public long getProductId() {
+        return productId;
+    }
+
+    public boolean isRelative() {
+        return relative;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return productId + (relative ? (value >= 0 ? ":+" : ":") : ":=") + value;
+    }
+}
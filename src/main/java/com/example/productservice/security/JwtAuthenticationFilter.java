@@ -1,5 +1,9 @@
 package com.example.productservice.security;
 
+import com.example.productservice.logging.RateLimitedLogger;
+import com.example.productservice.timing.PhaseTimer;
+import com.example.productservice.timing.RequestPhase;
+import com.example.productservice.timing.RequestTimings;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureException;
@@ -26,13 +30,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
+    // Bad tokens are client errors and arrive in bursts from scanners: rate-limit them
+    private static final RateLimitedLogger tokenLogger = new RateLimitedLogger(logger, 10, 10_000L);
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        try {
+        try (PhaseTimer ignored = RequestTimings.start(RequestPhase.JWT)) {
             String jwt = getJwtFromRequest(request);
             if (StringUtils.hasText(jwt) && validateToken(jwt)) {
                 Claims claims = getClaimsFromToken(jwt);
@@ -47,7 +54,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 }
             }
         } catch (Exception ex) {
-            logger.error("Could not set user authentication in security context", ex);
+            tokenLogger.error("Could not set user authentication in security context", ex);
         }
         filterChain.doFilter(request, response);
     }
@@ -65,9 +72,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token);
             return true;
         } catch (SignatureException ex) {
-            logger.error("Invalid JWT signature");
+            tokenLogger.warn("Invalid JWT signature");
         } catch (Exception ex) {
-            logger.error("Invalid JWT token");
+            tokenLogger.warn("Invalid JWT token");
         }
         return false;
     }
@@ -0,0 +1,53 @@
+package com.example.productservice.security;
+
+import com.example.productservice.timing.PhaseTimer;
+import com.example.productservice.timing.RequestPhase;
+import com.example.productservice.timing.RequestTimings;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.access.AccessDecisionManager;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
+import org.springframework.security.config.annotation.method.configuration.GlobalMethodSecurityConfiguration;
+import org.springframework.security.core.Authentication;
+
+import java.util.Collection;
+
+/**
+ * Enables {@code @PreAuthorize} on controller methods and times each check as the
+ * {@link RequestPhase#AUTHORIZATION} phase of the request.
+ */
+@Configuration
+@EnableGlobalMethodSecurity(prePostEnabled = true)
+public class MethodSecurityConfig extends GlobalMethodSecurityConfiguration {
+
+    @Override
+    protected AccessDecisionManager accessDecisionManager() {
+        return new TimedAccessDecisionManager(super.accessDecisionManager());
+    }
+
+    private static final class TimedAccessDecisionManager implements AccessDecisionManager {
+
+        private final AccessDecisionManager delegate;
+
+        private TimedAccessDecisionManager(AccessDecisionManager delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void decide(Authentication authentication, Object object, Collection<ConfigAttribute> configAttributes) {
+            try (PhaseTimer ignored = RequestTimings.start(RequestPhase.AUTHORIZATION)) {
+                delegate.decide(authentication, object, configAttributes);
+            }
+        }
+
+        @Override
+        public boolean supports(ConfigAttribute attribute) {
+            return delegate.supports(attribute);
+        }
+
+        @Override
+        public boolean supports(Class<?> clazz) {
+            return delegate.supports(clazz);
+        }
+    }
+}
@@ -1,89 +1,242 @@
 package com.example.productservice.service;
 
+import com.example.productservice.bulk.ProductBulkUpdater;
+import com.example.productservice.cache.CatalogVersion;
+import com.example.productservice.dto.BulkUpdateResult;
+import com.example.productservice.dto.HotKeysReport;
+import com.example.productservice.dto.MerkleNodes;
+import com.example.productservice.dto.ProductChanges;
+import com.example.productservice.dto.ProductFieldSet;
+import com.example.productservice.dto.ProductRows;
+import com.example.productservice.dto.ProductSuggestion;
+import com.example.productservice.exception.InsufficientStockException;
+import com.example.productservice.exception.InvalidProductException;
+import com.example.productservice.exception.ProductNotFoundException;
+import com.example.productservice.hotkeys.HotKeys;
+import com.example.productservice.merkle.CatalogMerkleTree;
 import com.example.productservice.model.Product;
-import com.example.productservice.repository.ProductRepository;
+import com.example.productservice.repository.BulkMutation;
+import com.example.productservice.repository.ProductFilter;
+import com.example.productservice.stock.StockWriteBehind;
+import com.example.productservice.store.ProductStore;
+import com.example.productservice.suggest.ProductSuggestIndex;
+import com.example.productservice.validation.ProductValidator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import javax.validation.ConstraintViolation;
-import javax.validation.ConstraintViolationException;
-import javax.validation.Validator;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 public class ProductService {
 
-    private final ProductRepository productRepository;
-    private final Validator validator;
+    private final ProductStore productStore;
+    private final ProductValidator productValidator;
+    private final CatalogVersion catalogVersion;
+    private final StockWriteBehind stockWriteBehind;
+    private final ProductSuggestIndex suggestIndex;
+    private final ProductBulkUpdater bulkUpdater;
+    private final HotKeys hotKeys;
+    private final CatalogMerkleTree merkleTree;
 
     @Autowired
-    public ProductService(ProductRepository productRepository, Validator validator) {
-        this.productRepository = productRepository;
-        this.validator = validator;
+    public ProductService(ProductStore productStore, ProductValidator productValidator,
+                          CatalogVersion catalogVersion, StockWriteBehind stockWriteBehind,
+                          ProductSuggestIndex suggestIndex, ProductBulkUpdater bulkUpdater, HotKeys hotKeys,
+                          CatalogMerkleTree merkleTree) {
+        this.productStore = productStore;
+        this.productValidator = productValidator;
+        this.catalogVersion = catalogVersion;
+        this.stockWriteBehind = stockWriteBehind;
+        this.suggestIndex = suggestIndex;
+        this.bulkUpdater = bulkUpdater;
+        this.hotKeys = hotKeys;
+        this.merkleTree = merkleTree;
     }
 
+    @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        return stockWriteBehind.readProducts(productStore::findAll);
     }
 
+    @Transactional(readOnly = true)
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        hotKeys.recordProduct(id);
+        return stockWriteBehind.readProduct(() -> productStore.findById(id));
     }
 
+    // The only validation pass for every caller, HTTP included: the controller binds bodies
+    // unchecked and JPA Bean Validation is off
     @Transactional
     public Product createProduct(Product product) {
-        validateProduct(product);
-        return productRepository.save(product);
+        validate(product);
+        Product saved = productStore.save(product);
+        catalogVersion.bumpAfterCommit();
+        suggestIndex.putAfterCommit(saved);
+        return saved;
     }
 
     @Transactional
     public Product updateProduct(Long id, Product productDetails) {
-        validateProduct(productDetails);
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Product not found with id: " + id));
+        validate(productDetails);
+        Product product = productStore.findById(id)
+                .orElseThrow(() -> new ProductNotFoundException(id));
+        if (stockWriteBehind.isEnabled() && isStockOnlyChange(product, productDetails)) {
+            Product staged = stockWriteBehind.stageStock(product, productDetails.getStock());
+            catalogVersion.bumpAfterCommit();
+            suggestIndex.putAfterCommit(staged);
+            return staged;
+        }
         product.setName(productDetails.getName());
         product.setDescription(productDetails.getDescription());
         product.setPrice(productDetails.getPrice());
         product.setStock(productDetails.getStock());
-        return productRepository.save(product);
+        Product saved = productStore.save(product);
+        stockWriteBehind.supersede(id, saved.getStock());
+        catalogVersion.bumpAfterCommit();
+        suggestIndex.putAfterCommit(saved);
+        return saved;
+    }
+
+    /**
+     * Add a (possibly negative) delta to a product's stock. With write-behind enabled the delta is
+     * staged and summed with other pending changes instead of being written right away; otherwise it is
+     * applied with one conditional UPDATE, so concurrent adjustments never overwrite each other.
+     *
+     * @throws InsufficientStockException if the stock would drop below zero
+     */
+    @Transactional
+    public Product adjustStock(Long id, int delta) {
+        if (stockWriteBehind.isEnabled()) {
+            Product staged = stockWriteBehind.stageDelta(id, delta,
+                    () -> productStore.findById(id).orElseThrow(() -> new ProductNotFoundException(id)));
+            catalogVersion.bumpAfterCommit();
+            suggestIndex.putAfterCommit(staged);
+            return staged;
+        }
+        if (!productStore.addStock(id, delta)) {
+            Product product = productStore.findById(id)
+                    .orElseThrow(() -> new ProductNotFoundException(id));
+            throw new InsufficientStockException(id, product.getStock(), -delta);
+        }
+        Product saved = productStore.findById(id)
+                .orElseThrow(() -> new ProductNotFoundException(id));
+        catalogVersion.bumpAfterCommit();
+        suggestIndex.putAfterCommit(saved);
+        return saved;
     }
 
     @Transactional
     public void deleteProduct(Long id) {
-        if (!productRepository.existsById(id)) {
-            throw new IllegalArgumentException("Product not found with id: " + id);
+        if (!productStore.existsById(id)) {
+            throw new ProductNotFoundException(id);
         }
-        productRepository.deleteById(id);
+        productStore.deleteById(id);
+        catalogVersion.bumpAfterCommit();
+        suggestIndex.removeAfterCommit(id);
     }
 
+    /**
+     * Change the price or stock of every product matching the filter. Not transactional: the update
+     * runs in chunks that each commit on their own.
+     *
+     * @throws IllegalArgumentException if the filter has no condition
+     */
+    public BulkUpdateResult bulkUpdate(ProductFilter filter, BulkMutation mutation) {
+        return bulkUpdater.update(filter, mutation);
+    }
+
+    /**
+     * Like {@link #bulkUpdate(ProductFilter, BulkMutation)}, handing the ids updated by each chunk,
+     * ascending, to {@code affected} as the chunk commits.
+     */
+    public BulkUpdateResult bulkUpdate(ProductFilter filter, BulkMutation mutation, Consumer<List<Long>> affected) {
+        return bulkUpdater.update(filter, mutation, affected);
+    }
+
+    @Transactional(readOnly = true)
     public List<Product> searchProductsByName(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name);
+        return stockWriteBehind.readProducts(() -> productStore.findByNameContaining(name));
     }
 
+    @Transactional(readOnly = true)
     public List<Product> findProductsByPriceGreaterThanEqual(BigDecimal price) {
-        return productRepository.findByPriceGreaterThanEqual(price);
+        return stockWriteBehind.readProducts(() -> productStore.findByPriceGreaterThanEqual(price));
     }
 
+    @Transactional(readOnly = true)
     public List<Product> findProductsByStockLessThan(Integer stock) {
-        return productRepository.findByStockLessThan(stock);
+        return stockWriteBehind.readProducts(() -> productStore.findByStockLessThan(stock));
     }
 
+    @Transactional(readOnly = true)
     public List<Product> findProductsByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
-        return productRepository.findByPriceBetween(minPrice, maxPrice);
+        return stockWriteBehind.readProducts(() -> productStore.findByPriceBetween(minPrice, maxPrice));
     }
 
+    @Transactional(readOnly = true)
     public List<Product> findProductsByNameAndStockGreaterThan(String name, Integer stock) {
-        return productRepository.findByNameAndStockGreaterThan(name, stock);
+        return stockWriteBehind.readProducts(() -> productStore.findByNameAndStockGreaterThan(name, stock));
+    }
+
+    // Committed writes and deletes after a modification sequence number, for incremental sync.
+    // Stock changes staged by write-behind appear once they are flushed
+    @Transactional(readOnly = true)
+    public ProductChanges getChangesSince(long since, int limit) {
+        return productStore.findChangesSince(since, limit);
+    }
+
+    // Ranked name completions from the in-memory index; no database access
+    public List<ProductSuggestion> suggestProducts(String prefix, int limit) {
+        return suggestIndex.suggest(prefix, limit);
+    }
+
+    // Select and return only the requested columns of the matching products
+    @Transactional(readOnly = true)
+    public ProductRows findProductFields(ProductFilter filter, ProductFieldSet fields) {
+        List<Object[]> rows = stockWriteBehind.readRows(fields, queried -> productStore.findFields(filter, queried));
+        return new ProductRows(fields, rows);
+    }
+
+    // Name search returning only the requested columns
+    @Transactional(readOnly = true)
+    public ProductRows searchProductFields(String name, ProductFieldSet fields) {
+        return findProductFields(ProductFilter.nameContains(name), fields);
+    }
+
+    // The most frequently requested product ids and search terms
+    public HotKeysReport getHotKeys(int limit) {
+        return hotKeys.report(limit);
     }
 
-    private void validateProduct(Product product) {
-        Set<ConstraintViolation<Product>> violations = validator.validate(product);
-        if (!violations.isEmpty()) {
-            throw new ConstraintViolationException(violations);
+    // Hashes of catalog id ranges, from the in-memory tree fed by the change feed; no database access
+    public MerkleNodes getMerkleNodes(int level, int offset, int limit) {
+        return merkleTree.nodes(level, offset, limit);
+    }
+
+    // All columns of the products in an id range, for a client to replace a range whose hash differs
+    @Transactional(readOnly = true)
+    public ProductRows getProductRange(long fromId, long toId) {
+        merkleTree.checkFetchRange(fromId, toId);
+        return findProductFields(ProductFilter.idBetween(fromId, toId), ProductFieldSet.ALL);
+    }
+
+    private void validate(Product product) {
+        Map<String, String> violations = productValidator.validate(product);
+        if (violations != null) {
+            throw new InvalidProductException(violations);
         }
     }
+
+    private static boolean isStockOnlyChange(Product current, Product details) {
+        return Objects.equals(current.getName(), details.getName())
+                && Objects.equals(current.getDescription(), details.getDescription())
+                && current.getPrice() != null && details.getPrice() != null
+                && current.getPrice().compareTo(details.getPrice()) == 0;
+    }
 }
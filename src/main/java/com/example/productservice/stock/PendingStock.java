@@ -0,0 +1,59 @@
+package com.example.productservice.stock;
+
+import com.example.productservice.repository.StockUpdate;
+
+/**
+ * The not-yet-flushed stock changes of one product, coalesced into either an absolute value
+ * (last writer wins) or a summed delta.
+ */
+final class PendingStock {
+
+    private final boolean absolute;
+    private final int value;
+
+    private PendingStock(boolean absolute, int value) {
+        this.absolute = absolute;
+        this.value = value;
+    }
+
+    static PendingStock set(int stock) {
+        return new PendingStock(true, stock);
+    }
+
+    static PendingStock add(int delta) {
+        return new PendingStock(false, delta);
+    }
+
+    /**
+     * @return the combined effect of this change followed by {@code next}
+     */
+    PendingStock then(PendingStock next) {
+        if (next == null) {
+            return this;
+        }
+        if (next.absolute) {
+            return next;
+        }
+        return new PendingStock(absolute, Math.addExact(value, next.value));
+    }
+
+    int applyTo(int stock) {
+        return absolute ? value : Math.addExact(stock, value);
+    }
+
+    boolean isAbsolute() {
+        return absolute;
+    }
+
+    int getValue() {
+        return value;
+    }
+
+    StockUpdate toUpdate(long productId) {
+        return absolute ? StockUpdate.set(productId, value) : StockUpdate.add(productId, value);
+    }
+
+    static PendingStock compose(PendingStock first, PendingStock second) {
+        return first == null ? second : first.then(second);
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.productservice.stock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of staged stock changes, split into generations.
+ * <p>
+ * Each flush seals the current generation and starts a new one, and records the sealed generation
+ * in the database in the same transaction as its UPDATEs; once that commits, the sealed generations
+ * are deleted. A crash between the commit and the deletion leaves flushed generations on disk, so
+ * replay skips every generation up to the recorded one and replays the rest in order. Generation
+ * numbers never go back below the recorded one, even once all files are gone. The journal is
+ * identified in the database by a random id kept in its directory. Callers serialize
+ * {@link #append} and {@link #roll}.
+ */
+final class StockJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockJournal.class);
+
+    private static final String PREFIX = "stock-journal-";
+    private static final String SUFFIX = ".log";
+    private static final String ID_FILE = "journal-id";
+    // crc, product id, absolute flag, value
+    private static final int RECORD_BYTES = 4 + 8 + 1 + 4;
+
+    private final Path directory;
+    private final long flushedGeneration;
+    private final boolean syncOnAppend;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+
+    private FileChannel channel;
+    private long generation;
+
+    /**
+     * @return the id of the journal in {@code directory}, created on first use
+     */
+    static String id(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(ID_FILE);
+        if (!Files.exists(file)) {
+            Path temporary = directory.resolve(ID_FILE + ".tmp");
+            Files.write(temporary, UUID.randomUUID().toString().getBytes(StandardCharsets.US_ASCII));
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return new String(Files.readAllBytes(file), StandardCharsets.US_ASCII).trim();
+    }
+
+    /**
+     * @param flushedGeneration the last generation the database records as flushed
+     */
+    StockJournal(Path directory, long flushedGeneration, boolean syncOnAppend) throws IOException {
+        this.directory = directory;
+        this.flushedGeneration = flushedGeneration;
+        this.syncOnAppend = syncOnAppend;
+        Files.createDirectories(directory);
+        List<Path> existing = files();
+        long last = existing.isEmpty() ? 0 : generationOf(existing.get(existing.size() - 1));
+        generation = Math.max(last, flushedGeneration) + 1;
+        channel = open(generation);
+    }
+
+    /**
+     * Feed every intact record of the unflushed generations that precede this instance to the
+     * consumer, oldest first, and delete the flushed ones.
+     *
+     * @return number of records replayed
+     */
+    int replay(BiConsumer<Long, PendingStock> consumer) throws IOException {
+        int replayed = 0;
+        for (Path file : files()) {
+            if (generationOf(file) >= generation) {
+                continue;
+            }
+            if (generationOf(file) <= flushedGeneration) {
+                logger.info("Skipping {}: its changes were flushed before the last shutdown", file);
+                Files.deleteIfExists(file);
+                continue;
+            }
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES);
+                while (readRecord(in, buffer)) {
+                    int crc = buffer.getInt();
+                    if (crc != checksum(buffer.array())) {
+                        logger.warn("Stopping replay of {} at a corrupt record", file);
+                        break;
+                    }
+                    long productId = buffer.getLong();
+                    boolean absolute = buffer.get() != 0;
+                    int value = buffer.getInt();
+                    consumer.accept(productId, absolute ? PendingStock.set(value) : PendingStock.add(value));
+                    replayed++;
+                }
+            }
+        }
+        return replayed;
+    }
+
+    void append(long productId, PendingStock change) throws IOException {
+        record.clear();
+        record.putInt(0).putLong(productId).put((byte) (change.isAbsolute() ? 1 : 0)).putInt(change.getValue());
+        record.putInt(0, checksum(record.array()));
+        record.flip();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        if (syncOnAppend) {
+            channel.force(false);
+        }
+    }
+
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    /**
+     * Seal the current generation and continue in a new one.
+     *
+     * @return the sealed generation
+     */
+    long roll() throws IOException {
+        FileChannel next = open(generation + 1);
+        channel.force(false);
+        channel.close();
+        channel = next;
+        return generation++;
+    }
+
+    /**
+     * Delete all generations up to and including the given one, once their changes are committed.
+     */
+    void deleteThrough(long sealedGeneration) throws IOException {
+        for (Path file : files()) {
+            if (generationOf(file) <= sealedGeneration) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.force(false);
+        channel.close();
+    }
+
+    private FileChannel open(long generation) throws IOException {
+        Path file = directory.resolve(String.format("%s%020d%s", PREFIX, generation, SUFFIX));
+        return FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> {
+                String name = f.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static long generationOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    // A record cut short by a crash ends the replay of its file
+    private static boolean readRecord(FileChannel in, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer) < 0) {
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    private static int checksum(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record, 4, RECORD_BYTES - 4);
+        return (int) crc.getValue();
+    }
+}
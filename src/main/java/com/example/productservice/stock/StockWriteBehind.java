@@ -0,0 +1,557 @@
+package com.example.productservice.stock;
+
+import com.example.productservice.cache.CatalogVersion;
+import com.example.productservice.dto.ProductField;
+import com.example.productservice.dto.ProductFieldSet;
+import com.example.productservice.exception.InsufficientStockException;
+import com.example.productservice.logging.RateLimitedLogger;
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.StockUpdate;
+import com.example.productservice.store.ProductStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind buffer for stock changes.
+ * <p>
+ * Stock-only updates are staged in memory instead of being written in their own transaction.
+ * Changes to the same product coalesce: an absolute value replaces whatever was pending, a delta
+ * is added to it. A background task flushes everything pending in one transaction of batched
+ * UPDATEs, on a fixed interval or as soon as {@code maxPending} products are waiting. Reads go
+ * through {@link #readProduct}, {@link #readProducts} or {@link #readRows} so they see pending values. With a journal, every staged change is
+ * appended to a local file first and replayed after a crash. Each flush records the journal generation it
+ * covers through {@link ProductStore#markStockJournalFlushed} in its own transaction, so a replay never
+ * applies a flushed delta twice; the journal therefore needs a store that supports the mark.
+ * <p>
+ * Stock conditions in finder queries are evaluated by the store, so they see flushed values only.
+ */
+public class StockWriteBehind implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockWriteBehind.class);
+    private static final RateLimitedLogger flushFailureLogger = new RateLimitedLogger(logger, 1, 10_000L);
+
+    private final boolean enabled;
+    private final ProductStore productStore;
+    private final TransactionOperations transactions;
+    private final CatalogVersion catalogVersion;
+    private final int maxPending;
+    private final StockJournal journal;
+    private final String journalId;
+    private final ScheduledExecutorService flusher;
+
+    private final Object stageLock = new Object();
+    private final Object flushLock = new Object();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    // Held exclusively while a flush commits and retires its in-flight changes; never while a flush
+    // waits for a connection or for its UPDATEs
+    private final StampedLock flushCommitLock = new StampedLock();
+    // Deltas accepted inside transactions that have not completed yet, summed per product. Counted by
+    // the below-zero check so concurrent deltas cannot overdraw, but not read or flushed. Guarded by stageLock
+    private final Map<Long, Integer> reserved = new HashMap<>();
+
+    // Replaced as a whole so readers always see a consistent pending/in-flight pair
+    private volatile Buffers buffers = new Buffers(new ConcurrentHashMap<>(), Collections.emptyMap());
+
+    /**
+     * @return an instance that stages nothing; every write goes straight to the store
+     */
+    public static StockWriteBehind disabled() {
+        return new StockWriteBehind();
+    }
+
+    /**
+     * @param flushIntervalMs  interval of the background flush, or 0 to flush only on demand
+     * @param maxPending       number of pending products that triggers an immediate flush
+     * @param journalDirectory where to journal staged changes, or {@code null} to keep them in memory only
+     * @param syncJournal      fsync the journal on every staged change instead of before each flush
+     */
+    public StockWriteBehind(ProductStore productStore, TransactionOperations transactions,
+                            CatalogVersion catalogVersion, long flushIntervalMs, int maxPending,
+                            Path journalDirectory, boolean syncJournal) {
+        this.enabled = true;
+        this.productStore = productStore;
+        this.transactions = transactions;
+        this.catalogVersion = catalogVersion;
+        this.maxPending = maxPending;
+        try {
+            if (journalDirectory != null) {
+                String id = StockJournal.id(journalDirectory);
+                Long flushed = transactions.execute(status -> productStore.flushedStockJournalGeneration(id));
+                this.journalId = id;
+                this.journal = new StockJournal(journalDirectory, flushed != null ? flushed : 0, syncJournal);
+            } else {
+                this.journalId = null;
+                this.journal = null;
+            }
+            if (journal != null) {
+                int replayed = journal.replay(
+                        (productId, change) -> buffers.pending.merge(productId, change, PendingStock::then));
+                if (replayed > 0) {
+                    logger.info("Replayed {} journaled stock changes for {} products", replayed,
+                            buffers.pending.size());
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not open stock journal in " + journalDirectory, ex);
+        }
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "stock-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (flushIntervalMs > 0) {
+            flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private StockWriteBehind() {
+        this.enabled = false;
+        this.productStore = null;
+        this.transactions = null;
+        this.catalogVersion = null;
+        this.maxPending = 0;
+        this.journal = null;
+        this.journalId = null;
+        this.flusher = null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Stage an absolute stock value for a stored product, once the current transaction commits or
+     * right away if there is none.
+     *
+     * @return the product as readers see it once staged
+     */
+    public Product stageStock(Product product, int stock) {
+        long productId = product.getId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            stage(productId, PendingStock.set(stock));
+        } else {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stage(productId, PendingStock.set(stock));
+                }
+            });
+        }
+        return withStock(product, stock);
+    }
+
+    /**
+     * Stage a stock delta on top of the stored and pending value, once the current transaction
+     * commits or right away if there is none. The stock is checked now, counting deltas other
+     * transactions have yet to commit.
+     *
+     * @param read loads the stored product
+     * @return the product as readers see it once staged
+     * @throws InsufficientStockException if the delta would take the stock below zero
+     */
+    public Product stageDelta(long productId, int delta, Supplier<Product> read) {
+        boolean deferred = TransactionSynchronizationManager.isSynchronizationActive();
+        Product result;
+        long stamp = flushCommitLock.readLock();
+        try {
+            Product stored = read.get();
+            synchronized (stageLock) {
+                int current = visibleStock(buffers, productId, stored.getStock())
+                        + reserved.getOrDefault(productId, 0);
+                int next = current + delta;
+                if (next < 0) {
+                    throw new InsufficientStockException(productId, current, -delta);
+                }
+                if (deferred) {
+                    reserved.merge(productId, delta, Integer::sum);
+                } else {
+                    stage(productId, PendingStock.add(delta));
+                }
+                result = withStock(stored, next);
+            }
+        } finally {
+            flushCommitLock.unlockRead(stamp);
+        }
+        if (deferred) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stage(productId, PendingStock.add(delta));
+                }
+
+                // After afterCommit, so the delta is counted until it is staged
+                @Override
+                public void afterCompletion(int status) {
+                    synchronized (stageLock) {
+                        reserved.computeIfPresent(productId, (id, sum) -> sum == delta ? null : sum - delta);
+                    }
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Called after a full update of a product has been saved with the given stock. If stock changes
+     * are pending or being flushed for the product, the full update's stock is staged once it commits
+     * so an older staged value cannot overwrite it.
+     */
+    public void supersede(long productId, int stock) {
+        if (!enabled) {
+            return;
+        }
+        boolean pendingAtStart = isPending(productId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (pendingAtStart) {
+                stage(productId, PendingStock.set(stock));
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (pendingAtStart || isPending(productId)) {
+                    stage(productId, PendingStock.set(stock));
+                }
+            }
+        });
+    }
+
+    /**
+     * Read one product from the store with its pending stock applied.
+     */
+    public Optional<Product> readProduct(Supplier<Optional<Product>> read) {
+        if (!enabled) {
+            return read.get();
+        }
+        return readConsistently(read, (stored, current) -> stored.map(product -> overlay(current, product)));
+    }
+
+    /**
+     * Read products from the store with their pending stock applied.
+     */
+    public List<Product> readProducts(Supplier<List<Product>> read) {
+        if (!enabled) {
+            return read.get();
+        }
+        return readConsistently(read, (stored, current) -> {
+            if (current.isEmpty()) {
+                return stored;
+            }
+            List<Product> result = new ArrayList<>(stored.size());
+            for (Product product : stored) {
+                result.add(overlay(current, product));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Read sparse rows from the store with pending stock applied in place. The id is needed to find
+     * a row's pending value, so when the stock is selected without it, it is queried as well and
+     * dropped again.
+     *
+     * @param read queries the store for the given fields
+     */
+    public List<Object[]> readRows(ProductFieldSet fields, Function<ProductFieldSet, List<Object[]>> read) {
+        if (!enabled || !fields.contains(ProductField.STOCK)) {
+            return read.apply(fields);
+        }
+        boolean addId = !fields.contains(ProductField.ID);
+        ProductFieldSet queried = addId ? ProductFieldSet.parse(fields + ",id") : fields;
+        // Fields are in declaration order, so the id is first and the stock last
+        int stocks = queried.size() - 1;
+        List<Object[]> result = readConsistently(() -> read.apply(queried), (rows, current) -> {
+            if (!current.isEmpty()) {
+                for (Object[] row : rows) {
+                    PendingStock change = pendingFor(current, ((Number) row[0]).longValue());
+                    if (change != null) {
+                        row[stocks] = change.applyTo(((Number) row[stocks]).intValue());
+                    }
+                }
+            }
+            return rows;
+        });
+        if (!addId) {
+            return result;
+        }
+        List<Object[]> stripped = new ArrayList<>(result.size());
+        for (Object[] row : result) {
+            stripped.add(Arrays.copyOfRange(row, 1, row.length));
+        }
+        return stripped;
+    }
+
+    /**
+     * @return number of products with staged changes not yet handed to a flush
+     */
+    public int pendingCount() {
+        return buffers.pending.size();
+    }
+
+    /**
+     * Write all pending changes to the store in one transaction. Must not be called inside a
+     * transaction, since the flushed changes are retired when the flush transaction commits.
+     *
+     * @return number of products updated
+     */
+    public int flush() {
+        if (!enabled) {
+            return 0;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Stock write-behind cannot flush inside a transaction");
+        }
+        synchronized (flushLock) {
+            Map<Long, PendingStock> draining;
+            long sealedGeneration;
+            synchronized (stageLock) {
+                Buffers current = buffers;
+                if (current.pending.isEmpty()) {
+                    return 0;
+                }
+                sealedGeneration = rollJournal();
+                draining = current.pending;
+                buffers = new Buffers(new ConcurrentHashMap<>(), draining);
+            }
+
+            List<StockUpdate> updates = new ArrayList<>(draining.size());
+            draining.forEach((productId, change) -> updates.add(change.toUpdate(productId)));
+            Integer updated;
+            CommitLock commitLock = new CommitLock();
+            try {
+                updated = transactions.execute(status -> {
+                    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                        // Without a transaction every UPDATE is visible as soon as it runs
+                        commitLock.lock();
+                        int count = productStore.updateStock(updates);
+                        markJournal(sealedGeneration);
+                        return count;
+                    }
+                    int count = productStore.updateStock(updates);
+                    markJournal(sealedGeneration);
+                    // Lock only once this transaction holds its connection and is about to commit.
+                    // Readers wait on the lock while holding a pooled connection, so locking before
+                    // the transaction starts could leave the flush waiting for a connection forever.
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void beforeCommit(boolean readOnly) {
+                            commitLock.lock();
+                        }
+                    });
+                    return count;
+                });
+                synchronized (stageLock) {
+                    buffers = new Buffers(buffers.pending, Collections.emptyMap());
+                }
+            } catch (RuntimeException ex) {
+                // Put the changes back underneath whatever was staged in the meantime
+                synchronized (stageLock) {
+                    Map<Long, PendingStock> merged = new ConcurrentHashMap<>(draining);
+                    buffers.pending.forEach((productId, change) -> merged.merge(productId, change, PendingStock::then));
+                    buffers = new Buffers(merged, Collections.emptyMap());
+                }
+                throw ex;
+            } finally {
+                commitLock.unlock();
+            }
+
+            if (journal != null) {
+                try {
+                    journal.deleteThrough(sealedGeneration);
+                } catch (IOException ex) {
+                    // Harmless for correctness: replay skips generations the database marks as flushed
+                    logger.warn("Could not delete flushed stock journal generations", ex);
+                }
+            }
+            // Stock conditions in cached list and search responses may have changed
+            catalogVersion.bump();
+            return updated != null ? updated : 0;
+        }
+    }
+
+    /**
+     * Stop the background flush and write out everything still pending.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            logger.error("Final stock flush failed; {} products remain {}", buffers.pending.size(),
+                    journal != null ? "in the journal" : "unwritten", ex);
+        }
+        if (journal != null) {
+            synchronized (stageLock) {
+                journal.close();
+            }
+        }
+    }
+
+    private void stage(long productId, PendingStock change) {
+        if (!enabled) {
+            throw new IllegalStateException("Stock write-behind is disabled");
+        }
+        int pending;
+        synchronized (stageLock) {
+            if (journal != null) {
+                try {
+                    journal.append(productId, change);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException("Could not journal stock change for product " + productId, ex);
+                }
+            }
+            Map<Long, PendingStock> target = buffers.pending;
+            target.merge(productId, change, PendingStock::then);
+            pending = target.size();
+        }
+        if (pending >= maxPending && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    private void flushQuietly() {
+        flushRequested.set(false);
+        try {
+            if (journal != null) {
+                synchronized (stageLock) {
+                    journal.force();
+                }
+            }
+            flush();
+        } catch (Exception ex) {
+            flushFailureLogger.warn("Stock write-behind flush failed; {} products stay pending",
+                    buffers.pending.size(), ex);
+        }
+    }
+
+    // Committed with the UPDATEs, so a crash before the sealed files are deleted cannot replay them
+    private void markJournal(long sealedGeneration) {
+        if (journal != null) {
+            productStore.markStockJournalFlushed(journalId, sealedGeneration);
+        }
+    }
+
+    private long rollJournal() {
+        if (journal == null) {
+            return -1;
+        }
+        try {
+            return journal.roll();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not roll stock journal", ex);
+        }
+    }
+
+    // A flush that commits between the store read and the buffer snapshot would have its deltas
+    // applied twice, so retry under the read lock if one did
+    private <T> T readConsistently(Supplier<T> read, BiFunction<T, Buffers, T> apply) {
+        long stamp = flushCommitLock.tryOptimisticRead();
+        if (stamp != 0) {
+            T stored = read.get();
+            Buffers current = buffers;
+            if (flushCommitLock.validate(stamp)) {
+                return apply.apply(stored, current);
+            }
+        }
+        stamp = flushCommitLock.readLock();
+        try {
+            return apply.apply(read.get(), buffers);
+        } finally {
+            flushCommitLock.unlockRead(stamp);
+        }
+    }
+
+    private static Product overlay(Buffers current, Product product) {
+        PendingStock change = pendingFor(current, product.getId());
+        return change == null ? product : withStock(product, change.applyTo(product.getStock()));
+    }
+
+    private boolean isPending(long productId) {
+        Buffers current = buffers;
+        return current.pending.containsKey(productId) || current.inFlight.containsKey(productId);
+    }
+
+    private static int visibleStock(Buffers buffers, long productId, int storedStock) {
+        PendingStock change = pendingFor(buffers, productId);
+        return change == null ? storedStock : change.applyTo(storedStock);
+    }
+
+    private static PendingStock pendingFor(Buffers buffers, long productId) {
+        return PendingStock.compose(buffers.inFlight.get(productId), buffers.pending.get(productId));
+    }
+
+    // A copy, so a managed entity is never modified and flushed by the persistence context
+    private static Product withStock(Product product, int stock) {
+        Product copy = new Product(product.getName(), product.getDescription(), product.getPrice(), stock);
+        copy.setId(product.getId());
+        copy.setModSeq(product.getModSeq());
+        return copy;
+    }
+
+    // The flush's hold on flushCommitLock, taken at most once and released by whoever took it
+    private final class CommitLock {
+        private long stamp;
+
+        private void lock() {
+            if (stamp == 0) {
+                stamp = flushCommitLock.writeLock();
+            }
+        }
+
+        private void unlock() {
+            if (stamp != 0) {
+                flushCommitLock.unlockWrite(stamp);
+                stamp = 0;
+            }
+        }
+    }
+
+    private static final class Buffers {
+        private final Map<Long, PendingStock> pending;
+        private final Map<Long, PendingStock> inFlight;
+
+        private Buffers(Map<Long, PendingStock> pending, Map<Long, PendingStock> inFlight) {
+            this.pending = pending;
+            this.inFlight = inFlight;
+        }
+
+        private boolean isEmpty() {
+            return pending.isEmpty() && inFlight.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.productservice.stock;
+
+import com.example.productservice.cache.CatalogVersion;
+import com.example.productservice.store.ProductStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Paths;
+
+/**
+ * Creates the {@link StockWriteBehind} buffer, disabled unless {@code stock.write-behind.enabled=true}.
+ */
+@Configuration
+public class StockWriteBehindConfig {
+
+    @Bean(destroyMethod = "close")
+    public StockWriteBehind stockWriteBehind(
+            ProductStore productStore,
+            PlatformTransactionManager transactionManager,
+            CatalogVersion catalogVersion,
+            @Value("${stock.write-behind.enabled:false}") boolean enabled,
+            @Value("${stock.write-behind.flush-interval-ms:200}") long flushIntervalMs,
+            @Value("${stock.write-behind.max-pending:1000}") int maxPending,
+            @Value("${stock.write-behind.journal.enabled:false}") boolean journalEnabled,
+            @Value("${stock.write-behind.journal.directory:data/stock-journal}") String journalDirectory,
+            @Value("${stock.write-behind.journal.sync:true}") boolean syncJournal) {
+        if (!enabled) {
+            return StockWriteBehind.disabled();
+        }
+        return new StockWriteBehind(productStore, new TransactionTemplate(transactionManager), catalogVersion,
+                flushIntervalMs, maxPending, journalEnabled ? Paths.get(journalDirectory) : null, syncJournal);
+    }
+}
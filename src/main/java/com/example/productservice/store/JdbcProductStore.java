@@ -0,0 +1,288 @@
+package com.example.productservice.store;
+
+import com.example.productservice.dto.ProductField;
+import com.example.productservice.dto.ProductFieldSet;
+import com.example.productservice.exception.ProductNotFoundException;
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.BulkMutation;
+import com.example.productservice.repository.BulkUpdateSql;
+import com.example.productservice.repository.ProductFilter;
+import com.example.productservice.repository.StockUpdate;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * {@link ProductStore} over the {@code PRODUCTS} table of a single data source with plain JDBC.
+ * <p>
+ * Used for the shards of {@link com.example.productservice.store.sharded.ShardedProductStore}, where
+ * there is one data source per shard and no JPA persistence unit. Query results are ordered by id
+ * and capped at {@code maxRows} (0 for no cap), except for {@link #findIds}.
+ * <p>
+ * {@link #insert} writes ids allocated outside this database, so the ID column must accept explicit
+ * values (on Oracle, {@code GENERATED BY DEFAULT ON NULL AS IDENTITY} rather than {@code GENERATED ALWAYS}).
+ */
+public class JdbcProductStore implements ProductStore, Closeable {
+
+    private static final String COLUMNS = "ID, NAME, DESCRIPTION, PRICE, STOCK";
+    private static final String SELECT_SQL = "SELECT " + COLUMNS + " FROM PRODUCTS";
+    private static final String INSERT_SQL = "INSERT INTO PRODUCTS (NAME, DESCRIPTION, PRICE, STOCK) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_WITH_ID_SQL =
+            "INSERT INTO PRODUCTS (ID, NAME, DESCRIPTION, PRICE, STOCK) VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "UPDATE PRODUCTS SET NAME = ?, DESCRIPTION = ?, PRICE = ?, STOCK = ? WHERE ID = ?";
+    private static final String SET_STOCK_SQL = "UPDATE PRODUCTS SET STOCK = ? WHERE ID = ?";
+    private static final String ADD_STOCK_SQL = "UPDATE PRODUCTS SET STOCK = STOCK + ? WHERE ID = ?";
+    private static final String ADD_AVAILABLE_STOCK_SQL =
+            "UPDATE PRODUCTS SET STOCK = STOCK + ? WHERE ID = ? AND STOCK + ? >= 0";
+
+    private static final RowMapper<Product> PRODUCT_MAPPER = (rs, rowNum) -> {
+        Product product = new Product(rs.getString(2), rs.getString(3), rs.getBigDecimal(4), rs.getInt(5));
+        product.setId(rs.getLong(1));
+        return product;
+    };
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate idScanTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public JdbcProductStore(DataSource dataSource, int queryTimeoutSeconds, int maxRows) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setQueryTimeout(queryTimeoutSeconds);
+        this.jdbcTemplate.setMaxRows(maxRows);
+        this.idScanTemplate = new JdbcTemplate(dataSource);
+        this.idScanTemplate.setQueryTimeout(queryTimeoutSeconds);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return jdbcTemplate.query(SELECT_SQL + " ORDER BY ID", PRODUCT_MAPPER);
+    }
+
+    @Override
+    public Optional<Product> findById(Long id) {
+        List<Product> found = jdbcTemplate.query(SELECT_SQL + " WHERE ID = ?", PRODUCT_MAPPER, id);
+        return found.isEmpty() ? Optional.empty() : Optional.of(found.get(0));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PRODUCTS WHERE ID = ?", Integer.class, id);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Insert a new product, or update the stored product with the same id.
+     *
+     * @throws ProductNotFoundException if the product has an id and no row has it (for example because it
+     *                                  was deleted); new products with an allocated id go through {@link #insert}
+     */
+    @Override
+    public Product save(Product product) {
+        if (product.getId() == null) {
+            KeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(INSERT_SQL, new String[]{"ID"});
+                statement.setString(1, product.getName());
+                statement.setString(2, product.getDescription());
+                statement.setBigDecimal(3, product.getPrice());
+                statement.setInt(4, product.getStock());
+                return statement;
+            }, keys);
+            product.setId(keys.getKey().longValue());
+            return product;
+        }
+        int updated = jdbcTemplate.update(UPDATE_SQL, product.getName(), product.getDescription(),
+                product.getPrice(), product.getStock(), product.getId());
+        if (updated == 0) {
+            throw new ProductNotFoundException(product.getId());
+        }
+        return product;
+    }
+
+    /**
+     * Insert a new product under the id it already carries, allocated outside this database (sharding).
+     */
+    public Product insert(Product product) {
+        if (product.getId() == null) {
+            throw new IllegalArgumentException("insert needs a product with an allocated id");
+        }
+        jdbcTemplate.update(INSERT_WITH_ID_SQL, product.getId(), product.getName(), product.getDescription(),
+                product.getPrice(), product.getStock());
+        return product;
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        jdbcTemplate.update("DELETE FROM PRODUCTS WHERE ID = ?", id);
+    }
+
+    @Override
+    public List<Product> findByNameContaining(String name) {
+        return findMatching(ProductFilter.nameContains(name));
+    }
+
+    @Override
+    public List<Product> findByPriceGreaterThanEqual(BigDecimal price) {
+        return findMatching(ProductFilter.priceAtLeast(price));
+    }
+
+    @Override
+    public List<Product> findByStockLessThan(Integer stock) {
+        return findMatching(ProductFilter.stockLessThan(stock));
+    }
+
+    @Override
+    public List<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        return findMatching(ProductFilter.priceBetween(minPrice, maxPrice));
+    }
+
+    @Override
+    public List<Product> findByNameAndStockGreaterThan(String name, Integer stock) {
+        return findMatching(ProductFilter.nameContainsAndStockGreaterThan(name, stock));
+    }
+
+    @Override
+    public List<Object[]> findFields(ProductFilter filter, ProductFieldSet fields) {
+        ProductField[] selected = fields.getFields();
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (int i = 0; i < selected.length; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(column(selected[i]));
+        }
+        sql.append(" FROM PRODUCTS");
+        List<Object> args = new ArrayList<>(4);
+        appendWhere(sql, filter, args);
+        sql.append(" ORDER BY ID");
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            Object[] row = new Object[selected.length];
+            for (int i = 0; i < selected.length; i++) {
+                row[i] = readColumn(rs, i + 1, selected[i]);
+            }
+            return row;
+        }, args.toArray());
+    }
+
+    @Override
+    public int updateStock(List<StockUpdate> updates) {
+        List<Object[]> set = new ArrayList<>();
+        List<Object[]> add = new ArrayList<>();
+        for (StockUpdate update : updates) {
+            (update.isRelative() ? add : set).add(new Object[]{update.getValue(), update.getProductId()});
+        }
+        Integer updated = transactionTemplate.execute(status -> batch(SET_STOCK_SQL, set) + batch(ADD_STOCK_SQL, add));
+        return updated == null ? 0 : updated;
+    }
+
+    @Override
+    public boolean addStock(long productId, int delta) {
+        return jdbcTemplate.update(ADD_AVAILABLE_STOCK_SQL, delta, productId, delta) == 1;
+    }
+
+    @Override
+    public List<Long> bulkUpdate(ProductFilter filter, BulkMutation mutation) {
+        List<Long> updated = transactionTemplate.execute(status -> jdbcTemplate.execute(
+                (ConnectionCallback<List<Long>>) connection -> {
+                    List<Long> ids = BulkUpdateSql.lockMatching(connection, filter, mutation);
+                    BulkUpdateSql.update(connection, ids, mutation, null);
+                    return ids;
+                }));
+        return updated == null ? Collections.emptyList() : updated;
+    }
+
+    /**
+     * @return the highest product id in this database, or 0 if it is empty
+     */
+    public long maxId() {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(ID) FROM PRODUCTS", Long.class);
+        return max == null ? 0 : max;
+    }
+
+    /**
+     * Close the data source if it is closeable (such as a connection pool created for this store).
+     */
+    @Override
+    public void close() throws IOException {
+        if (dataSource instanceof Closeable) {
+            ((Closeable) dataSource).close();
+        }
+    }
+
+    @Override
+    public List<Long> findIds(ProductFilter filter) {
+        StringBuilder sql = new StringBuilder("SELECT ID FROM PRODUCTS");
+        List<Object> args = new ArrayList<>(4);
+        appendWhere(sql, filter, args);
+        sql.append(" ORDER BY ID");
+        return idScanTemplate.queryForList(sql.toString(), Long.class, args.toArray());
+    }
+
+    private List<Product> findMatching(ProductFilter filter) {
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        List<Object> args = new ArrayList<>(4);
+        appendWhere(sql, filter, args);
+        sql.append(" ORDER BY ID");
+        return jdbcTemplate.query(sql.toString(), PRODUCT_MAPPER, args.toArray());
+    }
+
+    private static void appendWhere(StringBuilder sql, ProductFilter filter, List<Object> args) {
+        List<String> conditions = new ArrayList<>(4);
+        filter.addSqlConditions(conditions, args);
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+    }
+
+    // Locale.ROOT: under a Turkish default locale "id" would become "İD"
+    private static String column(ProductField field) {
+        return field.getAttribute().toUpperCase(Locale.ROOT);
+    }
+
+    // Values must have the entity attribute types the ProductField writers expect
+    private static Object readColumn(ResultSet rs, int index, ProductField field) throws SQLException {
+        switch (field) {
+            case ID:
+                return rs.getLong(index);
+            case PRICE:
+                return rs.getBigDecimal(index);
+            case STOCK:
+                return rs.getInt(index);
+            default:
+                return rs.getString(index);
+        }
+    }
+
+    private int batch(String sql, List<Object[]> args) {
+        if (args.isEmpty()) {
+            return 0;
+        }
+        int updated = 0;
+        for (int count : jdbcTemplate.batchUpdate(sql, args)) {
+            // Some drivers only report that a batched statement succeeded, not how many rows it touched
+            updated += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+        }
+        return updated;
+    }
+}
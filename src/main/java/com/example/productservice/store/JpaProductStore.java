@@ -0,0 +1,138 @@
+package com.example.productservice.store;
+
+import com.example.productservice.dto.ProductChanges;
+import com.example.productservice.dto.ProductFieldSet;
+import com.example.productservice.exception.ChangeFeedUnsupportedException;
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.BulkMutation;
+import com.example.productservice.repository.ProductFilter;
+import com.example.productservice.repository.ProductRepository;
+import com.example.productservice.repository.StockUpdate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link ProductStore} backed by the Spring Data {@link ProductRepository} (Oracle in production).
+ * <p>
+ * With the change feed enabled, every write is stamped with a modification sequence number, and deletes
+ * leave a tombstone, so {@link #findChangesSince} costs as much as the changes it returns. Writes should
+ * run in a transaction: the numbering only follows commit order when the number and the write commit
+ * together. The numbers come from one counter row that each write holds until it commits, so writes
+ * to the catalog commit one at a time; with the feed disabled they neither stamp nor wait on it.
+ */
+public class JpaProductStore implements ProductStore {
+
+    private final ProductRepository productRepository;
+    private final boolean changeFeed;
+
+    public JpaProductStore(ProductRepository productRepository, boolean changeFeed) {
+        this.productRepository = productRepository;
+        this.changeFeed = changeFeed;
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return productRepository.findAll();
+    }
+
+    @Override
+    public Optional<Product> findById(Long id) {
+        return productRepository.findById(id);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return productRepository.existsById(id);
+    }
+
+    @Override
+    public Product save(Product product) {
+        if (changeFeed) {
+            product.setModSeq(productRepository.allocateModSeqs(1));
+        }
+        return productRepository.save(product);
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        productRepository.deleteById(id);
+        if (changeFeed) {
+            productRepository.recordDeletion(id);
+        }
+    }
+
+    @Override
+    public List<Product> findByNameContaining(String name) {
+        return productRepository.findByNameContainingIgnoreCase(name);
+    }
+
+    @Override
+    public List<Product> findByPriceGreaterThanEqual(BigDecimal price) {
+        return productRepository.findByPriceGreaterThanEqual(price);
+    }
+
+    @Override
+    public List<Product> findByStockLessThan(Integer stock) {
+        return productRepository.findByStockLessThan(stock);
+    }
+
+    @Override
+    public List<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        return productRepository.findByPriceBetween(minPrice, maxPrice);
+    }
+
+    @Override
+    public List<Product> findByNameAndStockGreaterThan(String name, Integer stock) {
+        return productRepository.findByNameAndStockGreaterThan(name, stock);
+    }
+
+    @Override
+    public List<Object[]> findFields(ProductFilter filter, ProductFieldSet fields) {
+        return productRepository.findFields(filter, fields);
+    }
+
+    @Override
+    public int updateStock(List<StockUpdate> updates) {
+        return productRepository.updateStock(updates);
+    }
+
+    @Override
+    public boolean addStock(long productId, int delta) {
+        return productRepository.addStock(productId, delta);
+    }
+
+    @Override
+    public List<Long> bulkUpdate(ProductFilter filter, BulkMutation mutation) {
+        return productRepository.bulkUpdate(filter, mutation);
+    }
+
+    @Override
+    public void markStockJournalFlushed(String journalId, long generation) {
+        productRepository.markStockJournalFlushed(journalId, generation);
+    }
+
+    @Override
+    public long flushedStockJournalGeneration(String journalId) {
+        return productRepository.flushedStockJournalGeneration(journalId);
+    }
+
+    @Override
+    public ProductChanges findChangesSince(long since, int limit) {
+        checkChangeFeed();
+        return productRepository.findChangesSince(since, limit);
+    }
+
+    @Override
+    public long currentChangeSeq() {
+        checkChangeFeed();
+        return productRepository.currentChangeSeq();
+    }
+
+    private void checkChangeFeed() {
+        if (!changeFeed) {
+            throw new ChangeFeedUnsupportedException("The change feed is disabled (product.change-feed.enabled)");
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.productservice.store;
+
+import com.example.productservice.dto.ProductChanges;
+import com.example.productservice.dto.ProductFieldSet;
+import com.example.productservice.exception.ChangeFeedUnsupportedException;
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.BulkMutation;
+import com.example.productservice.repository.ProductFilter;
+import com.example.productservice.repository.StockUpdate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage used by {@code ProductService}.
+ * <p>
+ * {@link JpaProductStore} keeps products in the relational database through Spring Data;
+ * {@link com.example.productservice.store.embedded.LogStructuredProductStore} keeps them in local
+ * append-only segment files. Both must pass the shared conformance test suite.
+ */
+public interface ProductStore {
+
+    List<Product> findAll();
+
+    Optional<Product> findById(Long id);
+
+    boolean existsById(Long id);
+
+    /**
+     * Insert a product (when its id is {@code null}) or replace the stored product with the same id.
+     *
+     * @return the stored product, with its id assigned
+     */
+    Product save(Product product);
+
+    void deleteById(Long id);
+
+    // Name contains the value, case-insensitive
+    List<Product> findByNameContaining(String name);
+
+    // Price greater than or equal to a value
+    List<Product> findByPriceGreaterThanEqual(BigDecimal price);
+
+    // Stock less than a value
+    List<Product> findByStockLessThan(Integer stock);
+
+    // Price within an inclusive range
+    List<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
+
+    // Name contains the value (case-insensitive) and stock greater than a value
+    List<Product> findByNameAndStockGreaterThan(String name, Integer stock);
+
+    /**
+     * Read only the given fields of the products matching the filter.
+     *
+     * @return one array per product, values in {@link ProductFieldSet#getFields()} order
+     */
+    List<Object[]> findFields(ProductFilter filter, ProductFieldSet fields);
+
+    /**
+     * Ids of every product matching the filter, ascending. Unlike the finders, never capped.
+     */
+    default List<Long> findIds(ProductFilter filter) {
+        List<Object[]> rows = findFields(filter, ProductFieldSet.parse("id"));
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ids.add(((Number) row[0]).longValue());
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    /**
+     * Apply stock updates in order, skipping products that no longer exist.
+     *
+     * @return number of products updated
+     */
+    int updateStock(List<StockUpdate> updates);
+
+    /**
+     * Add a (possibly negative) delta to a product's stock in a single atomic step, unless that would take
+     * the stock below zero. Concurrent calls never lose each other's deltas.
+     *
+     * @return {@code false} if the product does not exist or does not have enough stock
+     */
+    boolean addStock(long productId, int delta);
+
+    /**
+     * Apply a bulk mutation to the products matching the filter, skipping those whose result would be
+     * invalid, in one transaction. Callers restrict the filter to a chunk of ids.
+     *
+     * @return ids of the updated products, ascending
+     */
+    List<Long> bulkUpdate(ProductFilter filter, BulkMutation mutation);
+
+    /**
+     * Record, in the current transaction, that a stock journal's generations up to {@code generation}
+     * have been flushed, so they are not replayed again after a crash.
+     *
+     * @throws UnsupportedOperationException if this store cannot keep the mark transactionally
+     */
+    default void markStockJournalFlushed(String journalId, long generation) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot record stock journal flushes");
+    }
+
+    /**
+     * @return the last generation recorded by {@link #markStockJournalFlushed}, or 0 if there is none
+     * @throws UnsupportedOperationException if this store cannot keep the mark transactionally
+     */
+    default long flushedStockJournalGeneration(String journalId) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot record stock journal flushes");
+    }
+
+    /**
+     * Products written and deleted after the modification sequence number {@code since}, oldest
+     * change first, at most {@code limit} of them.
+     *
+     * @throws ChangeFeedUnsupportedException if this store does not keep a change log
+     */
+    default ProductChanges findChangesSince(long since, int limit) {
+        throw new ChangeFeedUnsupportedException(getClass().getSimpleName() + " does not keep a change log");
+    }
+
+    /**
+     * The highest modification sequence number whose write has committed. Everything the store
+     * returns afterwards includes the changes up to it.
+     *
+     * @throws ChangeFeedUnsupportedException if this store does not keep a change log
+     */
+    default long currentChangeSeq() {
+        throw new ChangeFeedUnsupportedException(getClass().getSimpleName() + " does not keep a change log");
+    }
+}
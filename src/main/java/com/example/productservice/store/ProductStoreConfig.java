@@ -0,0 +1,94 @@
+package com.example.productservice.store;
+
+import com.example.productservice.repository.ProductRepository;
+import com.example.productservice.store.embedded.LogStructuredProductStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Paths;
+
+/**
+ * Selects the {@link ProductStore} with {@code product.store.type}: {@code jpa} (default),
+ * {@code embedded}, or {@code sharded} (see {@link com.example.productservice.store.sharded.ShardedProductStoreConfig}).
+ */
+@Configuration
+public class ProductStoreConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductStoreConfig.class);
+
+    @Bean
+    @ConditionalOnProperty(prefix = "product.store", name = "type", havingValue = "jpa", matchIfMissing = true)
+    public ProductStore jpaProductStore(ProductRepository productRepository,
+                                        @Value("${product.change-feed.enabled:false}") boolean changeFeed) {
+        return new JpaProductStore(productRepository, changeFeed);
+    }
+
+    // Rows written before the MOD_SEQ column existed, or while the feed was disabled, are numbered once,
+    // so a client syncing from 0 gets them
+    @Bean
+    @ConditionalOnExpression("'${product.store.type:jpa}' == 'jpa' and ${product.change-feed.enabled:false}")
+    public ApplicationListener<ApplicationReadyEvent> modSeqBackfill(ProductRepository productRepository,
+                                                                     PlatformTransactionManager transactionManager) {
+        return event -> {
+            Integer numbered = new TransactionTemplate(transactionManager)
+                    .execute(status -> productRepository.backfillModSeqs());
+            if (numbered != null && numbered > 0) {
+                logger.info("Assigned modification sequence numbers to {} existing products", numbered);
+            }
+        };
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "product.store", name = "type", havingValue = "embedded")
+    public ProductStore embeddedProductStore(
+            @Value("${product.store.embedded.directory:data/products}") String directory,
+            @Value("${product.store.embedded.max-segment-bytes:67108864}") long maxSegmentBytes,
+            @Value("${product.store.embedded.sync-on-write:false}") boolean syncOnWrite,
+            @Value("${product.store.embedded.maintenance-interval-ms:1000}") long maintenanceIntervalMs,
+            @Value("${product.store.embedded.compaction-garbage-ratio:0.5}") double compactionGarbageRatio) {
+        return new LogStructuredProductStore(Paths.get(directory), maxSegmentBytes, syncOnWrite,
+                maintenanceIntervalMs, compactionGarbageRatio);
+    }
+
+    // Without a JPA database there is no JPA transaction manager, but @Transactional service methods
+    // still need one to run and to fire the after-commit callbacks that bump the catalog version
+    @Bean
+    @ConditionalOnExpression("'${product.store.type:jpa}' != 'jpa'")
+    @ConditionalOnMissingBean(PlatformTransactionManager.class)
+    public PlatformTransactionManager resourcelessTransactionManager() {
+        return new ResourcelessTransactionManager();
+    }
+
+    private static final class ResourcelessTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
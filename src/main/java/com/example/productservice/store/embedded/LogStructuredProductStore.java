@@ -0,0 +1,514 @@
+package com.example.productservice.store.embedded;
+
+import com.example.productservice.dto.ProductField;
+import com.example.productservice.dto.ProductFieldSet;
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.BulkMutation;
+import com.example.productservice.repository.ProductFilter;
+import com.example.productservice.repository.StockUpdate;
+import com.example.productservice.store.ProductStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.channels.ClosedChannelException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Embedded, log-structured {@link ProductStore}.
+ * <p>
+ * Every write appends a record to the active segment file and points an in-memory hash index
+ * at it; reads are a single positional read from the file. When the active segment reaches its
+ * size limit it is sealed and a new one is started. A background task compacts the sealed
+ * segments into one that holds only live records, and flushes the active segment when writes
+ * are not synced individually. On startup the index is rebuilt by replaying the segments, and a
+ * torn record at the end of a segment is truncated away.
+ */
+public class LogStructuredProductStore implements ProductStore, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogStructuredProductStore.class);
+
+    private static final int READ_ATTEMPTS = 4;
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final boolean syncOnWrite;
+    private final double compactionGarbageRatio;
+
+    private final Map<Long, Location> index = new ConcurrentHashMap<>();
+    private final List<Segment> sealed = new CopyOnWriteArrayList<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final Object writeLock = new Object();
+    private final Object compactionLock = new Object();
+    private final ScheduledExecutorService background;
+
+    private volatile Segment active;
+    private long nextSegmentId;
+
+    /**
+     * @param directory              where segment files live; created if missing
+     * @param maxSegmentBytes        size at which the active segment is sealed
+     * @param syncOnWrite            fsync after every write instead of on the background interval
+     * @param backgroundIntervalMs   interval of the compaction/flush task, or 0 to disable it
+     * @param compactionGarbageRatio fraction of dead bytes in sealed segments that triggers compaction
+     */
+    public LogStructuredProductStore(Path directory, long maxSegmentBytes, boolean syncOnWrite,
+                                     long backgroundIntervalMs, double compactionGarbageRatio) {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.syncOnWrite = syncOnWrite;
+        this.compactionGarbageRatio = compactionGarbageRatio;
+        try {
+            recover();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not open product store in " + directory, ex);
+        }
+        if (backgroundIntervalMs > 0) {
+            background = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "product-store-maintenance");
+                thread.setDaemon(true);
+                return thread;
+            });
+            background.scheduleWithFixedDelay(this::maintain, backgroundIntervalMs, backgroundIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            background = null;
+        }
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return find(ProductFilter.all());
+    }
+
+    @Override
+    public Optional<Product> findById(Long id) {
+        return Optional.ofNullable(read(id));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return index.containsKey(id);
+    }
+
+    @Override
+    public Product save(Product product) {
+        synchronized (writeLock) {
+            if (product.getId() == null) {
+                product.setId(nextId.getAndIncrement());
+            } else {
+                nextId.accumulateAndGet(product.getId() + 1, Math::max);
+            }
+            byte[] record = ProductRecordCodec.encodePut(product);
+            Location previous = index.put(product.getId(), appendLocked(record));
+            if (previous != null) {
+                previous.segment.addGarbage(previous.length);
+            }
+        }
+        return product;
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        synchronized (writeLock) {
+            if (!index.containsKey(id)) {
+                return;
+            }
+            byte[] record = ProductRecordCodec.encodeDelete(id);
+            Location tombstone = appendLocked(record);
+            // A tombstone is only needed until compaction drops the records it shadows
+            tombstone.segment.addGarbage(tombstone.length);
+            Location previous = index.remove(id);
+            if (previous != null) {
+                previous.segment.addGarbage(previous.length);
+            }
+        }
+    }
+
+    @Override
+    public List<Product> findByNameContaining(String name) {
+        return find(ProductFilter.nameContains(name));
+    }
+
+    @Override
+    public List<Product> findByPriceGreaterThanEqual(BigDecimal price) {
+        return find(ProductFilter.priceAtLeast(price));
+    }
+
+    @Override
+    public List<Product> findByStockLessThan(Integer stock) {
+        return find(ProductFilter.stockLessThan(stock));
+    }
+
+    @Override
+    public List<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        return find(ProductFilter.priceBetween(minPrice, maxPrice));
+    }
+
+    @Override
+    public List<Product> findByNameAndStockGreaterThan(String name, Integer stock) {
+        return find(ProductFilter.nameContainsAndStockGreaterThan(name, stock));
+    }
+
+    @Override
+    public List<Object[]> findFields(ProductFilter filter, ProductFieldSet fields) {
+        ProductField[] selected = fields.getFields();
+        List<Product> products = find(filter);
+        List<Object[]> rows = new ArrayList<>(products.size());
+        for (Product product : products) {
+            Object[] row = new Object[selected.length];
+            for (int i = 0; i < selected.length; i++) {
+                row[i] = selected[i].readFrom(product);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Override
+    public int updateStock(List<StockUpdate> updates) {
+        int updated = 0;
+        // Read-modify-write under the write lock so a concurrent save cannot interleave
+        synchronized (writeLock) {
+            for (StockUpdate update : updates) {
+                Product product = read(update.getProductId());
+                if (product == null) {
+                    continue;
+                }
+                product.setStock(update.isRelative() ? product.getStock() + update.getValue() : update.getValue());
+                save(product);
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean addStock(long productId, int delta) {
+        synchronized (writeLock) {
+            Product product = read(productId);
+            if (product == null || product.getStock() + (long) delta < 0) {
+                return false;
+            }
+            product.setStock(product.getStock() + delta);
+            save(product);
+            return true;
+        }
+    }
+
+    @Override
+    public List<Long> bulkUpdate(ProductFilter filter, BulkMutation mutation) {
+        boolean price = mutation.getField() == BulkMutation.Field.PRICE;
+        List<Long> updated = new ArrayList<>();
+        synchronized (writeLock) {
+            for (Product product : find(filter)) {
+                BigDecimal result = mutation.apply(price ? product.getPrice() : BigDecimal.valueOf(product.getStock()));
+                if (!mutation.isValid(result)) {
+                    continue;
+                }
+                if (price) {
+                    product.setPrice(result);
+                } else {
+                    product.setStock(result.intValueExact());
+                }
+                save(product);
+                updated.add(product.getId());
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Rewrite all sealed segments into a single segment holding only their live records.
+     */
+    public void compact() {
+        synchronized (compactionLock) {
+            List<Segment> victims = new ArrayList<>(sealed);
+            if (victims.isEmpty()) {
+                return;
+            }
+            try {
+                compact(victims);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Compaction failed", ex);
+            }
+        }
+    }
+
+    /**
+     * @return number of live products
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * @return number of segment files, including the active one
+     */
+    public int segmentCount() {
+        return sealed.size() + 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (background != null) {
+            background.shutdownNow();
+        }
+        synchronized (compactionLock) {
+            synchronized (writeLock) {
+                active.force();
+                active.close();
+                for (Segment segment : sealed) {
+                    segment.close();
+                }
+            }
+        }
+    }
+
+    private List<Product> find(ProductFilter filter) {
+        List<Long> ids = new ArrayList<>(filter.getIds() != null ? filter.getIds() : index.keySet());
+        Collections.sort(ids);
+        List<Product> result = new ArrayList<>();
+        for (Long id : ids) {
+            Product product = read(id);
+            if (product != null && filter.matches(product)) {
+                result.add(product);
+            }
+        }
+        return result;
+    }
+
+    // Compaction may close a segment between the index lookup and the read; look up again and retry
+    private Product read(Long id) {
+        for (int attempt = 1; ; attempt++) {
+            Location location = index.get(id);
+            if (location == null) {
+                return null;
+            }
+            try {
+                byte[] record = location.segment.readRecord(location.offset, location.length);
+                byte[] payload = new byte[record.length - ProductRecordCodec.HEADER_BYTES];
+                System.arraycopy(record, ProductRecordCodec.HEADER_BYTES, payload, 0, payload.length);
+                return ProductRecordCodec.decodeProduct(payload);
+            } catch (ClosedChannelException ex) {
+                if (attempt >= READ_ATTEMPTS) {
+                    throw new UncheckedIOException("Segment closed while reading product " + id, ex);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not read product " + id, ex);
+            }
+        }
+    }
+
+    private Location appendLocked(byte[] record) {
+        try {
+            Segment segment = active;
+            if (segment.size() + record.length > maxSegmentBytes && segment.dataBytes() > 0) {
+                segment.force();
+                sealed.add(segment);
+                segment = Segment.create(Segment.pathFor(directory, nextSegmentId), nextSegmentId, nextSegmentId);
+                nextSegmentId++;
+                active = segment;
+            }
+            long offset = segment.append(record);
+            if (syncOnWrite) {
+                segment.force();
+            }
+            return new Location(segment, offset, record.length);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not append to product store", ex);
+        }
+    }
+
+    private void compact(List<Segment> victims) throws IOException {
+        Segment newest = victims.get(victims.size() - 1);
+        long targetId = newest.id();
+        Path finalPath = Segment.pathFor(directory, targetId);
+        Path tempPath = directory.resolve(finalPath.getFileName() + Segment.COMPACTING_SUFFIX);
+        Files.deleteIfExists(tempPath);
+
+        Segment output = Segment.create(tempPath, targetId, victims.get(0).supersedesFrom());
+        List<Move> moves = new ArrayList<>();
+        for (Map.Entry<Long, Location> entry : index.entrySet()) {
+            Location location = entry.getValue();
+            if (!victims.contains(location.segment)) {
+                continue;
+            }
+            byte[] record;
+            try {
+                record = location.segment.readRecord(location.offset, location.length);
+            } catch (ClosedChannelException ex) {
+                continue;
+            }
+            long offset = output.append(record);
+            moves.add(new Move(entry.getKey(), location, new Location(output, offset, record.length)));
+        }
+        output.force();
+        // Commit point: from here on recovery sees the compacted segment and drops the ones it supersedes
+        output.moveTo(finalPath);
+
+        synchronized (writeLock) {
+            for (Move move : moves) {
+                if (!index.replace(move.id, move.from, move.to)) {
+                    output.addGarbage(move.to.length);
+                }
+            }
+            sealed.removeAll(victims);
+            sealed.add(0, output);
+        }
+
+        long reclaimed = 0;
+        for (Segment victim : victims) {
+            reclaimed += victim.size();
+            victim.close();
+            if (victim != newest) {
+                Files.deleteIfExists(victim.path());
+            }
+        }
+        logger.info("Compacted {} product store segments: {} -> {} bytes", victims.size(), reclaimed, output.size());
+    }
+
+    private void maintain() {
+        try {
+            if (!syncOnWrite) {
+                active.force();
+            }
+            if (shouldCompact()) {
+                compact();
+            }
+        } catch (Exception ex) {
+            logger.warn("Product store maintenance failed", ex);
+        }
+    }
+
+    private boolean shouldCompact() {
+        if (sealed.size() > 1) {
+            return true;
+        }
+        long data = 0;
+        long garbage = 0;
+        for (Segment segment : sealed) {
+            data += segment.dataBytes();
+            garbage += segment.garbageBytes();
+        }
+        return data > 0 && garbage >= data * compactionGarbageRatio;
+    }
+
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path leftover : files.filter(f -> f.toString().endsWith(Segment.COMPACTING_SUFFIX))
+                    .collect(Collectors.toList())) {
+                // An unfinished compaction output; the segments it was built from are still intact
+                Files.delete(leftover);
+            }
+        }
+
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(directory)) {
+            paths = files.filter(Segment::isSegmentFile).sorted().collect(Collectors.toList());
+        }
+        List<Segment> segments = new ArrayList<>();
+        for (Path path : paths) {
+            segments.add(Segment.open(path));
+        }
+        segments = dropSuperseded(segments);
+
+        for (Segment segment : segments) {
+            long validEnd = segment.scan((payload, offset, length) -> replay(segment, payload, offset, length));
+            if (validEnd < segment.size()) {
+                logger.warn("Truncating {} bytes of torn or corrupt records from {}",
+                        segment.size() - validEnd, segment.path());
+                segment.truncate(validEnd);
+            }
+        }
+
+        nextSegmentId = segments.isEmpty() ? 1 : segments.get(segments.size() - 1).id() + 1;
+        if (!segments.isEmpty() && segments.get(segments.size() - 1).size() < maxSegmentBytes) {
+            active = segments.remove(segments.size() - 1);
+        } else {
+            active = Segment.create(Segment.pathFor(directory, nextSegmentId), nextSegmentId, nextSegmentId);
+            nextSegmentId++;
+        }
+        sealed.addAll(segments);
+        logger.info("Opened product store in {}: {} products in {} segments", directory, index.size(),
+                segmentCount());
+    }
+
+    // Finish a compaction that crashed after its output was committed but before old files were deleted
+    private static List<Segment> dropSuperseded(List<Segment> segments) throws IOException {
+        List<Segment> kept = new ArrayList<>();
+        for (Segment segment : segments) {
+            boolean superseded = false;
+            for (Segment other : segments) {
+                if (other != segment && other.supersedesFrom() <= segment.id() && segment.id() < other.id()) {
+                    superseded = true;
+                    break;
+                }
+            }
+            if (superseded) {
+                segment.close();
+                Files.deleteIfExists(segment.path());
+            } else {
+                kept.add(segment);
+            }
+        }
+        return kept;
+    }
+
+    private void replay(Segment segment, byte[] payload, long offset, int length) {
+        long id = ProductRecordCodec.id(payload);
+        Location previous;
+        if (ProductRecordCodec.type(payload) == ProductRecordCodec.PUT) {
+            previous = index.put(id, new Location(segment, offset, length));
+            nextId.accumulateAndGet(id + 1, Math::max);
+        } else {
+            segment.addGarbage(length);
+            previous = index.remove(id);
+        }
+        if (previous != null) {
+            previous.segment.addGarbage(previous.length);
+        }
+    }
+
+    private static final class Location {
+        private final Segment segment;
+        private final long offset;
+        private final int length;
+
+        private Location(Segment segment, long offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private static final class Move {
+        private final long id;
+        private final Location from;
+        private final Location to;
+
+        private Move(long id, Location from, Location to) {
+            this.id = id;
+            this.from = from;
+            this.to = to;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.productservice.store.embedded;
+
+import com.example.productservice.model.Product;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.zip.CRC32;
+
+/**
+ * Binary layout of a segment record:
+ * <pre>
+ * int   payload length
+ * int   CRC32 of the payload
+ * byte  type (PUT or DELETE)
+ * long  product id
+ * ...   product fields (PUT only)
+ * </pre>
+ */
+final class ProductRecordCodec {
+
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+    static final int HEADER_BYTES = 8;
+
+    private ProductRecordCodec() {
+    }
+
+    static byte[] encodePut(Product product) {
+        return encode(PUT, product.getId(), product);
+    }
+
+    static byte[] encodeDelete(long id) {
+        return encode(DELETE, id, null);
+    }
+
+    private static byte[] encode(byte type, long id, Product product) {
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeByte(type);
+            out.writeLong(id);
+            if (product != null) {
+                writeString(out, product.getName());
+                writeString(out, product.getDescription());
+                BigDecimal price = product.getPrice();
+                out.writeBoolean(price != null);
+                if (price != null) {
+                    byte[] unscaled = price.unscaledValue().toByteArray();
+                    out.writeInt(price.scale());
+                    out.writeShort(unscaled.length);
+                    out.write(unscaled);
+                }
+                Integer stock = product.getStock();
+                out.writeBoolean(stock != null);
+                if (stock != null) {
+                    out.writeInt(stock);
+                }
+            }
+            out.flush();
+            byte[] record = buffer.toByteArray();
+            int payloadLength = record.length - HEADER_BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(record, HEADER_BYTES, payloadLength);
+            writeIntAt(record, 0, payloadLength);
+            writeIntAt(record, 4, (int) crc.getValue());
+            return record;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    static boolean checksumMatches(byte[] payload, int expectedCrc) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue() == expectedCrc;
+    }
+
+    static byte type(byte[] payload) {
+        return payload[0];
+    }
+
+    static long id(byte[] payload) {
+        long id = 0;
+        for (int i = 1; i <= 8; i++) {
+            id = (id << 8) | (payload[i] & 0xFF);
+        }
+        return id;
+    }
+
+    static Product decodeProduct(byte[] payload) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            in.readByte();
+            Product product = new Product();
+            product.setId(in.readLong());
+            product.setName(readString(in));
+            product.setDescription(readString(in));
+            if (in.readBoolean()) {
+                int scale = in.readInt();
+                byte[] unscaled = new byte[in.readUnsignedShort()];
+                in.readFully(unscaled);
+                product.setPrice(new BigDecimal(new BigInteger(unscaled), scale));
+            }
+            if (in.readBoolean()) {
+                product.setStock(in.readInt());
+            }
+            return product;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeIntAt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+}
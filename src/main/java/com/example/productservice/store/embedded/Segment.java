@@ -0,0 +1,194 @@
+package com.example.productservice.store.embedded;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One append-only segment file.
+ * <p>
+ * The file starts with a header holding a magic number and the id of the oldest segment this
+ * one supersedes. A segment produced by compaction supersedes every segment from that id up to
+ * its own, which lets recovery finish a compaction interrupted before the old files were deleted.
+ */
+final class Segment implements Closeable {
+
+    static final String SUFFIX = ".log";
+    static final String COMPACTING_SUFFIX = ".compacting";
+
+    private static final String PREFIX = "segment-";
+    private static final int MAGIC = 0x50524f44;
+    static final int FILE_HEADER_BYTES = 12;
+
+    private final long id;
+    private final long supersedesFrom;
+    private final FileChannel channel;
+    private final AtomicLong size;
+    private final AtomicLong garbageBytes = new AtomicLong();
+    private volatile Path path;
+
+    private Segment(long id, long supersedesFrom, Path path, FileChannel channel, long size) {
+        this.id = id;
+        this.supersedesFrom = supersedesFrom;
+        this.path = path;
+        this.channel = channel;
+        this.size = new AtomicLong(size);
+    }
+
+    static Path pathFor(Path directory, long id) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, id, SUFFIX));
+    }
+
+    static boolean isSegmentFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    static long idOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    static Segment create(Path path, long id, long supersedesFrom) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+        header.putInt(MAGIC).putLong(supersedesFrom).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, FILE_HEADER_BYTES - header.remaining());
+        }
+        return new Segment(id, supersedesFrom, path, channel, FILE_HEADER_BYTES);
+    }
+
+    static Segment open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+        readFully(channel, header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            channel.close();
+            throw new IOException("Not a product segment file: " + path);
+        }
+        return new Segment(idOf(path), header.getLong(), path, channel, channel.size());
+    }
+
+    long id() {
+        return id;
+    }
+
+    long supersedesFrom() {
+        return supersedesFrom;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long size() {
+        return size.get();
+    }
+
+    long dataBytes() {
+        return size.get() - FILE_HEADER_BYTES;
+    }
+
+    long garbageBytes() {
+        return garbageBytes.get();
+    }
+
+    void addGarbage(long bytes) {
+        garbageBytes.addAndGet(bytes);
+    }
+
+    /**
+     * Append a full record. Callers serialize appends.
+     *
+     * @return the record's offset in the file
+     */
+    long append(byte[] record) throws IOException {
+        long offset = size.get();
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, offset + buffer.position());
+        }
+        size.set(offset + record.length);
+        return offset;
+    }
+
+    /**
+     * @return the full record (header and payload) stored at the offset
+     */
+    byte[] readRecord(long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        readFully(channel, buffer, offset);
+        return buffer.array();
+    }
+
+    /**
+     * Visit records from the start of the file, stopping at the first torn or corrupt record.
+     *
+     * @return the offset just past the last valid record
+     */
+    long scan(RecordVisitor visitor) throws IOException {
+        long offset = FILE_HEADER_BYTES;
+        long end = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(ProductRecordCodec.HEADER_BYTES);
+        while (offset + ProductRecordCodec.HEADER_BYTES <= end) {
+            header.clear();
+            readFully(channel, header, offset);
+            header.flip();
+            int payloadLength = header.getInt();
+            int crc = header.getInt();
+            if (payloadLength <= 0 || offset + ProductRecordCodec.HEADER_BYTES + payloadLength > end) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(payloadLength);
+            readFully(channel, payload, offset + ProductRecordCodec.HEADER_BYTES);
+            if (!ProductRecordCodec.checksumMatches(payload.array(), crc)) {
+                break;
+            }
+            int recordLength = ProductRecordCodec.HEADER_BYTES + payloadLength;
+            visitor.visit(payload.array(), offset, recordLength);
+            offset += recordLength;
+        }
+        return offset;
+    }
+
+    void truncate(long newSize) throws IOException {
+        channel.truncate(newSize);
+        size.set(newSize);
+    }
+
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    void moveTo(Path target) throws IOException {
+        Files.move(path, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        path = target;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of segment file");
+            }
+        }
+    }
+
+    interface RecordVisitor {
+        void visit(byte[] payload, long offset, int recordLength) throws IOException;
+    }
+}
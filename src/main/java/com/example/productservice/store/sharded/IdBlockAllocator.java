@@ -0,0 +1,103 @@
+package com.example.productservice.store.sharded;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.function.LongSupplier;
+
+/**
+ * Allocates product ids for a sharded catalog in blocks reserved from a counter row in one database.
+ * <p>
+ * The shards cannot use their own identity columns because an id must be known before the
+ * owning shard is chosen. Reserving a block is a single-row UPDATE, so service instances sharing
+ * the counter never hand out the same id; ids are unique but only roughly ascending across instances.
+ * Expects {@code PRODUCT_ID_BLOCKS (NAME VARCHAR(30) PRIMARY KEY, NEXT_ID BIGINT NOT NULL)}; the row
+ * is created on first use, starting above the highest existing id.
+ */
+public class IdBlockAllocator implements LongSupplier {
+
+    private static final String ADVANCE_SQL = "UPDATE PRODUCT_ID_BLOCKS SET NEXT_ID = NEXT_ID + ? WHERE NAME = 'PRODUCTS'";
+    private static final String READ_SQL = "SELECT NEXT_ID FROM PRODUCT_ID_BLOCKS WHERE NAME = 'PRODUCTS'";
+    private static final String CREATE_SQL = "INSERT INTO PRODUCT_ID_BLOCKS (NAME, NEXT_ID) VALUES ('PRODUCTS', ?)";
+
+    private final DataSource dataSource;
+    private final int blockSize;
+    private final LongSupplier firstId;
+
+    private long next;
+    private long limit;
+
+    /**
+     * @param firstId computes the first id when the counter row does not exist yet
+     */
+    public IdBlockAllocator(DataSource dataSource, int blockSize, LongSupplier firstId) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Id block size must be positive");
+        }
+        this.dataSource = dataSource;
+        this.blockSize = blockSize;
+        this.firstId = firstId;
+    }
+
+    @Override
+    public synchronized long getAsLong() {
+        if (next == limit) {
+            try {
+                limit = reserveBlock();
+            } catch (SQLException ex) {
+                throw new IllegalStateException("Could not reserve a block of product ids", ex);
+            }
+            next = limit - blockSize;
+        }
+        return next++;
+    }
+
+    // Returns the exclusive end of the reserved block
+    private long reserveBlock() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                if (advance(connection) == 0) {
+                    createCounter(connection);
+                    if (advance(connection) == 0) {
+                        throw new SQLException("PRODUCT_ID_BLOCKS has no PRODUCTS row");
+                    }
+                }
+                long end;
+                try (PreparedStatement read = connection.prepareStatement(READ_SQL);
+                     ResultSet rs = read.executeQuery()) {
+                    rs.next();
+                    end = rs.getLong(1);
+                }
+                connection.commit();
+                return end;
+            } catch (SQLException | RuntimeException ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private int advance(Connection connection) throws SQLException {
+        try (PreparedStatement advance = connection.prepareStatement(ADVANCE_SQL)) {
+            advance.setLong(1, blockSize);
+            return advance.executeUpdate();
+        }
+    }
+
+    private void createCounter(Connection connection) throws SQLException {
+        try (PreparedStatement create = connection.prepareStatement(CREATE_SQL)) {
+            create.setLong(1, firstId.getAsLong());
+            create.executeUpdate();
+        } catch (SQLIntegrityConstraintViolationException ex) {
+            // Another instance created the row first; the primary key makes the loser fail here
+            connection.rollback();
+        }
+    }
+}
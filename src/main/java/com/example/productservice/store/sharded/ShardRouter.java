@@ -0,0 +1,90 @@
+package com.example.productservice.store.sharded;
+
+import java.util.Arrays;
+
+/**
+ * Maps a product id to the index of the shard that owns it.
+ */
+public abstract class ShardRouter {
+
+    /**
+     * @return the owning shard's index, or -1 if the id is outside every shard's range
+     */
+    public abstract int shardFor(long id);
+
+    public abstract int shardCount();
+
+    /**
+     * Spread ids evenly over a fixed number of shards. Changing the number of shards moves most
+     * products, so it needs a full rebalance.
+     */
+    public static ShardRouter hash(int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        return new HashRouter(shards);
+    }
+
+    /**
+     * Give each shard a contiguous id range: shard {@code i} owns ids from {@code firstIds[i]} up to
+     * the next shard's first id, and the last shard owns everything above its first id. New shards
+     * can be added for ids above the current maximum without moving existing products.
+     */
+    public static ShardRouter range(long... firstIds) {
+        if (firstIds.length < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        for (int i = 1; i < firstIds.length; i++) {
+            if (firstIds[i] <= firstIds[i - 1]) {
+                throw new IllegalArgumentException("Shard first ids must be ascending: " + Arrays.toString(firstIds));
+            }
+        }
+        return new RangeRouter(firstIds.clone());
+    }
+
+    private static final class HashRouter extends ShardRouter {
+
+        private final int shards;
+
+        HashRouter(int shards) {
+            this.shards = shards;
+        }
+
+        @Override
+        public int shardFor(long id) {
+            // Mix the bits first so sequential ids don't stripe the shards in lockstep
+            long h = id;
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return (int) Math.floorMod(h, (long) shards);
+        }
+
+        @Override
+        public int shardCount() {
+            return shards;
+        }
+    }
+
+    private static final class RangeRouter extends ShardRouter {
+
+        private final long[] firstIds;
+
+        RangeRouter(long[] firstIds) {
+            this.firstIds = firstIds;
+        }
+
+        @Override
+        public int shardFor(long id) {
+            int index = Arrays.binarySearch(firstIds, id);
+            return index >= 0 ? index : -index - 2;
+        }
+
+        @Override
+        public int shardCount() {
+            return firstIds.length;
+        }
+    }
+}
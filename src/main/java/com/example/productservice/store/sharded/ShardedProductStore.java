@@ -0,0 +1,353 @@
+package com.example.productservice.store.sharded;
+
+import com.example.productservice.dto.ProductField;
+import com.example.productservice.dto.ProductFieldSet;
+import com.example.productservice.exception.ShardTimeoutException;
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.BulkMutation;
+import com.example.productservice.repository.ProductFilter;
+import com.example.productservice.repository.StockUpdate;
+import com.example.productservice.store.JdbcProductStore;
+import com.example.productservice.store.ProductStore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * {@link ProductStore} that partitions products across several {@link JdbcProductStore} shards by id.
+ * <p>
+ * Point reads and writes go to the one shard the {@link ShardRouter} picks. Listings and finders run
+ * on every shard in parallel; each shard's results are sorted by id and the sorted runs are merged,
+ * so the combined result is in id order and stops at {@code maxResults}. A shard that has not
+ * answered within the timeout fails the whole query with {@link ShardTimeoutException} rather than
+ * returning a silently incomplete catalog.
+ * <p>
+ * New products get their id from {@code idAllocator} before a shard is chosen, and are inserted
+ * under that id; saving a product with an id only ever updates it. There are no transactions
+ * spanning shards: each write is atomic on its own shard only.
+ */
+public class ShardedProductStore implements ProductStore, Closeable {
+
+    private static final ToLongFunction<Product> PRODUCT_ID = Product::getId;
+    // ID is the first field in declaration order, so it leads every row that selects it
+    private static final ToLongFunction<Object[]> ROW_ID = row -> ((Number) row[0]).longValue();
+
+    private final List<JdbcProductStore> shards;
+    private final ShardRouter router;
+    private final LongSupplier idAllocator;
+    private final ExecutorService executor;
+    private final long timeoutMs;
+    private final int maxResults;
+
+    /**
+     * @param maxResults cap on the merged result of a listing or finder; 0 for no cap
+     */
+    public ShardedProductStore(List<? extends JdbcProductStore> shards, ShardRouter router, LongSupplier idAllocator,
+                               int threads, long timeoutMs, int maxResults) {
+        if (shards.size() != router.shardCount()) {
+            throw new IllegalArgumentException("Router expects " + router.shardCount()
+                    + " shards but " + shards.size() + " are configured");
+        }
+        this.shards = new ArrayList<>(shards);
+        this.router = router;
+        this.idAllocator = idAllocator;
+        this.executor = Executors.newFixedThreadPool(threads, new ShardThreadFactory());
+        this.timeoutMs = timeoutMs;
+        this.maxResults = maxResults > 0 ? maxResults : Integer.MAX_VALUE;
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return gather(ProductStore::findAll);
+    }
+
+    @Override
+    public Optional<Product> findById(Long id) {
+        ProductStore shard = shardFor(id);
+        return shard == null ? Optional.empty() : shard.findById(id);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        ProductStore shard = shardFor(id);
+        return shard != null && shard.existsById(id);
+    }
+
+    @Override
+    public Product save(Product product) {
+        boolean insert = product.getId() == null;
+        if (insert) {
+            product.setId(idAllocator.getAsLong());
+        }
+        JdbcProductStore shard = shardFor(product.getId());
+        if (shard == null) {
+            throw new IllegalArgumentException("No shard owns product id " + product.getId());
+        }
+        return insert ? shard.insert(product) : shard.save(product);
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        ProductStore shard = shardFor(id);
+        if (shard != null) {
+            shard.deleteById(id);
+        }
+    }
+
+    @Override
+    public List<Product> findByNameContaining(String name) {
+        return gather(shard -> shard.findByNameContaining(name));
+    }
+
+    @Override
+    public List<Product> findByPriceGreaterThanEqual(BigDecimal price) {
+        return gather(shard -> shard.findByPriceGreaterThanEqual(price));
+    }
+
+    @Override
+    public List<Product> findByStockLessThan(Integer stock) {
+        return gather(shard -> shard.findByStockLessThan(stock));
+    }
+
+    @Override
+    public List<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        return gather(shard -> shard.findByPriceBetween(minPrice, maxPrice));
+    }
+
+    @Override
+    public List<Product> findByNameAndStockGreaterThan(String name, Integer stock) {
+        return gather(shard -> shard.findByNameAndStockGreaterThan(name, stock));
+    }
+
+    @Override
+    public List<Object[]> findFields(ProductFilter filter, ProductFieldSet fields) {
+        // Merging needs the id of every row; select it and drop it again if it was not asked for
+        boolean addId = !fields.contains(ProductField.ID);
+        ProductFieldSet queried = addId ? ProductFieldSet.parse(fields + ",id") : fields;
+        List<Object[]> rows = merge(scatter(shard -> sorted(shard.findFields(filter, queried), ROW_ID)), ROW_ID);
+        if (addId) {
+            rows.replaceAll(row -> Arrays.copyOfRange(row, 1, row.length));
+        }
+        return rows;
+    }
+
+    // One shard after another, outside the scatter deadline: an id scan may take longer than a listing
+    @Override
+    public List<Long> findIds(ProductFilter filter) {
+        List<Long> ids = new ArrayList<>();
+        for (JdbcProductStore shard : shards) {
+            ids.addAll(shard.findIds(filter));
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    @Override
+    public int updateStock(List<StockUpdate> updates) {
+        List<List<StockUpdate>> byShard = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            byShard.add(new ArrayList<>());
+        }
+        for (StockUpdate update : updates) {
+            int shard = router.shardFor(update.getProductId());
+            if (shard >= 0) {
+                byShard.get(shard).add(update);
+            }
+        }
+        int updated = 0;
+        for (int i = 0; i < shards.size(); i++) {
+            if (!byShard.get(i).isEmpty()) {
+                updated += shards.get(i).updateStock(byShard.get(i));
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean addStock(long productId, int delta) {
+        ProductStore shard = shardFor(productId);
+        return shard != null && shard.addStock(productId, delta);
+    }
+
+    // Each shard updates its part in its own transaction: a chunk is not atomic across shards
+    @Override
+    public List<Long> bulkUpdate(ProductFilter filter, BulkMutation mutation) {
+        List<Long> updated = new ArrayList<>();
+        if (filter.getIds() == null) {
+            for (ProductStore shard : shards) {
+                updated.addAll(shard.bulkUpdate(filter, mutation));
+            }
+        } else {
+            List<List<Long>> byShard = new ArrayList<>(shards.size());
+            for (int i = 0; i < shards.size(); i++) {
+                byShard.add(new ArrayList<>());
+            }
+            for (Long id : filter.getIds()) {
+                int shard = router.shardFor(id);
+                if (shard >= 0) {
+                    byShard.get(shard).add(id);
+                }
+            }
+            for (int i = 0; i < shards.size(); i++) {
+                if (!byShard.get(i).isEmpty()) {
+                    updated.addAll(shards.get(i).bulkUpdate(filter.withIds(byShard.get(i)), mutation));
+                }
+            }
+        }
+        Collections.sort(updated);
+        return updated;
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Stop the query threads and close the shards that hold resources.
+     */
+    @Override
+    public void close() throws IOException {
+        executor.shutdownNow();
+        IOException failure = null;
+        for (JdbcProductStore shard : shards) {
+            try {
+                shard.close();
+            } catch (IOException ex) {
+                failure = ex;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private JdbcProductStore shardFor(long id) {
+        int shard = router.shardFor(id);
+        return shard < 0 ? null : shards.get(shard);
+    }
+
+    private List<Product> gather(Function<ProductStore, List<Product>> query) {
+        return merge(scatter(shard -> sorted(query.apply(shard), PRODUCT_ID)), PRODUCT_ID);
+    }
+
+    // Run the query on every shard at once and wait for all of them under one deadline
+    private <T> List<List<T>> scatter(Function<ProductStore, List<T>> query) {
+        List<Future<List<T>>> futures = new ArrayList<>(shards.size());
+        for (ProductStore shard : shards) {
+            futures.add(executor.submit(() -> query.apply(shard)));
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        List<List<T>> results = new ArrayList<>(shards.size());
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+                } catch (TimeoutException ex) {
+                    throw new ShardTimeoutException(i, timeoutMs);
+                } catch (ExecutionException ex) {
+                    if (ex.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) ex.getCause();
+                    }
+                    throw new IllegalStateException("Query failed on shard " + i, ex.getCause());
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shards", ex);
+        } finally {
+            // Interrupts the stragglers after a failure; a no-op for completed queries
+            for (Future<List<T>> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return results;
+    }
+
+    // Runs on the shard's query thread, so the merge only has to interleave sorted runs
+    private <T> List<T> sorted(List<T> results, ToLongFunction<T> id) {
+        List<T> copy = new ArrayList<>(results);
+        copy.sort(Comparator.comparingLong(id));
+        return copy.size() > maxResults ? copy.subList(0, maxResults) : copy;
+    }
+
+    private <T> List<T> merge(List<List<T>> runs, ToLongFunction<T> id) {
+        if (runs.size() == 1) {
+            return runs.get(0);
+        }
+        int total = 0;
+        PriorityQueue<Cursor<T>> heads = new PriorityQueue<>(runs.size(), Comparator.comparingLong(Cursor::id));
+        for (List<T> run : runs) {
+            total += run.size();
+            if (!run.isEmpty()) {
+                heads.add(new Cursor<>(run, id));
+            }
+        }
+        if (heads.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<T> merged = new ArrayList<>(Math.min(total, maxResults));
+        while (!heads.isEmpty() && merged.size() < maxResults) {
+            Cursor<T> head = heads.poll();
+            merged.add(head.current());
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    private static final class Cursor<T> {
+
+        private final List<T> run;
+        private final ToLongFunction<T> id;
+        private int position;
+
+        Cursor(List<T> run, ToLongFunction<T> id) {
+            this.run = run;
+            this.id = id;
+        }
+
+        T current() {
+            return run.get(position);
+        }
+
+        long id() {
+            return id.applyAsLong(run.get(position));
+        }
+
+        boolean advance() {
+            return ++position < run.size();
+        }
+    }
+
+    private static final class ShardThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "shard-query-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
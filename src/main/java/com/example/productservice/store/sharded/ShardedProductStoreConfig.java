@@ -0,0 +1,77 @@
+package com.example.productservice.store.sharded;
+
+import com.example.productservice.store.JdbcProductStore;
+import com.example.productservice.store.ProductStore;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds a {@link ShardedProductStore} over one connection pool per configured shard when
+ * {@code product.store.type=sharded}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "product.store", name = "type", havingValue = "sharded")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardedProductStoreConfig {
+
+    @Bean(destroyMethod = "close")
+    public ProductStore shardedProductStore(ShardingProperties sharding) {
+        List<ShardingProperties.Shard> configured = sharding.getShards();
+        if (configured.isEmpty()) {
+            throw new IllegalStateException("product.store.sharding.shards must list at least one shard");
+        }
+        // The JDBC timeout stops the statement on the shard; the store's own deadline bounds the wait
+        int queryTimeoutSeconds = (int) Math.max(1, (sharding.getQueryTimeoutMs() + 999) / 1000);
+
+        List<JdbcProductStore> shards = new ArrayList<>(configured.size());
+        HikariDataSource firstPool = null;
+        for (int i = 0; i < configured.size(); i++) {
+            ShardingProperties.Shard shard = configured.get(i);
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(shard.getDriverClassName())
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .build();
+            pool.setPoolName("shard-" + i);
+            pool.setMaximumPoolSize(sharding.getMaxPoolSize());
+            if (i == 0) {
+                firstPool = pool;
+            }
+            shards.add(new JdbcProductStore(pool, queryTimeoutSeconds, sharding.getMaxResults()));
+        }
+
+        // The id counter lives on the first shard and starts above every existing id
+        ShardRouter router = router(sharding);
+        long lowestId = configured.get(0).getFirstId() != null ? configured.get(0).getFirstId() : 1;
+        IdBlockAllocator idAllocator = new IdBlockAllocator(firstPool, sharding.getIdBlockSize(),
+                () -> Math.max(lowestId, shards.stream().mapToLong(JdbcProductStore::maxId).max().orElse(0) + 1));
+        return new ShardedProductStore(shards, router, idAllocator, sharding.getQueryThreads(),
+                sharding.getQueryTimeoutMs(), sharding.getMaxResults());
+    }
+
+    private static ShardRouter router(ShardingProperties sharding) {
+        List<ShardingProperties.Shard> shards = sharding.getShards();
+        if (sharding.getStrategy() == ShardingProperties.Strategy.HASH) {
+            return ShardRouter.hash(shards.size());
+        }
+        long[] firstIds = new long[shards.size()];
+        for (int i = 0; i < firstIds.length; i++) {
+            Long firstId = shards.get(i).getFirstId();
+            if (firstId == null) {
+                throw new IllegalStateException("product.store.sharding.shards[" + i + "].first-id is required "
+                        + "with the range strategy");
+            }
+            firstIds[i] = firstId;
+        }
+        return ShardRouter.range(firstIds);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.productservice.store.sharded;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for the sharded product store ({@code product.store.sharding.*}), used when
+ * {@code product.store.type=sharded}.
+ */
+@ConfigurationProperties(prefix = "product.store.sharding")
+public class ShardingProperties {
+
+    public enum Strategy {
+        HASH, RANGE
+    }
+
+    private Strategy strategy = Strategy.HASH;
+
+    private List<Shard> shards = new ArrayList<>();
+
+    /**
+     * How long a listing or finder waits for the slowest shard before failing with 503.
+     */
+    private long queryTimeoutMs = 2000;
+
+    /**
+     * Cap on the number of products a listing or finder returns after merging; 0 for no cap.
+     */
+    private int maxResults;
+
+    /**
+     * Threads running shard queries; each listing or finder uses one per shard.
+     */
+    private int queryThreads = 32;
+
+    private int maxPoolSize = 10;
+
+    /**
+     * Product ids reserved from the PRODUCT_ID_BLOCKS counter on the first shard at a time.
+     */
+    private int idBlockSize = 100;
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(Strategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public void setShards(List<Shard> shards) {
+        this.shards = shards;
+    }
+
+    public long getQueryTimeoutMs() {
+        return queryTimeoutMs;
+    }
+
+    public void setQueryTimeoutMs(long queryTimeoutMs) {
+        this.queryTimeoutMs = queryTimeoutMs;
+    }
+
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    public void setMaxResults(int maxResults) {
+        this.maxResults = maxResults;
+    }
+
+    public int getQueryThreads() {
+        return queryThreads;
+    }
+
+    public void setQueryThreads(int queryThreads) {
+        this.queryThreads = queryThreads;
+    }
+
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(int maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    public int getIdBlockSize() {
+        return idBlockSize;
+    }
+
+    public void setIdBlockSize(int idBlockSize) {
+        this.idBlockSize = idBlockSize;
+    }
+
+    public static class Shard {
+
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+
+        /**
+         * With the range strategy, the lowest product id this shard owns. It owns every id up to
+         * the next shard's first id; the last shard owns everything above.
+         */
+        private Long firstId;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public String getDriverClassName() {
+            return driverClassName;
+        }
+
+        public void setDriverClassName(String driverClassName) {
+            this.driverClassName = driverClassName;
+        }
+
+        public Long getFirstId() {
+            return firstId;
+        }
+
+        public void setFirstId(Long firstId) {
+            this.firstId = firstId;
+        }
+    }
+}
@@ -0,0 +1,530 @@
+package com.example.productservice.suggest;
+
+import com.example.productservice.dto.ProductChange;
+import com.example.productservice.dto.ProductSuggestion;
+import com.example.productservice.feed.ChangeFeedListener;
+import com.example.productservice.model.Product;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * In-memory prefix index over product names for autocomplete.
+ * <p>
+ * Names are normalized (accents stripped, lower-cased, punctuation collapsed to single spaces) and
+ * indexed in a radix trie under the full name and under each later word, so "lap" finds
+ * "Gaming Laptop". Every node caches the best {@code maxLimit} distinct products of its subtree,
+ * ranked by stock (then name, then id). A lookup walks the prefix and returns the cached ranking,
+ * without visiting the subtree. Writes refresh the caches along the changed paths only.
+ * <p>
+ * Writes through this instance are applied as they commit. Writes through other instances arrive
+ * from the change feed when it is followed, or else with the next periodic {@link #load}.
+ */
+public class ProductSuggestIndex implements ChangeFeedListener {
+
+    // Ranking: most stock first, then name and id so equal stock has a stable order
+    private static final Comparator<ProductSuggestion> RANKING = Comparator
+            .comparingInt(ProductSuggestion::getStock).reversed()
+            .thenComparing(ProductSuggestion::getName)
+            .thenComparingLong(ProductSuggestion::getId);
+
+    // Later words indexed per name; bounds the index size for long, wordy names
+    private static final int MAX_WORDS = 8;
+
+    private final int maxLimit;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, ProductSuggestion> byId = new HashMap<>();
+    private final Node root = new Node("");
+    // Writes applied while a load reads the store, replayed on top of what it read; null when not loading
+    private List<Runnable> writesDuringLoad;
+
+    public ProductSuggestIndex(int maxLimit) {
+        if (maxLimit < 1) {
+            throw new IllegalArgumentException("Suggestion limit must be positive");
+        }
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * @return up to {@code limit} products with a name word starting with the prefix, best ranked first
+     * @throws IllegalArgumentException if the limit is outside 1 to {@code maxLimit}
+     */
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        if (limit < 1 || limit > maxLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxLimit);
+        }
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int i = 0;
+            while (i < key.length()) {
+                Node child = node.child(key.charAt(i));
+                if (child == null) {
+                    return Collections.emptyList();
+                }
+                int n = Math.min(child.label.length(), key.length() - i);
+                if (!child.label.regionMatches(0, key, i, n)) {
+                    return Collections.emptyList();
+                }
+                i += n;
+                node = child;
+            }
+            return Arrays.asList(Arrays.copyOf(node.top, Math.min(limit, node.top.length)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Index a product, replacing what was indexed for its id.
+     */
+    public void put(Product product) {
+        ProductSuggestion suggestion = new ProductSuggestion(product.getId(), product.getName(),
+                product.getStock() == null ? 0 : product.getStock());
+        lock.writeLock().lock();
+        try {
+            putLocked(suggestion);
+            if (writesDuringLoad != null) {
+                writesDuringLoad.add(() -> putLocked(suggestion));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            if (writesDuringLoad != null) {
+                writesDuringLoad.add(() -> removeLocked(id));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Index the product once the current transaction commits, or immediately if there is none.
+     */
+    public void putAfterCommit(Product product) {
+        runAfterCommit(() -> put(product));
+    }
+
+    /**
+     * Remove the product once the current transaction commits, or immediately if there is none.
+     */
+    public void removeAfterCommit(Long id) {
+        runAfterCommit(() -> remove(id));
+    }
+
+    /**
+     * Replace the whole index with the given products. The supplier runs without blocking lookups;
+     * writes applied while it runs are replayed on top of what it returns, so they are not lost to a
+     * snapshot read before they committed. Loads run one at a time.
+     */
+    public synchronized void load(Supplier<List<Product>> products) {
+        lock.writeLock().lock();
+        try {
+            writesDuringLoad = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<Product> loaded;
+        try {
+            loaded = products.get();
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                writesDuringLoad = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw ex;
+        }
+        lock.writeLock().lock();
+        try {
+            byId.clear();
+            root.clear();
+            for (Product product : loaded) {
+                ProductSuggestion suggestion = new ProductSuggestion(product.getId(), product.getName(),
+                        product.getStock() == null ? 0 : product.getStock());
+                byId.put(suggestion.getId(), suggestion);
+                for (String key : keys(suggestion.getName())) {
+                    insert(key, suggestion, false);
+                }
+            }
+            // Rank once at the end instead of along every inserted path
+            rankSubtree(root);
+            for (Runnable write : writesDuringLoad) {
+                write.run();
+            }
+        } finally {
+            writesDuringLoad = null;
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void reload(List<Product> products) {
+        load(() -> products);
+    }
+
+    @Override
+    public void apply(List<ProductChange> changes) {
+        for (ProductChange change : changes) {
+            if (change.isDeleted()) {
+                remove(change.getId());
+            } else {
+                put(change.getProduct());
+            }
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Strip accents, lower-case, and collapse every run of non-alphanumeric characters into one space.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        boolean gap = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (gap && sb.length() > 0) {
+                    sb.append(' ');
+                }
+                gap = false;
+                sb.append(Character.toLowerCase(c));
+            } else {
+                gap = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    // The normalized name and its suffixes starting at each later word
+    static List<String> keys(String name) {
+        String normalized = normalize(name);
+        List<String> keys = new ArrayList<>(2);
+        if (normalized.isEmpty()) {
+            return keys;
+        }
+        keys.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0 && keys.size() < MAX_WORDS; i = normalized.indexOf(' ', i + 1)) {
+            keys.add(normalized.substring(i + 1));
+        }
+        return keys;
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void putLocked(ProductSuggestion suggestion) {
+        ProductSuggestion previous = byId.put(suggestion.getId(), suggestion);
+        if (previous != null) {
+            unindex(previous);
+        }
+        index(suggestion);
+    }
+
+    private void removeLocked(Long id) {
+        ProductSuggestion previous = byId.remove(id);
+        if (previous != null) {
+            unindex(previous);
+        }
+    }
+
+    private void index(ProductSuggestion suggestion) {
+        for (String key : keys(suggestion.getName())) {
+            insert(key, suggestion, true);
+        }
+    }
+
+    private void unindex(ProductSuggestion suggestion) {
+        for (String key : keys(suggestion.getName())) {
+            delete(key, suggestion);
+        }
+    }
+
+    private void insert(String key, ProductSuggestion suggestion, boolean refresh) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                child = new Node(key.substring(i));
+                node.addChild(child);
+                i = key.length();
+            } else {
+                int common = commonPrefix(child.label, key, i);
+                if (common < child.label.length()) {
+                    // Split the edge: the shared part becomes a new node above the old child
+                    Node split = new Node(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    split.addChild(child);
+                    split.top = child.top;
+                    node.replaceChild(split);
+                    child = split;
+                }
+                i += common;
+            }
+            node = child;
+            path.add(node);
+        }
+        node.addTerminal(suggestion);
+        if (refresh) {
+            refresh(path);
+        }
+    }
+
+    private void delete(String key, ProductSuggestion suggestion) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null || !key.startsWith(child.label, i)) {
+                return;
+            }
+            i += child.label.length();
+            node = child;
+            path.add(node);
+        }
+        if (!node.removeTerminal(suggestion)) {
+            return;
+        }
+        // Keep the trie compact: drop empty leaves and fold single-child nodes into their child
+        for (int depth = path.size() - 1; depth > 0; depth--) {
+            Node current = path.get(depth);
+            if (current.terminals != null) {
+                break;
+            }
+            if (current.children.length == 0) {
+                path.get(depth - 1).removeChild(current);
+            } else if (current.children.length == 1) {
+                current.absorbOnlyChild();
+                break;
+            } else {
+                break;
+            }
+        }
+        refresh(path);
+    }
+
+    // Rebuild the cached rankings bottom-up along a changed path
+    private void refresh(List<Node> path) {
+        for (int depth = path.size() - 1; depth >= 0; depth--) {
+            path.get(depth).rank(maxLimit);
+        }
+    }
+
+    private void rankSubtree(Node node) {
+        for (Node child : node.children) {
+            rankSubtree(child);
+        }
+        node.rank(maxLimit);
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int n = 0;
+        while (n < max && label.charAt(n) == key.charAt(offset + n)) {
+            n++;
+        }
+        return n;
+    }
+
+    private static final class Node {
+
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final ProductSuggestion[] NONE = new ProductSuggestion[0];
+
+        String label;
+        // Children sorted by the first character of their label, found by binary search
+        char[] firsts = NO_KEYS;
+        Node[] children = NO_CHILDREN;
+        // Products whose key ends exactly here, in ranking order; null when there are none
+        TreeSet<ProductSuggestion> terminals;
+        ProductSuggestion[] top = NONE;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node child(char first) {
+            int index = Arrays.binarySearch(firsts, first);
+            return index >= 0 ? children[index] : null;
+        }
+
+        void addChild(Node child) {
+            int index = -Arrays.binarySearch(firsts, child.label.charAt(0)) - 1;
+            char[] newFirsts = new char[firsts.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(firsts, 0, newFirsts, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newFirsts[index] = child.label.charAt(0);
+            newChildren[index] = child;
+            System.arraycopy(firsts, index, newFirsts, index + 1, firsts.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            firsts = newFirsts;
+            children = newChildren;
+        }
+
+        void replaceChild(Node child) {
+            children[Arrays.binarySearch(firsts, child.label.charAt(0))] = child;
+        }
+
+        void removeChild(Node child) {
+            int index = Arrays.binarySearch(firsts, child.label.charAt(0));
+            char[] newFirsts = new char[firsts.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(firsts, 0, newFirsts, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(firsts, index + 1, newFirsts, index, firsts.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            firsts = newFirsts;
+            children = newChildren;
+        }
+
+        // Merge with the only child; the first character of the label, and so the parent's key, is unchanged
+        void absorbOnlyChild() {
+            Node child = children[0];
+            label = label + child.label;
+            firsts = child.firsts;
+            children = child.children;
+            terminals = child.terminals;
+            top = child.top;
+        }
+
+        void addTerminal(ProductSuggestion suggestion) {
+            if (terminals == null) {
+                terminals = new TreeSet<>(RANKING);
+            }
+            terminals.add(suggestion);
+        }
+
+        boolean removeTerminal(ProductSuggestion suggestion) {
+            if (terminals == null) {
+                return false;
+            }
+            boolean removed = terminals.remove(suggestion);
+            if (terminals.isEmpty()) {
+                terminals = null;
+            }
+            return removed;
+        }
+
+        // Best distinct products among this node's own and its children's cached rankings. Each source is
+        // already ranked, so a k-way merge stops after at most limit picks plus duplicates
+        void rank(int limit) {
+            PriorityQueue<Run> runs = new PriorityQueue<>(children.length + 1);
+            if (terminals != null) {
+                runs.add(new Run(terminals.iterator()));
+            }
+            for (Node child : children) {
+                if (child.top.length > 0) {
+                    runs.add(new Run(Arrays.asList(child.top).iterator()));
+                }
+            }
+            List<ProductSuggestion> best = new ArrayList<>(limit);
+            while (best.size() < limit && !runs.isEmpty()) {
+                Run run = runs.poll();
+                // The same product can reach a node through several of its words
+                if (!contains(best, run.head)) {
+                    best.add(run.head);
+                }
+                if (run.advance()) {
+                    runs.add(run);
+                }
+            }
+            top = best.toArray(NONE);
+        }
+
+        void clear() {
+            firsts = NO_KEYS;
+            children = NO_CHILDREN;
+            terminals = null;
+            top = NONE;
+        }
+
+        private static boolean contains(List<ProductSuggestion> best, ProductSuggestion candidate) {
+            for (ProductSuggestion s : best) {
+                if (s.getId() == candidate.getId()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Run implements Comparable<Run> {
+
+        private final Iterator<ProductSuggestion> rest;
+        private ProductSuggestion head;
+
+        Run(Iterator<ProductSuggestion> ranked) {
+            this.rest = ranked;
+            this.head = ranked.next();
+        }
+
+        boolean advance() {
+            if (!rest.hasNext()) {
+                return false;
+            }
+            head = rest.next();
+            return true;
+        }
+
+        @Override
+        public int compareTo(Run other) {
+            return RANKING.compare(head, other.head);
+        }
+    }
+}
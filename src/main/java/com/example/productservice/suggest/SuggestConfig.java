@@ -0,0 +1,43 @@
+package com.example.productservice.suggest;
+
+import com.example.productservice.feed.ChangeFeedConfig;
+import com.example.productservice.stock.StockWriteBehind;
+import com.example.productservice.store.ProductStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Creates the autocomplete index. When the change feed is followed, the follower loads it and keeps
+ * it current; otherwise it is loaded from the product store once the application is ready and
+ * reloaded every {@code suggest.reload-interval-ms}.
+ */
+@Configuration
+public class SuggestConfig {
+
+    @Bean
+    public ProductSuggestIndex productSuggestIndex(@Value("${suggest.max-limit:20}") int maxLimit) {
+        return new ProductSuggestIndex(maxLimit);
+    }
+
+    // Pending write-behind stock is included so the ranking matches what reads return
+    @Bean(destroyMethod = "close")
+    @ConditionalOnExpression("!(" + ChangeFeedConfig.FOLLOWING + ")")
+    public SuggestIndexReloader suggestIndexReloader(ProductSuggestIndex index,
+                                                     ProductStore productStore,
+                                                     StockWriteBehind stockWriteBehind,
+                                                     @Value("${suggest.reload-interval-ms:300000}") long reloadIntervalMs) {
+        return new SuggestIndexReloader(index, () -> stockWriteBehind.readProducts(productStore::findAll),
+                reloadIntervalMs);
+    }
+
+    // Loading after startup keeps a large catalog from delaying it; suggestions are empty until then
+    @Bean
+    @ConditionalOnExpression("!(" + ChangeFeedConfig.FOLLOWING + ")")
+    public ApplicationListener<ApplicationReadyEvent> suggestIndexLoader(SuggestIndexReloader reloader) {
+        return event -> reloader.start();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.productservice.suggest;
+
+import com.example.productservice.logging.RateLimitedLogger;
+import com.example.productservice.model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Loads the autocomplete index in the background and reloads it periodically, for when the change
+ * feed is not followed and writes through other instances would otherwise never reach it.
+ */
+public class SuggestIndexReloader implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuggestIndexReloader.class);
+    private static final RateLimitedLogger failureLogger = new RateLimitedLogger(logger, 1, 10_000L);
+
+    private final ProductSuggestIndex index;
+    private final Supplier<List<Product>> products;
+    private final long reloadIntervalMs;
+    private final ScheduledExecutorService reloader;
+
+    /**
+     * @param reloadIntervalMs interval between reloads, or 0 to load once
+     */
+    public SuggestIndexReloader(ProductSuggestIndex index, Supplier<List<Product>> products, long reloadIntervalMs) {
+        this.index = index;
+        this.products = products;
+        this.reloadIntervalMs = reloadIntervalMs;
+        this.reloader = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "suggest-index-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        if (reloadIntervalMs > 0) {
+            reloader.scheduleWithFixedDelay(this::reloadQuietly, 0, reloadIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            reloader.execute(this::reloadQuietly);
+        }
+    }
+
+    private void reloadQuietly() {
+        try {
+            index.load(products);
+        } catch (RuntimeException ex) {
+            // The index keeps its previous contents until the next reload
+            failureLogger.warn("Reloading the suggest index failed", ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        reloader.shutdownNow();
+    }
+}
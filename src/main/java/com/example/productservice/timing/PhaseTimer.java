@@ -0,0 +1,35 @@
+package com.example.productservice.timing;
+
+/**
+ * Measures one {@link RequestPhase} from {@link RequestTimings#start} until {@link #close()}, adding the
+ * time to the current request and emitting a {@link RequestPhaseEvent} when JFR is recording.
+ */
+public final class PhaseTimer implements AutoCloseable {
+
+    private final RequestPhase phase;
+    private final RequestTimings timings;
+    private final RequestPhaseEvent event = new RequestPhaseEvent();
+    private final long startNanos;
+
+    PhaseTimer(RequestPhase phase, RequestTimings timings) {
+        this.phase = phase;
+        this.timings = timings;
+        event.begin();
+        this.startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void close() {
+        long nanos = System.nanoTime() - startNanos;
+        if (timings != null) {
+            timings.add(phase, nanos);
+        }
+        event.end();
+        // False unless a recording has the event enabled and the duration passes its threshold
+        if (event.shouldCommit()) {
+            event.requestId = timings == null ? 0 : timings.requestId();
+            event.phase = phase.getMetricName();
+            event.commit();
+        }
+    }
+}
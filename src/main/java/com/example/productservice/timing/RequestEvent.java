@@ -0,0 +1,28 @@
+package com.example.productservice.timing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.productservice.Request")
+@Label("Request")
+@Category({"Product Service", "Requests"})
+@Description("One HTTP request, from the outermost filter to the end of the response")
+@StackTrace(false)
+class RequestEvent extends Event {
+
+    @Label("Request Id")
+    long requestId;
+
+    @Label("Method")
+    String method;
+
+    @Label("Path")
+    String path;
+
+    @Label("Status")
+    int status;
+}
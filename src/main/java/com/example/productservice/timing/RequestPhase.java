@@ -0,0 +1,27 @@
+package com.example.productservice.timing;
+
+/**
+ * The parts of a request that are timed separately. The name is the metric name used in the
+ * {@code Server-Timing} header and the {@code phase} field of {@link RequestPhaseEvent}.
+ */
+public enum RequestPhase {
+
+    // Bearer token parsing and signature check in JwtAuthenticationFilter
+    JWT("jwt"),
+    // @PreAuthorize checks on controller methods
+    AUTHORIZATION("authz"),
+    // ProductStore calls: Hibernate and the database, or the embedded/sharded store
+    DATABASE("db"),
+    // Jackson writing the response body
+    SERIALIZATION("ser");
+
+    private final String metricName;
+
+    RequestPhase(String metricName) {
+        this.metricName = metricName;
+    }
+
+    public String getMetricName() {
+        return metricName;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.productservice.timing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.productservice.RequestPhase")
+@Label("Request Phase")
+@Category({"Product Service", "Requests"})
+@Description("Time a request spent in one phase: JWT verification, authorization, database or serialization")
+@StackTrace(false)
+class RequestPhaseEvent extends Event {
+
+    @Label("Request Id")
+    @Description("Matches the Request event of the same request; 0 outside a request")
+    long requestId;
+
+    @Label("Phase")
+    String phase;
+}
@@ -0,0 +1,86 @@
+package com.example.productservice.timing;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time spent in each {@link RequestPhase} by the request on the current thread.
+ * <p>
+ * {@link ServerTimingFilter} binds an instance for the duration of each request. Phases timed
+ * outside a request, such as write-behind flushes, still emit JFR events but are not recorded here.
+ */
+public final class RequestTimings {
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+    private static final AtomicLong REQUEST_IDS = new AtomicLong();
+
+    private final long requestId;
+    private final long startNanos;
+    private final long[] phaseNanos = new long[RequestPhase.values().length];
+
+    private RequestTimings(long requestId, long startNanos) {
+        this.requestId = requestId;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Start timing a phase; use in a try-with-resources block around the work.
+     */
+    public static PhaseTimer start(RequestPhase phase) {
+        return new PhaseTimer(phase, CURRENT.get());
+    }
+
+    static RequestTimings bind() {
+        RequestTimings timings = new RequestTimings(REQUEST_IDS.incrementAndGet(), System.nanoTime());
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    long requestId() {
+        return requestId;
+    }
+
+    void add(RequestPhase phase, long nanos) {
+        phaseNanos[phase.ordinal()] += nanos;
+    }
+
+    long phaseNanos(RequestPhase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    /**
+     * Format the phases that ran, plus the total time so far, as a {@code Server-Timing} header value,
+     * e.g. {@code jwt;dur=0.215, db;dur=3.402, ser;dur=0.870, total;dur=5.031}. Durations are in milliseconds.
+     */
+    String toServerTiming() {
+        long totalNanos = System.nanoTime() - startNanos;
+        StringBuilder header = new StringBuilder(96);
+        for (RequestPhase phase : RequestPhase.values()) {
+            long nanos = phaseNanos[phase.ordinal()];
+            if (nanos > 0) {
+                appendMetric(header, phase.getMetricName(), nanos);
+            }
+        }
+        appendMetric(header, "total", totalNanos);
+        return header.toString();
+    }
+
+    private static void appendMetric(StringBuilder header, String name, long nanos) {
+        if (header.length() > 0) {
+            header.append(", ");
+        }
+        long micros = nanos / 1_000;
+        long fraction = micros % 1_000;
+        header.append(name).append(";dur=").append(micros / 1_000).append('.');
+        if (fraction < 100) {
+            header.append('0');
+        }
+        if (fraction < 10) {
+            header.append('0');
+        }
+        header.append(fraction);
+    }
+}
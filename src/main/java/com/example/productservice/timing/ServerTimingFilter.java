@@ -0,0 +1,65 @@
+package com.example.productservice.timing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Outermost filter: binds {@link RequestTimings} to the request thread and emits a {@link RequestEvent}
+ * for the whole request.
+ * <p>
+ * With {@code server-timing.enabled=true} the response body is buffered until the request is done, so that
+ * the {@code Server-Timing} header can report every phase, serialization included. That costs a copy of
+ * each body, so the header is meant for diagnosing slow requests rather than for normal operation. JFR
+ * events cost next to nothing unless a recording is running.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    static final String SERVER_TIMING = "Server-Timing";
+
+    private final boolean headerEnabled;
+
+    public ServerTimingFilter(@Value("${server-timing.enabled:false}") boolean headerEnabled) {
+        this.headerEnabled = headerEnabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestTimings timings = RequestTimings.bind();
+        RequestEvent event = new RequestEvent();
+        event.begin();
+        ContentCachingResponseWrapper buffered = headerEnabled ? new ContentCachingResponseWrapper(response) : null;
+        try {
+            filterChain.doFilter(request, buffered != null ? buffered : response);
+        } finally {
+            RequestTimings.unbind();
+            event.end();
+            if (event.shouldCommit()) {
+                event.requestId = timings.requestId();
+                event.method = request.getMethod();
+                event.path = request.getRequestURI();
+                event.status = response.getStatus();
+                event.commit();
+            }
+            if (buffered != null) {
+                // Nothing has been sent yet unless the chain sent an error, so the header still fits
+                if (!response.isCommitted()) {
+                    response.setHeader(SERVER_TIMING, timings.toServerTiming());
+                }
+                buffered.copyBodyToResponse();
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.productservice.timing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * The JSON converter, timing each response body it writes as the {@link RequestPhase#SERIALIZATION} phase.
+ * When the body is not buffered (Server-Timing header disabled) the time includes writing to the socket.
+ */
+public class TimedJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public TimedJacksonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        try (PhaseTimer ignored = RequestTimings.start(RequestPhase.SERIALIZATION)) {
+            super.writeInternal(object, type, outputMessage);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.productservice.timing;
+
+import com.example.productservice.store.ProductStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+/**
+ * Hooks the database and serialization phases into {@link RequestTimings}. The JWT and authorization
+ * phases are timed in {@code JwtAuthenticationFilter} and {@code MethodSecurityConfig}.
+ */
+@Configuration
+public class TimingConfig {
+
+    // Replaces Spring Boot's default JSON converter
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new TimedJacksonHttpMessageConverter(objectMapper);
+    }
+
+    // Proxies whichever ProductStore is configured, so the database phase covers every store call.
+    // Transaction begin and commit happen around the service method and are not included
+    @Bean
+    public static BeanPostProcessor productStoreTiming() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof ProductStore)) {
+                    return bean;
+                }
+                ProxyFactory factory = new ProxyFactory(bean);
+                factory.addAdvice((MethodInterceptor) invocation -> {
+                    if (invocation.getMethod().getDeclaringClass() != ProductStore.class) {
+                        return invocation.proceed();
+                    }
+                    try (PhaseTimer ignored = RequestTimings.start(RequestPhase.DATABASE)) {
+                        return invocation.proceed();
+                    }
+                });
+                return factory.getProxy();
+            }
+        };
+    }
+}
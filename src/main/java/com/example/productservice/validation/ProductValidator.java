@@ -0,0 +1,126 @@
+package com.example.productservice.validation;
+
+import com.example.productservice.dto.ProductRequest;
+import com.example.productservice.model.Product;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hand-specialized validator for product payloads.
+ * <p>
+ * Mirrors the JSR-303 constraints declared on {@link Product} and {@link ProductRequest}
+ * as plain field checks, so a write is validated in a single pass without reflective
+ * constraint lookup. Error messages are identical to the annotation messages, and
+ * nothing is allocated unless a check fails.
+ */
+@Component
+public class ProductValidator implements Validator {
+
+    public static final String NAME_REQUIRED = "Product name is required";
+    public static final String NAME_TOO_LONG = "Product name must be at most 100 characters";
+    public static final String DESCRIPTION_TOO_LONG = "Description must be at most 255 characters";
+    public static final String PRICE_REQUIRED = "Price is required";
+    public static final String PRICE_NOT_POSITIVE = "Price must be greater than 0";
+    public static final String PRICE_INVALID = "Price must be a valid monetary amount";
+    public static final String STOCK_REQUIRED = "Stock is required";
+    public static final String STOCK_NEGATIVE = "Stock cannot be negative";
+
+    private static final int NAME_MAX = 100;
+    private static final int DESCRIPTION_MAX = 255;
+    private static final int PRICE_INTEGER_DIGITS = 10;
+    private static final int PRICE_FRACTION_DIGITS = 2;
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return Product.class.isAssignableFrom(clazz) || ProductRequest.class.isAssignableFrom(clazz);
+    }
+
+    /**
+     * Spring MVC entry point used by {@code @Valid} on request bodies.
+     */
+    @Override
+    public void validate(Object target, Errors errors) {
+        Map<String, String> violations;
+        if (target instanceof Product) {
+            violations = validate((Product) target);
+        } else {
+            ProductRequest request = (ProductRequest) target;
+            violations = validate(request.getName(), request.getDescription(), request.getPrice(), request.getStock());
+        }
+        if (violations != null) {
+            violations.forEach((field, message) -> errors.rejectValue(field, "Invalid", message));
+        }
+    }
+
+    /**
+     * Validate a product.
+     *
+     * @param product the product to check
+     * @return field-to-message map of violations, or {@code null} if the product is valid
+     */
+    public Map<String, String> validate(Product product) {
+        return validate(product.getName(), product.getDescription(), product.getPrice(), product.getStock());
+    }
+
+    private Map<String, String> validate(String name, String description, BigDecimal price, Integer stock) {
+        Map<String, String> violations = null;
+
+        String nameError = checkName(name);
+        if (nameError != null) {
+            violations = put(violations, "name", nameError);
+        }
+        if (description != null && description.length() > DESCRIPTION_MAX) {
+            violations = put(violations, "description", DESCRIPTION_TOO_LONG);
+        }
+        String priceError = checkPrice(price);
+        if (priceError != null) {
+            violations = put(violations, "price", priceError);
+        }
+        if (stock == null) {
+            violations = put(violations, "stock", STOCK_REQUIRED);
+        } else if (stock < 0) {
+            violations = put(violations, "stock", STOCK_NEGATIVE);
+        }
+        return violations;
+    }
+
+    private static String checkName(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return NAME_REQUIRED;
+        }
+        if (name.length() > NAME_MAX) {
+            return NAME_TOO_LONG;
+        }
+        return null;
+    }
+
+    private static String checkPrice(BigDecimal price) {
+        if (price == null) {
+            return PRICE_REQUIRED;
+        }
+        if (price.signum() <= 0) {
+            return PRICE_NOT_POSITIVE;
+        }
+        // Same digit counting as Hibernate Validator's @Digits implementation
+        BigDecimal stripped = price.stripTrailingZeros();
+        int integerDigits = stripped.precision() - stripped.scale();
+        int fractionDigits = Math.max(stripped.scale(), 0);
+        if (integerDigits > PRICE_INTEGER_DIGITS || fractionDigits > PRICE_FRACTION_DIGITS) {
+            return PRICE_INVALID;
+        }
+        return null;
+    }
+
+    private static Map<String, String> put(Map<String, String> violations, String field, String message) {
+        if (violations == null) {
+            violations = new LinkedHashMap<>(4);
+        }
+        violations.put(field, message);
+        return violations;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.productservice.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long TARGET = 100L;
+    private static final long WINDOW = 1_000L;
+
+    @Test
+    void rejectsBeyondLimitUntilReleased() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(TARGET, 2, 1, 10, 0.5, WINDOW);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        limiter.release(TARGET, 0L);
+        assertEquals(1, limiter.getInFlight());
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void increasesByOneAfterAFullWindowOfFastRequests() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(TARGET, 4, 1, 10, 0.5, WINDOW);
+        for (int i = 0; i < 3; i++) {
+            acquireAndRelease(limiter, TARGET, 0L);
+        }
+        assertEquals(4, limiter.getLimit());
+        acquireAndRelease(limiter, TARGET, 0L);
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void slowRequestsInOneWindowDecreaseOnce() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(TARGET, 100, 1, 100, 0.9, WINDOW);
+        long start = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            acquireAndRelease(limiter, TARGET + 1, start + i);
+        }
+        assertEquals(90, limiter.getLimit());
+
+        acquireAndRelease(limiter, TARGET + 1, start + WINDOW);
+        assertEquals(81, limiter.getLimit());
+    }
+
+    @Test
+    void neverDropsBelowMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(TARGET, 10, 8, 10, 0.5, WINDOW);
+        long start = System.nanoTime();
+        acquireAndRelease(limiter, TARGET + 1, start);
+        acquireAndRelease(limiter, TARGET + 1, start + WINDOW);
+        assertEquals(8, limiter.getLimit());
+    }
+
+    @Test
+    void slowRequestRestartsIncreaseCount() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(TARGET, 2, 1, 10, 0.5, WINDOW);
+        long start = System.nanoTime();
+        acquireAndRelease(limiter, TARGET, start);
+        acquireAndRelease(limiter, TARGET + 1, start);
+        assertEquals(1, limiter.getLimit());
+        acquireAndRelease(limiter, TARGET, start);
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(TARGET, 5, 6, 10, 0.9, WINDOW));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(TARGET, 5, 1, 10, 1.0, WINDOW));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(TARGET, 5, 1, 10, 0.9, -1L));
+    }
+
+    private static void acquireAndRelease(AdaptiveConcurrencyLimiter limiter, long latencyNanos, long nowNanos) {
+        assertTrue(limiter.tryAcquire());
+        limiter.release(latencyNanos, nowNanos);
+    }
+}
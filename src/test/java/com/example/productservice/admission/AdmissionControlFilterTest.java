@@ -0,0 +1,114 @@
+package com.example.productservice.admission;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.servlet.FilterChain;
+import javax.sql.DataSource;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AdmissionControlFilterTest {
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void rejectsWith429OnceUserBurstIsUsed() throws Exception {
+        AdmissionControlFilter filter = filter(true, 2, 10, false, 100);
+        authenticate("alice", "ROLE_USER");
+        assertEquals(200, get(filter, "/api/products/1").getStatus());
+        assertEquals(200, get(filter, "/api/products/1").getStatus());
+        MockHttpServletResponse rejected = get(filter, "/api/products/1");
+        assertEquals(429, rejected.getStatus());
+        assertNotNull(rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(rejected.getContentAsString().contains("Too many requests"));
+    }
+
+    @Test
+    void budgetsArePerPrincipal() throws Exception {
+        AdmissionControlFilter filter = filter(true, 1, 10, false, 100);
+        authenticate("alice", "ROLE_USER");
+        assertEquals(200, get(filter, "/api/products/1").getStatus());
+        assertEquals(429, get(filter, "/api/products/1").getStatus());
+        authenticate("bob", "ROLE_USER");
+        assertEquals(200, get(filter, "/api/products/1").getStatus());
+    }
+
+    @Test
+    void searchesAlsoDrawOnTheSearchBudget() throws Exception {
+        AdmissionControlFilter filter = filter(true, 10, 1, false, 100);
+        authenticate("alice", "ROLE_USER");
+        assertEquals(200, get(filter, "/api/products/search").getStatus());
+        assertEquals(429, get(filter, "/api/products/search").getStatus());
+        assertEquals(200, get(filter, "/api/products/1").getStatus());
+    }
+
+    @Test
+    void unauthenticatedRequestsAreLeftToTheSecurityChain() throws Exception {
+        AdmissionControlFilter filter = filter(true, 1, 1, false, 100);
+        assertEquals(200, get(filter, "/api/products/1").getStatus());
+        assertEquals(200, get(filter, "/api/products/1").getStatus());
+    }
+
+    @Test
+    void pathsOutsideTheApiAreNotFiltered() throws Exception {
+        AdmissionControlFilter filter = filter(true, 1, 1, false, 100);
+        authenticate("alice", "ROLE_USER");
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, get(filter, "/swagger-ui/index.html").getStatus());
+        }
+    }
+
+    @Test
+    void shedsRequestsBeyondTheConcurrencyLimit() throws Exception {
+        AdmissionControlFilter filter = filter(false, 1, 1, true, 1);
+        MockHttpServletResponse inner = new MockHttpServletResponse();
+        FilterChain reentering = (request, response) ->
+                filter.doFilter(request("/api/products/2"), inner, new MockFilterChain());
+        MockHttpServletResponse outer = new MockHttpServletResponse();
+        filter.doFilter(request("/api/products/1"), outer, reentering);
+        assertEquals(200, outer.getStatus());
+        assertEquals(503, inner.getStatus());
+        assertEquals("1", inner.getHeader(HttpHeaders.RETRY_AFTER));
+        // The slot is released once the outer request completes
+        assertEquals(200, get(filter, "/api/products/1").getStatus());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AdmissionControlFilter filter(boolean rateLimit, int userBurst, int searchBurst,
+                                                 boolean loadShedding, int concurrencyLimit) {
+        ObjectProvider<DataSource> dataSources = mock(ObjectProvider.class);
+        when(dataSources.iterator()).thenReturn(Collections.emptyIterator());
+        return new AdmissionControlFilter(dataSources, rateLimit, 0.001, userBurst, 0.001, userBurst,
+                0.001, searchBurst, loadShedding, 60_000L, 1_000L, concurrencyLimit, 1, concurrencyLimit,
+                1.5, 1);
+    }
+
+    private static void authenticate(String name, String role) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                name, null, Collections.singletonList(new SimpleGrantedAuthority(role))));
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        return new MockHttpServletRequest("GET", path);
+    }
+
+    private static MockHttpServletResponse get(AdmissionControlFilter filter, String path) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(path), response, new MockFilterChain());
+        return response;
+    }
+}
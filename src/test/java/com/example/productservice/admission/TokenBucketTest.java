@@ -0,0 +1,38 @@
+package com.example.productservice.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void allowsBurstThenRejects() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0L);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0L, bucket.tryAcquire(0L));
+        }
+        long wait = bucket.tryAcquire(0L);
+        assertTrue(wait > 0);
+        assertTrue(wait <= SECOND / 10);
+    }
+
+    @Test
+    void refillsAtConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(10, 1, 0L);
+        assertEquals(0L, bucket.tryAcquire(0L));
+        assertTrue(bucket.tryAcquire(SECOND / 20) > 0);
+        assertEquals(0L, bucket.tryAcquire(SECOND / 10));
+    }
+
+    @Test
+    void isIdleOnceFullyRefilled() {
+        TokenBucket bucket = new TokenBucket(10, 2, 0L);
+        assertTrue(bucket.isIdle(0L));
+        bucket.tryAcquire(0L);
+        assertFalse(bucket.isIdle(0L));
+        assertTrue(bucket.isIdle(SECOND / 10));
+    }
+}
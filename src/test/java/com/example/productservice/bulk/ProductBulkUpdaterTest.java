@@ -0,0 +1,117 @@
+package com.example.productservice.bulk;
+
+import com.example.productservice.cache.CatalogVersion;
+import com.example.productservice.dto.BulkUpdateResult;
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.BulkMutation;
+import com.example.productservice.repository.ProductFilter;
+import com.example.productservice.stock.StockWriteBehind;
+import com.example.productservice.store.embedded.LogStructuredProductStore;
+import com.example.productservice.suggest.ProductSuggestIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductBulkUpdaterTest {
+
+    @TempDir
+    Path directory;
+
+    private LogStructuredProductStore store;
+    private CatalogVersion catalogVersion;
+    private ProductSuggestIndex suggestIndex;
+    private ProductBulkUpdater updater;
+
+    @BeforeEach
+    void setUp() {
+        store = new LogStructuredProductStore(directory, 1 << 20, false, 0, 0.5);
+        catalogVersion = new CatalogVersion();
+        suggestIndex = new ProductSuggestIndex(10);
+        updater = new ProductBulkUpdater(store, TransactionOperations.withoutTransaction(), catalogVersion,
+                StockWriteBehind.disabled(), suggestIndex, 2);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        store.close();
+    }
+
+    @Test
+    void update_ChunksMatchingProductsAndStreamsUpdatedIds() {
+        Product a = save("Lamp A", "10.00", 5);
+        Product b = save("Lamp B", "20.00", 5);
+        save("Mouse", "30.00", 5);
+        Product c = save("Lamp C", "40.00", 5);
+        long version = catalogVersion.current();
+
+        List<List<Long>> streamed = new ArrayList<>();
+        BulkUpdateResult result = updater.update(ProductFilter.nameContains("lamp"),
+                BulkMutation.of(BulkMutation.Field.PRICE, BulkMutation.Operation.ADD, new BigDecimal("-15.00")),
+                streamed::add);
+
+        // Lamp A would drop to -5.00 and is skipped
+        assertEquals(3, result.getMatched());
+        assertEquals(2, result.getUpdated());
+        assertEquals(1, result.getSkipped());
+        assertEquals(2, result.getChunks());
+        assertEquals(Arrays.asList(Collections.singletonList(b.getId()), Collections.singletonList(c.getId())),
+                streamed);
+        assertEquals(0, new BigDecimal("10.00").compareTo(price(a)));
+        assertEquals(0, new BigDecimal("5.00").compareTo(price(b)));
+        assertEquals(0, new BigDecimal("25.00").compareTo(price(c)));
+        assertEquals(version + 2, catalogVersion.current());
+    }
+
+    @Test
+    void update_StockRefreshesSuggestRanking() {
+        Product laptop = save("Laptop", "10.00", 5);
+        Product lamp = save("Lamp", "10.00", 7);
+        suggestIndex.put(laptop);
+        suggestIndex.put(lamp);
+
+        updater.update(ProductFilter.all().withIds(Arrays.asList(laptop.getId(), 999L)),
+                BulkMutation.of(BulkMutation.Field.STOCK, BulkMutation.Operation.MULTIPLY, new BigDecimal("2")));
+
+        assertEquals(10, store.findById(laptop.getId()).orElseThrow(AssertionError::new).getStock());
+        assertEquals(laptop.getId(), suggestIndex.suggest("la", 2).get(0).getId());
+    }
+
+    @Test
+    void update_WithoutConditions_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> updater.update(ProductFilter.all(),
+                BulkMutation.of(BulkMutation.Field.STOCK, BulkMutation.Operation.SET, BigDecimal.ZERO)));
+    }
+
+    @Test
+    void of_RejectsValuesThatCannotProduceValidResults() {
+        assertThrows(IllegalArgumentException.class,
+                () -> BulkMutation.of(BulkMutation.Field.PRICE, BulkMutation.Operation.MULTIPLY, BigDecimal.ZERO));
+        assertThrows(IllegalArgumentException.class,
+                () -> BulkMutation.of(BulkMutation.Field.STOCK, BulkMutation.Operation.ADD, new BigDecimal("1.5")));
+        assertThrows(IllegalArgumentException.class,
+                () -> BulkMutation.of(BulkMutation.Field.PRICE, BulkMutation.Operation.SET, new BigDecimal("0.00")));
+        assertEquals(0, new BigDecimal("2.50").compareTo(
+                BulkMutation.of(BulkMutation.Field.PRICE, BulkMutation.Operation.MULTIPLY, new BigDecimal("0.25"))
+                        .apply(new BigDecimal("9.99"))));
+    }
+
+    private Product save(String name, String price, int stock) {
+        return store.save(new Product(name, "Description of " + name, new BigDecimal(price), stock));
+    }
+
+    private BigDecimal price(Product product) {
+        return store.findById(product.getId()).orElseThrow(AssertionError::new).getPrice();
+    }
+}
@@ -1,7 +1,24 @@
 package com.example.productservice.controller;
 
+import com.example.productservice.cache.CatalogVersion;
+import com.example.productservice.dto.BulkUpdateResult;
+import com.example.productservice.dto.MerkleNode;
+import com.example.productservice.dto.MerkleNodes;
+import com.example.productservice.dto.ProductChange;
+import com.example.productservice.dto.ProductChanges;
+import com.example.productservice.dto.ProductFieldSet;
+import com.example.productservice.dto.ProductRows;
+import com.example.productservice.dto.ProductSuggestion;
+import com.example.productservice.exception.ChangeFeedUnsupportedException;
+import com.example.productservice.exception.InsufficientStockException;
+import com.example.productservice.exception.InvalidProductException;
+import com.example.productservice.exception.ProductNotFoundException;
+import com.example.productservice.hotkeys.HotKeys;
 import com.example.productservice.model.Product;
+import com.example.productservice.repository.BulkMutation;
+import com.example.productservice.repository.ProductFilter;
 import com.example.productservice.service.ProductService;
+import com.example.productservice.validation.ProductValidator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,14 +26,18 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -24,7 +45,9 @@ import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@WebMvcTest(ProductController.class)
+// The response cache is only on while the change feed is followed
+@WebMvcTest(controllers = ProductController.class, properties = "product.change-feed.enabled=true")
+@Import(CatalogVersion.class)
 class ProductControllerTest {
 
     @Autowired
@@ -33,6 +56,9 @@ class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private HotKeys hotKeys;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -88,11 +114,14 @@ class ProductControllerTest {
     @WithMockUser(authorities = {"ROLE_ADMIN"})
     void createProduct_Invalid_ReturnsBadRequest() throws Exception {
         Product invalidProduct = new Product("", "", null, null);
+        when(productService.createProduct(any(Product.class))).thenAnswer(invocation -> {
+            throw new InvalidProductException(new ProductValidator().validate(invocation.getArgument(0)));
+        });
         mockMvc.perform(post("/api/products")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(invalidProduct)))
                 .andExpect(status().isBadRequest())
-                .andExpect(jsonPath("$.name", notNullValue()));
+                .andExpect(jsonPath("$.name", is(ProductValidator.NAME_REQUIRED)));
     }
 
     @Test
@@ -112,11 +141,14 @@ class ProductControllerTest {
     @WithMockUser(authorities = {"ROLE_ADMIN"})
     void updateProduct_Invalid_ReturnsBadRequest() throws Exception {
         Product invalidProduct = new Product("", "", null, null);
+        when(productService.updateProduct(eq(1L), any(Product.class))).thenAnswer(invocation -> {
+            throw new InvalidProductException(new ProductValidator().validate(invocation.getArgument(1)));
+        });
         mockMvc.perform(put("/api/products/1")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(invalidProduct)))
                 .andExpect(status().isBadRequest())
-                .andExpect(jsonPath("$.name", notNullValue()));
+                .andExpect(jsonPath("$.name", is(ProductValidator.NAME_REQUIRED)));
     }
 
     @Test
@@ -127,6 +159,69 @@ class ProductControllerTest {
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    @WithMockUser(authorities = {"ROLE_ADMIN"})
+    void adjustStock_InsufficientStock_ReturnsConflict() throws Exception {
+        when(productService.adjustStock(1L, -10)).thenThrow(new InsufficientStockException(1L, 5, 10));
+        mockMvc.perform(patch("/api/products/1/stock").param("delta", "-10"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error", containsString("Insufficient stock")));
+    }
+
+    @Test
+    @WithMockUser(authorities = {"ROLE_ADMIN"})
+    void bulkUpdate_ReturnsCounts() throws Exception {
+        when(productService.bulkUpdate(any(ProductFilter.class), any(BulkMutation.class)))
+                .thenReturn(new BulkUpdateResult(3, 2, 1));
+        mockMvc.perform(post("/api/products/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nameContains\":\"lamp\",\"ids\":[1,2,3],"
+                                + "\"field\":\"PRICE\",\"operation\":\"MULTIPLY\",\"value\":1.1}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matched", is(3)))
+                .andExpect(jsonPath("$.updated", is(2)))
+                .andExpect(jsonPath("$.skipped", is(1)))
+                .andExpect(jsonPath("$.ids").doesNotExist());
+        verify(productService).bulkUpdate(
+                argThat(filter -> "lamp".equals(filter.getNameContains()) && filter.getIds().size() == 3),
+                argThat(mutation -> mutation.getOperation() == BulkMutation.Operation.MULTIPLY));
+    }
+
+    @Test
+    @WithMockUser(authorities = {"ROLE_ADMIN"})
+    void bulkUpdate_AcceptingNdjson_StreamsIdsPerChunk() throws Exception {
+        when(productService.bulkUpdate(any(ProductFilter.class), any(BulkMutation.class), any()))
+                .thenAnswer(invocation -> {
+                    Consumer<List<Long>> affected = invocation.getArgument(2);
+                    affected.accept(Arrays.asList(1L, 2L));
+                    affected.accept(Collections.singletonList(5L));
+                    return new BulkUpdateResult(4, 3, 2);
+                });
+        MvcResult started = mockMvc.perform(post("/api/products/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept("application/x-ndjson")
+                        .content("{\"stockLessThan\":5,\"field\":\"STOCK\",\"operation\":\"ADD\",\"value\":10}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(startsWith("{\"ids\":[1,2]}\n{\"ids\":[5]}\n{")))
+                .andExpect(content().string(containsString("\"updated\":3")))
+                .andExpect(content().string(endsWith("}\n")));
+    }
+
+    @Test
+    @WithMockUser(authorities = {"ROLE_ADMIN"})
+    void bulkUpdate_FractionalStock_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/products/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"stockLessThan\":5,\"field\":\"STOCK\",\"operation\":\"ADD\",\"value\":1.5}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", containsString("whole number")));
+        verify(productService, never()).bulkUpdate(any(), any());
+    }
+
     @Test
     @WithMockUser(authorities = {"ROLE_ADMIN"})
     void deleteProduct_NotFound_ReturnsBadRequest() throws Exception {
@@ -136,6 +231,78 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.error", containsString("Product not found")));
     }
 
+    @Test
+    @WithMockUser(authorities = {"ROLE_ADMIN"})
+    void deleteProduct_UnknownId_ReturnsNotFound() throws Exception {
+        doThrow(new ProductNotFoundException(3L)).when(productService).deleteProduct(3L);
+        mockMvc.perform(delete("/api/products/3"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error", is("Product not found with id: 3")));
+    }
+
+    @Test
+    @WithMockUser(authorities = {"ROLE_USER"})
+    void suggestProducts_ReturnsRankedSuggestions() throws Exception {
+        when(productService.suggestProducts("te", 5)).thenReturn(Arrays.asList(
+                new ProductSuggestion(1L, "Test Product", 5), new ProductSuggestion(2L, "Tent", 2)));
+        mockMvc.perform(get("/api/products/suggest").param("prefix", "te").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].name", is("Test Product")))
+                .andExpect(jsonPath("$[1].stock", is(2)));
+    }
+
+    @Test
+    @WithMockUser(authorities = {"ROLE_USER"})
+    void getChanges_ReturnsChangesAndCursor() throws Exception {
+        product.setModSeq(7L);
+        when(productService.getChangesSince(5L, 2)).thenReturn(new ProductChanges(
+                Arrays.asList(ProductChange.written(product), ProductChange.deleted(8L, 2L)), 8L, true));
+        mockMvc.perform(get("/api/products/changes").param("since", "5").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes", hasSize(2)))
+                .andExpect(jsonPath("$.changes[0].seq", is(7)))
+                .andExpect(jsonPath("$.changes[0].product.name", is("Test Product")))
+                .andExpect(jsonPath("$.changes[0].product.modSeq").doesNotExist())
+                .andExpect(jsonPath("$.changes[1].deleted", is(true)))
+                .andExpect(jsonPath("$.changes[1].id", is(2)))
+                .andExpect(jsonPath("$.nextSince", is(8)))
+                .andExpect(jsonPath("$.hasMore", is(true)));
+    }
+
+    @Test
+    @WithMockUser(authorities = {"ROLE_USER"})
+    void getChanges_WithoutChangeLog_Returns501() throws Exception {
+        when(productService.getChangesSince(0L, 500))
+                .thenThrow(new ChangeFeedUnsupportedException("ShardedProductStore does not keep a change log"));
+        mockMvc.perform(get("/api/products/changes"))
+                .andExpect(status().isNotImplemented());
+    }
+
+    @Test
+    @WithMockUser(authorities = {"ROLE_USER"})
+    void getMerkleNodes_ReturnsShapeAndHashes() throws Exception {
+        when(productService.getMerkleNodes(1, 0, 2)).thenReturn(new MerkleNodes(256, 3, 1, Arrays.asList(
+                new MerkleNode(0, 0, 1023, "00000000000000ff"), new MerkleNode(1, 1024, 2047, "0123456789abcdef"))));
+        mockMvc.perform(get("/api/products/merkle").param("level", "1").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.leafWidth", is(256)))
+                .andExpect(jsonPath("$.depth", is(3)))
+                .andExpect(jsonPath("$.nodes", hasSize(2)))
+                .andExpect(jsonPath("$.nodes[1].fromId", is(1024)))
+                .andExpect(jsonPath("$.nodes[1].hash", is("0123456789abcdef")));
+    }
+
+    @Test
+    @WithMockUser(authorities = {"ROLE_USER"})
+    void getProductRange_TooWide_ReturnsBadRequest() throws Exception {
+        when(productService.getProductRange(0L, 100000L))
+                .thenThrow(new IllegalArgumentException("Id range may span at most 4096 ids; compare child nodes first"));
+        mockMvc.perform(get("/api/products/merkle/products").param("fromId", "0").param("toId", "100000"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", containsString("at most 4096 ids")));
+    }
+
     @Test
     @WithMockUser(authorities = {"ROLE_USER"})
     void searchProductsByName_ReturnsList() throws Exception {
@@ -147,6 +314,47 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$[0].name", is(product.getName())));
     }
 
+    @Test
+    @WithMockUser(authorities = {"ROLE_USER"})
+    void searchProductsByName_AnsweredFromCache_IsStillCounted() throws Exception {
+        when(hotKeys.isEnabled()).thenReturn(true);
+        when(productService.searchProductsByName("Lamp")).thenReturn(Arrays.asList(product));
+        String etag = mockMvc.perform(get("/api/products/search").param("name", "Lamp"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/products/search").param("name", "Lamp"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/products/search").param("name", "Lamp").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        verify(productService, times(1)).searchProductsByName("Lamp");
+        verify(hotKeys, times(3)).recordSearch("Lamp");
+    }
+
+    @Test
+    @WithMockUser(authorities = {"ROLE_USER"})
+    void searchProductsByName_WithFields_ReturnsOnlySelectedFields() throws Exception {
+        ProductFieldSet fields = ProductFieldSet.parse("id,name,price");
+        List<Object[]> rows = Collections.singletonList(new Object[]{1L, "Test Product", new BigDecimal("10.00")});
+        when(productService.searchProductFields("Test", fields)).thenReturn(new ProductRows(fields, rows));
+        mockMvc.perform(get("/api/products/search").param("name", "Test").param("fields", "name,price,id"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[0].name", is("Test Product")))
+                .andExpect(jsonPath("$[0].price", is(10.00)))
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andExpect(jsonPath("$[0].stock").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(authorities = {"ROLE_USER"})
+    void getAllProducts_UnknownField_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/products").param("fields", "id,secret"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", containsString("secret")));
+    }
+
     @Test
     @WithMockUser(authorities = {"ROLE_USER"})
     void findProductsByPriceGreaterThanEqual_ReturnsList() throws Exception {
@@ -182,6 +390,25 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$[0].price", is(10.00)));
     }
 
+    @Test
+    @WithMockUser(authorities = {"ROLE_USER"})
+    void findProductsByPriceBetween_MatchingETag_ReturnsNotModified() throws Exception {
+        when(productService.findProductsByPriceBetween(new BigDecimal("1.00"), new BigDecimal("2.00")))
+                .thenReturn(Arrays.asList(product));
+        String etag = mockMvc.perform(get("/api/products/price/range")
+                        .param("minPrice", "1.00")
+                        .param("maxPrice", "2.00"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/products/price/range")
+                        .param("maxPrice", "2.00")
+                        .param("minPrice", "1.00")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        verify(productService, times(1)).findProductsByPriceBetween(any(BigDecimal.class), any(BigDecimal.class));
+    }
+
     @Test
     @WithMockUser(authorities = {"ROLE_USER"})
     void findProductsByNameAndStockGreaterThan_ReturnsList() throws Exception {
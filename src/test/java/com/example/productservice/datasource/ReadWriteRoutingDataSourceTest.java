@@ -0,0 +1,102 @@
+package com.example.productservice.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+    private ReplicaLagMonitor lagMonitor;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readTx;
+    private TransactionTemplate writeTx;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        setUpRouting(null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        lagMonitor.close();
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    void readOnlyTransaction_GoesToReplica() {
+        assertEquals("replica", readTx.execute(status -> whereAmI()));
+    }
+
+    @Test
+    void writeTransaction_GoesToPrimary() {
+        assertEquals("primary", writeTx.execute(status -> whereAmI()));
+    }
+
+    @Test
+    void readAfterWriteBySamePrincipal_StaysOnPrimary() {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("alice", null));
+        writeTx.execute(status -> whereAmI());
+        assertEquals("primary", readTx.execute(status -> whereAmI()));
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("bob", null));
+        assertEquals("replica", readTx.execute(status -> whereAmI()));
+    }
+
+    @Test
+    void laggingReplica_IsSkipped() {
+        lagMonitor.close();
+        setUpRouting("SELECT 60000");
+        lagMonitor.checkReplicas();
+        assertEquals("primary", readTx.execute(status -> whereAmI()));
+    }
+
+    private void setUpRouting(String lagQuery) {
+        Map<String, DataSource> replicas = Collections.singletonMap("replica-0", replica);
+        lagMonitor = new ReplicaLagMonitor(replicas, lagQuery, 5000, 0);
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replicas, lagMonitor,
+                new ReadYourWritesTracker(TimeUnit.SECONDS.toNanos(30)));
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readTx = new TransactionTemplate(transactionManager);
+        readTx.setReadOnly(true);
+        writeTx = new TransactionTemplate(transactionManager);
+    }
+
+    private String whereAmI() {
+        return jdbcTemplate.queryForObject("SELECT NAME FROM MARKER", String.class);
+    }
+
+    private static EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName(name)
+                .generateUniqueName(true)
+                .build();
+        new JdbcTemplate(database).execute("CREATE TABLE MARKER (NAME VARCHAR(20))");
+        new JdbcTemplate(database).update("INSERT INTO MARKER VALUES (?)", name);
+        return database;
+    }
+}
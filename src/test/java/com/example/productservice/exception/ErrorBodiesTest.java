@@ -0,0 +1,54 @@
+package com.example.productservice.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ErrorBodiesTest {
+
+    @Test
+    void encodesMessageAsErrorObject() {
+        assertEquals("{\"error\":\"Product not found\"}", text(ErrorBodies.encode("Product not found")));
+    }
+
+    @Test
+    void encodesNullMessageAsJsonNull() {
+        assertEquals("{\"error\":null}", text(ErrorBodies.encode(null)));
+    }
+
+    @Test
+    void escapesQuotesBackslashesAndControlCharacters() {
+        assertEquals("{\"error\":\"say \\\"hi\\\" \\\\ a\\nb\\tc\\u0001\"}",
+                text(ErrorBodies.encode("say \"hi\" \\ a\nb\tc\u0001")));
+    }
+
+    @Test
+    void keepsNonAsciiAsUtf8() {
+        assertEquals("{\"error\":\"Crème brûlée\"}", text(ErrorBodies.encode("Crème brûlée")));
+    }
+
+    @Test
+    void responseIsJsonWithStatus() {
+        ResponseEntity<Object> response = ErrorBodies.response(HttpStatus.NOT_FOUND, "missing");
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals("{\"error\":\"missing\"}", text((byte[]) response.getBody()));
+    }
+
+    @Test
+    void retryAfterResponseSetsHeaderWithoutTouchingSharedHeaders() {
+        ResponseEntity<Object> response = ErrorBodies.response(HttpStatus.SERVICE_UNAVAILABLE, "busy", 3);
+        assertEquals("3", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertNull(ErrorBodies.response(HttpStatus.NOT_FOUND, "missing").getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    private static String text(byte[] body) {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.productservice.feed;
+
+import com.example.productservice.dto.ProductChange;
+import com.example.productservice.dto.ProductChanges;
+import com.example.productservice.model.Product;
+import com.example.productservice.stock.StockWriteBehind;
+import com.example.productservice.store.ProductStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ChangeFeedFollowerTest {
+
+    private static final long REBUILD_NANOS = TimeUnit.MILLISECONDS.toNanos(60_000);
+
+    private ProductStore productStore;
+    private RecordingListener listener;
+    private ChangeFeedFollower follower;
+
+    @BeforeEach
+    void setUp() {
+        productStore = mock(ProductStore.class);
+        listener = new RecordingListener();
+        follower = new ChangeFeedFollower(productStore, TransactionOperations.withoutTransaction(),
+                StockWriteBehind.disabled(), Collections.singletonList(listener), 1000, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        follower.close();
+    }
+
+    @Test
+    void follow_LoadsSnapshotThenDeliversLaterChanges() {
+        when(productStore.currentChangeSeq()).thenReturn(5L);
+        when(productStore.findAll()).thenReturn(Collections.singletonList(product(1L, 4L)));
+        when(productStore.findChangesSince(5L, ChangeFeedFollower.PAGE_SIZE)).thenReturn(new ProductChanges(
+                Arrays.asList(ProductChange.written(product(2L, 6L)), ProductChange.deleted(7L, 1L)), 7L, false));
+        when(productStore.findChangesSince(7L, ChangeFeedFollower.PAGE_SIZE))
+                .thenReturn(new ProductChanges(Collections.emptyList(), 7L, false));
+
+        follower.follow(0);
+        assertEquals(Collections.singletonList("reload [1]"), listener.calls);
+        follower.follow(1);
+
+        assertEquals(Arrays.asList("reload [1]", "apply [written 2, deleted 1]"), listener.calls);
+    }
+
+    @Test
+    void follow_ReadsEveryPage() {
+        when(productStore.findAll()).thenReturn(Collections.emptyList());
+        when(productStore.findChangesSince(0L, ChangeFeedFollower.PAGE_SIZE)).thenReturn(new ProductChanges(
+                Collections.singletonList(ProductChange.written(product(1L, 1L))), 1L, true));
+        when(productStore.findChangesSince(1L, ChangeFeedFollower.PAGE_SIZE)).thenReturn(new ProductChanges(
+                Collections.singletonList(ProductChange.written(product(2L, 2L))), 2L, false));
+
+        follower.follow(0);
+
+        assertEquals(Arrays.asList("reload []", "apply [written 1]", "apply [written 2]"), listener.calls);
+    }
+
+    @Test
+    void follow_RebuildsOnceTheIntervalHasPassed() {
+        when(productStore.currentChangeSeq()).thenReturn(0L, 9L);
+        when(productStore.findAll()).thenReturn(Collections.emptyList(),
+                Collections.singletonList(product(3L, 9L)));
+        when(productStore.findChangesSince(anyLong(), anyInt())).thenAnswer(invocation ->
+                new ProductChanges(Collections.emptyList(), invocation.getArgument(0), false));
+
+        follower.follow(0);
+        follower.follow(REBUILD_NANOS - 1);
+        follower.follow(REBUILD_NANOS);
+
+        assertEquals(Arrays.asList("reload []", "reload [3]"), listener.calls);
+        verify(productStore).findChangesSince(9L, ChangeFeedFollower.PAGE_SIZE);
+    }
+
+    private static Product product(long id, long modSeq) {
+        Product product = new Product("Product " + id, "Description", new BigDecimal("10.00"), 5);
+        product.setId(id);
+        product.setModSeq(modSeq);
+        return product;
+    }
+
+    private static final class RecordingListener implements ChangeFeedListener {
+        private final List<String> calls = new ArrayList<>();
+
+        @Override
+        public void reload(List<Product> products) {
+            calls.add("reload " + products.stream().map(Product::getId).collect(Collectors.toList()));
+        }
+
+        @Override
+        public void apply(List<ProductChange> changes) {
+            calls.add("apply " + changes.stream()
+                    .map(change -> (change.isDeleted() ? "deleted " : "written ") + change.getId())
+                    .collect(Collectors.toList()));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.productservice.hotkeys;
+
+import com.example.productservice.dto.HotKey;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotKeyTrackerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void top_FindsHeavyHittersAmongManyColdKeys() {
+        HotKeyTracker<Long> tracker = new HotKeyTracker<>(4, 1024, 3, CountMinSketch::hashLong);
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            int roll = random.nextInt(10);
+            // 7, 8 and 9 take 50%, 20% and 10% of the traffic; the rest is spread over 100k ids
+            long key = roll < 5 ? 7L : roll < 7 ? 8L : roll < 8 ? 9L : 1000L + random.nextInt(100_000);
+            tracker.record(key);
+        }
+
+        List<HotKey<Long>> top = tracker.top(3);
+        assertEquals(Arrays.asList(7L, 8L, 9L), keys(top));
+        // Estimates never undercount and stay close for heavy hitters
+        assertTrue(top.get(0).getCount() >= 50_000 * 0.98 && top.get(0).getCount() <= 50_000 * 1.05);
+        assertEquals(2, tracker.top(2).size());
+    }
+
+    @Test
+    void decay_HalvesCountsAndLetsNewKeysTakeOver() {
+        HotKeyTracker<String> tracker = new HotKeyTracker<>(4, 256, 2, CountMinSketch::hashChars);
+        tracker.add("old", 100);
+        tracker.add("older", 50);
+        tracker.decay();
+        assertEquals(50, tracker.top(2).get(0).getCount());
+        assertEquals(25, tracker.top(2).get(1).getCount());
+
+        tracker.add("new", 60);
+        assertEquals(Arrays.asList("new", "old"), keys(tracker.top(2)));
+        for (int i = 0; i < 6; i++) {
+            tracker.decay();
+        }
+        assertTrue(tracker.top(2).isEmpty());
+    }
+
+    @Test
+    void add_KeysWithEqualHashCodes_AreCountedApart() {
+        // "Aa" and "BB" share String.hashCode, as do 0 and 2^32 + 1 for Long
+        HotKeyTracker<String> terms = new HotKeyTracker<>(4, 256, 2, CountMinSketch::hashChars);
+        terms.add("Aa", 100);
+        terms.add("BB", 1);
+        assertEquals(Arrays.asList(100L, 1L), counts(terms.top(2)));
+
+        HotKeyTracker<Long> ids = new HotKeyTracker<>(4, 256, 2, CountMinSketch::hashLong);
+        ids.add(0L, 100);
+        ids.add((1L << 32) + 1, 1);
+        assertEquals(Arrays.asList(100L, 1L), counts(ids.top(2)));
+    }
+
+    @Test
+    void snapshot_RestoresRankingAfterRestart() {
+        Path file = directory.resolve("hot-keys.txt");
+        HotKeys hotKeys = new HotKeys(4, 256, 10, 0, file);
+        for (int i = 0; i < 5; i++) {
+            hotKeys.recordProduct(42L);
+            hotKeys.recordSearch("  Desk Lamp ");
+        }
+        hotKeys.recordProduct(7L);
+        hotKeys.recordSearch("DESK lamp");
+        hotKeys.close();
+
+        HotKeys restored = new HotKeys(4, 256, 10, 0, file);
+        assertEquals(Arrays.asList(42L, 7L), keys(restored.report(10).getProducts()));
+        assertEquals(5, restored.report(10).getProducts().get(0).getCount());
+        assertEquals(Arrays.asList("desk lamp"), keys(restored.report(10).getSearches()));
+        assertEquals(6, restored.report(10).getSearches().get(0).getCount());
+        restored.close();
+    }
+
+    @Test
+    void disabled_TracksNothing() {
+        HotKeys hotKeys = HotKeys.disabled();
+        hotKeys.recordProduct(1L);
+        hotKeys.recordSearch("lamp");
+        assertTrue(hotKeys.report(10).getProducts().isEmpty());
+        assertTrue(hotKeys.report(10).getSearches().isEmpty());
+    }
+
+    private static <K> List<Long> counts(List<HotKey<K>> hotKeys) {
+        return hotKeys.stream().map(HotKey::getCount).collect(Collectors.toList());
+    }
+
+    private static <K> List<K> keys(List<HotKey<K>> hotKeys) {
+        return hotKeys.stream().map(HotKey::getKey).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.productservice.loadtest;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Boot configuration used by the load harness to start the whole service in-process.
+ * Lives outside the packages of the other tests so test slices never pick it up.
+ */
+@SpringBootApplication(scanBasePackages = "com.example.productservice")
+@EntityScan("com.example.productservice.model")
+@EnableJpaRepositories("com.example.productservice.repository")
+public class LoadTestApplication {
+}
@@ -0,0 +1,132 @@
+package com.example.productservice.loadtest;
+
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.ProductRepository;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end load test: boots the service on an embedded database, seeds products, mints JWTs
+ * with {@code jwt.secret} and drives an open-loop mixed workload at a target rate.
+ * <p>
+ * Settings are system properties:
+ * <ul>
+ *     <li>{@code loadtest.products} - products to seed (default 10000)</li>
+ *     <li>{@code loadtest.rate} - target requests per second (default 500)</li>
+ *     <li>{@code loadtest.duration} - measured seconds (default 60)</li>
+ *     <li>{@code loadtest.warmup} - unmeasured warm-up seconds (default 10)</li>
+ *     <li>{@code loadtest.mix} - weighted request mix (default {@code read:60,search:20,range:10,write:10})</li>
+ *     <li>{@code loadtest.label} - name of the run, e.g. the commit id (default {@code local})</li>
+ *     <li>{@code loadtest.report} - JSON report path (default {@code target/loadtest/<label>.json})</li>
+ * </ul>
+ * Compare two reports with {@code LoadTestHarness --compare baseline.json candidate.json}.
+ */
+public final class LoadTestHarness {
+
+    private LoadTestHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 3 && "--compare".equals(args[0])) {
+            LoadTestReport.compare(LoadTestReport.read(new File(args[1])), LoadTestReport.read(new File(args[2])),
+                    System.out);
+            return;
+        }
+
+        long products = Long.getLong("loadtest.products", 10_000L);
+        double rate = Double.parseDouble(System.getProperty("loadtest.rate", "500"));
+        long durationSeconds = Long.getLong("loadtest.duration", 60L);
+        long warmupSeconds = Long.getLong("loadtest.warmup", 10L);
+        String mix = System.getProperty("loadtest.mix", "read:60,search:20,range:10,write:10");
+        String label = System.getProperty("loadtest.label", "local");
+        File reportFile = new File(System.getProperty("loadtest.report", "target/loadtest/" + label + ".json"));
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LoadTestApplication.class)
+                .profiles("loadtest")
+                .properties("server.port=0")
+                .run(args)) {
+            seed(context.getBean(ProductRepository.class), products);
+
+            Environment environment = context.getEnvironment();
+            String secret = environment.getRequiredProperty("jwt.secret");
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            Workload workload = new Workload("http://localhost:" + port, token("loadtest-user", "ROLE_USER", secret),
+                    token("loadtest-admin", "ROLE_ADMIN", secret), products, mix, Duration.ofSeconds(10));
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors())))
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            if (warmupSeconds > 0) {
+                System.out.printf("Warming up for %d s at %.0f req/s%n", warmupSeconds, rate);
+                new OpenLoopDriver(client, workload, rate).run(TimeUnit.SECONDS.toMillis(warmupSeconds), 5_000L);
+            }
+
+            System.out.printf("Measuring for %d s at %.0f req/s%n", durationSeconds, rate);
+            OpenLoopDriver driver = new OpenLoopDriver(client, workload, rate);
+            long elapsedNanos = driver.run(TimeUnit.SECONDS.toMillis(durationSeconds), 30_000L);
+
+            LoadTestReport report = new LoadTestReport();
+            report.setLabel(label);
+            report.setTargetRate(rate);
+            report.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            report.setAchievedRate(driver.overall().count() * 1_000_000_000.0 / elapsedNanos);
+            report.setSeededProducts(products);
+            report.setMix(mix);
+            String[] kinds = workload.kinds();
+            for (int i = 0; i < kinds.length; i++) {
+                report.getOperations().put(kinds[i], LoadTestReport.Stats.of(driver.histogram(i), driver.errors(i)));
+            }
+            long overallErrors = report.getOperations().values().stream().mapToLong(LoadTestReport.Stats::getErrors).sum();
+            report.getOperations().put("all", LoadTestReport.Stats.of(driver.overall(), overallErrors));
+            if (driver.outstanding() > 0) {
+                System.out.printf("Warning: %d requests still outstanding after drain%n", driver.outstanding());
+            }
+
+            report.print(System.out);
+            report.write(reportFile);
+            System.out.println("Report written to " + reportFile.getPath());
+        }
+    }
+
+    private static void seed(ProductRepository repository, long count) {
+        long started = System.nanoTime();
+        List<Product> batch = new ArrayList<>(1_000);
+        for (long i = 1; i <= count; i++) {
+            String term = Workload.SEARCH_TERMS[(int) (i % Workload.SEARCH_TERMS.length)];
+            batch.add(new Product(term + " product " + i, "Seeded by load test",
+                    BigDecimal.valueOf(100 + (i * 7919) % 90_000, 2), (int) (i % 1_000)));
+            if (batch.size() == 1_000) {
+                repository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        repository.saveAll(batch);
+        System.out.printf("Seeded %d products in %d ms%n", count,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private static String token(String subject, String role, String secret) {
+        return Jwts.builder()
+                .setSubject(subject)
+                .claim("role", role)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(12)))
+                .signWith(SignatureAlgorithm.HS256, secret)
+                .compact();
+    }
+}
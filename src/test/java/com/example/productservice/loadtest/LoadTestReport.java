@@ -0,0 +1,209 @@
+package com.example.productservice.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Throughput and latency summary of one load test run.
+ * <p>
+ * Written as JSON so runs from different commits can be compared with {@link #compare}.
+ * Latencies are in microseconds.
+ */
+public class LoadTestReport {
+
+    private String label;
+    private double targetRate;
+    private double achievedRate;
+    private long durationMillis;
+    private long seededProducts;
+    private String mix;
+    private Map<String, Stats> operations = new LinkedHashMap<>();
+
+    public static class Stats {
+        private long count;
+        private long errors;
+        private long p50;
+        private long p90;
+        private long p99;
+        private long p999;
+        private long max;
+
+        static Stats of(LatencyHistogram histogram, long errors) {
+            Stats stats = new Stats();
+            stats.count = histogram.count();
+            stats.errors = errors;
+            stats.p50 = histogram.percentile(50);
+            stats.p90 = histogram.percentile(90);
+            stats.p99 = histogram.percentile(99);
+            stats.p999 = histogram.percentile(99.9);
+            stats.max = histogram.max();
+            return stats;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public void setErrors(long errors) {
+            this.errors = errors;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public void setP50(long p50) {
+            this.p50 = p50;
+        }
+
+        public long getP90() {
+            return p90;
+        }
+
+        public void setP90(long p90) {
+            this.p90 = p90;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+
+        public void setP99(long p99) {
+            this.p99 = p99;
+        }
+
+        public long getP999() {
+            return p999;
+        }
+
+        public void setP999(long p999) {
+            this.p999 = p999;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public void setMax(long max) {
+            this.max = max;
+        }
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    public double getTargetRate() {
+        return targetRate;
+    }
+
+    public void setTargetRate(double targetRate) {
+        this.targetRate = targetRate;
+    }
+
+    public double getAchievedRate() {
+        return achievedRate;
+    }
+
+    public void setAchievedRate(double achievedRate) {
+        this.achievedRate = achievedRate;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public long getSeededProducts() {
+        return seededProducts;
+    }
+
+    public void setSeededProducts(long seededProducts) {
+        this.seededProducts = seededProducts;
+    }
+
+    public String getMix() {
+        return mix;
+    }
+
+    public void setMix(String mix) {
+        this.mix = mix;
+    }
+
+    public Map<String, Stats> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(Map<String, Stats> operations) {
+        this.operations = operations;
+    }
+
+    void write(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, this);
+    }
+
+    static LoadTestReport read(File file) throws IOException {
+        return new ObjectMapper().readValue(file, LoadTestReport.class);
+    }
+
+    void print(PrintStream out) {
+        out.printf("%n== Load test '%s' ==%n", label);
+        out.printf("target %.0f req/s, achieved %.1f req/s over %d ms, %d products, mix %s%n",
+                targetRate, achievedRate, durationMillis, seededProducts, mix);
+        out.printf("%-10s %10s %8s %10s %10s %10s %10s %10s%n",
+                "operation", "count", "errors", "p50(us)", "p90(us)", "p99(us)", "p99.9(us)", "max(us)");
+        operations.forEach((name, s) -> out.printf("%-10s %10d %8d %10d %10d %10d %10d %10d%n",
+                name, s.count, s.errors, s.p50, s.p90, s.p99, s.p999, s.max));
+    }
+
+    /**
+     * Print the relative change of throughput and latency percentiles from a baseline run.
+     */
+    static void compare(LoadTestReport baseline, LoadTestReport candidate, PrintStream out) {
+        out.printf("%n== %s -> %s ==%n", baseline.label, candidate.label);
+        out.printf("achieved rate: %.1f -> %.1f req/s (%s)%n", baseline.achievedRate, candidate.achievedRate,
+                delta(baseline.achievedRate, candidate.achievedRate));
+        out.printf("%-10s %12s %12s %12s %14s%n", "operation", "p50", "p99", "p99.9", "errors");
+        candidate.operations.forEach((name, c) -> {
+            Stats b = baseline.operations.get(name);
+            if (b == null) {
+                out.printf("%-10s (not in baseline)%n", name);
+                return;
+            }
+            out.printf("%-10s %12s %12s %12s %6d -> %-6d%n", name,
+                    delta(b.p50, c.p50), delta(b.p99, c.p99), delta(b.p999, c.p999), b.errors, c.errors);
+        });
+    }
+
+    private static String delta(double before, double after) {
+        if (before == 0) {
+            return after == 0 ? "+0.0%" : "n/a";
+        }
+        return String.format("%+.1f%%", (after - before) * 100.0 / before);
+    }
+}
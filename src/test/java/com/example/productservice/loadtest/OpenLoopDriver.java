@@ -0,0 +1,102 @@
+package com.example.productservice.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator: requests are issued on a fixed schedule at the target rate whether
+ * or not earlier requests have completed.
+ * <p>
+ * Latency is measured from each request's intended start time rather than the moment it was
+ * actually sent, so a stalled server shows up in the percentiles instead of silently lowering
+ * the offered load (coordinated omission).
+ */
+class OpenLoopDriver {
+
+    private final HttpClient client;
+    private final Workload workload;
+    private final double targetRate;
+
+    private final LatencyHistogram[] histograms;
+    private final LongAdder[] errors;
+    private final LatencyHistogram overall = new LatencyHistogram();
+    private final AtomicLong outstanding = new AtomicLong();
+
+    OpenLoopDriver(HttpClient client, Workload workload, double targetRate) {
+        this.client = client;
+        this.workload = workload;
+        this.targetRate = targetRate;
+        int kinds = workload.kinds().length;
+        this.histograms = new LatencyHistogram[kinds];
+        this.errors = new LongAdder[kinds];
+        for (int i = 0; i < kinds; i++) {
+            histograms[i] = new LatencyHistogram();
+            errors[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Drive load for the given duration, then wait up to {@code drainMillis} for in-flight requests.
+     *
+     * @return the elapsed wall-clock time of the measured phase in nanoseconds
+     */
+    long run(long durationMillis, long drainMillis) {
+        long intervalNanos = (long) (1_000_000_000L / targetRate);
+        long start = System.nanoTime();
+        long end = start + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        long sequence = 0;
+        while (true) {
+            long intended = start + sequence * intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(workload.nextKind(), intended);
+            sequence++;
+        }
+        long drainDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainMillis);
+        while (outstanding.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void send(int kind, long intendedNanos) {
+        HttpRequest request = workload.request(kind);
+        outstanding.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedNanos);
+                    histograms[kind].record(micros);
+                    overall.record(micros);
+                    if (failure != null || response.statusCode() >= 400) {
+                        errors[kind].increment();
+                    }
+                    outstanding.decrementAndGet();
+                });
+    }
+
+    LatencyHistogram histogram(int kind) {
+        return histograms[kind];
+    }
+
+    long errors(int kind) {
+        return errors[kind].sum();
+    }
+
+    LatencyHistogram overall() {
+        return overall;
+    }
+
+    long outstanding() {
+        return outstanding.get();
+    }
+}
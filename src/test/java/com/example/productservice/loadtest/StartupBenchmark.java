@@ -0,0 +1,267 @@
+package com.example.productservice.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Startup benchmark: starts the service in fresh JVMs and measures the time from process launch to
+ * the first successful API request ({@code GET /api/products} with a user JWT).
+ * <p>
+ * Each configuration runs against an embedded H2 database, {@code startup.runs} times (default 5):
+ * <ul>
+ *     <li>{@code baseline} - default settings, {@code ddl-auto=update}</li>
+ *     <li>{@code fast-startup} - the {@code fast-startup} profile</li>
+ *     <li>{@code fast-startup+cds} - the same with the AppCDS archive, when it exists</li>
+ * </ul>
+ * {@code StartupBenchmark --train} builds the archive: it packages classpath directories into jars
+ * (CDS only archives classes loaded from jars), records the classes loaded up to the first
+ * successful request, and dumps them with {@code -Xshare:dump} to {@code target/startup/app.jsa}.
+ * Run it after each build that changes dependencies; a stale archive is ignored by the JVM.
+ * <p>
+ * Other settings: {@code startup.label}, {@code startup.report} (default
+ * {@code target/startup/<label>.json}), {@code startup.jvm-args} (extra flags for every child JVM)
+ * and {@code startup.timeout} (seconds per start, default 120).
+ */
+public final class StartupBenchmark {
+
+    private static final Path WORK_DIR = Paths.get("target", "startup");
+    private static final Path ARCHIVE = WORK_DIR.resolve("app.jsa");
+    private static final String SECRET = Base64.getEncoder()
+            .encodeToString("startup-benchmark-signing-key-not-for-production-use".getBytes(StandardCharsets.UTF_8));
+    // The fast-startup profile skips schema updates, so the tables must already exist
+    private static final String DATABASE_URL = "jdbc:h2:mem:startup;DB_CLOSE_DELAY=-1;INIT=CREATE TABLE IF NOT EXISTS "
+            + "PRODUCTS (ID BIGINT AUTO_INCREMENT PRIMARY KEY, NAME VARCHAR(100) NOT NULL, DESCRIPTION VARCHAR(255), "
+            + "PRICE DECIMAL(12,2) NOT NULL, STOCK INT NOT NULL, MOD_SEQ BIGINT)\\;"
+            + "CREATE TABLE IF NOT EXISTS PRODUCT_TOMBSTONES (PRODUCT_ID BIGINT PRIMARY KEY, MOD_SEQ BIGINT NOT NULL)\\;"
+            + "CREATE TABLE IF NOT EXISTS PRODUCT_CHANGE_SEQ (NAME VARCHAR(30) PRIMARY KEY, LAST_SEQ BIGINT NOT NULL)";
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && "--serve".equals(args[0])) {
+            serve(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        Files.createDirectories(WORK_DIR);
+        String classpath = jarClasspath();
+        if (args.length > 0 && "--train".equals(args[0])) {
+            train(classpath);
+            return;
+        }
+
+        int runs = Integer.getInteger("startup.runs", 5);
+        String label = System.getProperty("startup.label", "local");
+        File reportFile = new File(System.getProperty("startup.report", WORK_DIR.resolve(label + ".json").toString()));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", label);
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("baseline", measure("baseline", classpath, "loadtest",
+                Collections.emptyList(), Collections.singletonList("--spring.jpa.hibernate.ddl-auto=update"), runs));
+        results.put("fast-startup", measure("fast-startup", classpath, "loadtest,fast-startup",
+                Collections.emptyList(), Collections.emptyList(), runs));
+        if (Files.exists(ARCHIVE)) {
+            results.put("fast-startup+cds", measure("fast-startup+cds", classpath, "loadtest,fast-startup",
+                    Arrays.asList("-Xshare:auto", "-XX:SharedArchiveFile=" + ARCHIVE), Collections.emptyList(), runs));
+        } else {
+            System.out.println("No AppCDS archive at " + ARCHIVE + "; run with --train to build one");
+        }
+        report.put("timeToFirstRequestMillis", results);
+
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile, report);
+        System.out.println("Report written to " + reportFile.getPath());
+    }
+
+    private static void serve(String[] args) {
+        new SpringApplicationBuilder(LoadTestApplication.class)
+                .profiles(System.getProperty("startup.profiles", "loadtest").split(","))
+                .run(args);
+    }
+
+    private static void train(String classpath) throws Exception {
+        Path classList = WORK_DIR.resolve("classes.lst");
+        Files.deleteIfExists(classList);
+        Files.deleteIfExists(ARCHIVE);
+
+        System.out.println("Recording loaded classes up to the first request");
+        long millis = startAndStop(classpath, "loadtest,fast-startup",
+                Arrays.asList("-Xshare:off", "-XX:DumpLoadedClassList=" + classList), Collections.emptyList(),
+                WORK_DIR.resolve("train.log"));
+        System.out.printf("Training run served its first request after %d ms%n", millis);
+
+        List<String> dump = new ArrayList<>();
+        dump.add(javaExecutable());
+        dump.add("-Xshare:dump");
+        dump.add("-XX:SharedClassListFile=" + classList);
+        dump.add("-XX:SharedArchiveFile=" + ARCHIVE);
+        dump.add("-cp");
+        dump.add(classpath);
+        Process process = new ProcessBuilder(dump)
+                .redirectErrorStream(true)
+                .redirectOutput(WORK_DIR.resolve("dump.log").toFile())
+                .start();
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("Archive dump failed, see " + WORK_DIR.resolve("dump.log"));
+        }
+        System.out.printf("AppCDS archive written to %s (%d KB)%n", ARCHIVE, Files.size(ARCHIVE) / 1024);
+    }
+
+    private static Map<String, Object> measure(String name, String classpath, String profiles, List<String> jvmArgs,
+                                               List<String> appArgs, int runs) throws Exception {
+        long[] millis = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            millis[i] = startAndStop(classpath, profiles, jvmArgs, appArgs, WORK_DIR.resolve(name + "-" + i + ".log"));
+        }
+        long[] sorted = millis.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-18s min %6d ms   median %6d ms   max %6d ms%n",
+                name, sorted[0], sorted[runs / 2], sorted[runs - 1]);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("runs", Arrays.stream(millis).boxed().collect(Collectors.toList()));
+        result.put("min", sorted[0]);
+        result.put("median", sorted[runs / 2]);
+        result.put("max", sorted[runs - 1]);
+        return result;
+    }
+
+    /**
+     * Launch a child JVM, wait for its first successful request and shut it down.
+     *
+     * @return milliseconds from launch to the first successful response
+     */
+    private static long startAndStop(String classpath, String profiles, List<String> jvmArgs, List<String> appArgs,
+                                     Path log) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(javaExecutable());
+        command.addAll(jvmArgs);
+        String extra = System.getProperty("startup.jvm-args", "").trim();
+        if (!extra.isEmpty()) {
+            command.addAll(Arrays.asList(extra.split("\\s+")));
+        }
+        command.add("-Dstartup.profiles=" + profiles);
+        command.add("-cp");
+        command.add(classpath);
+        command.add(StartupBenchmark.class.getName());
+        command.add("--serve");
+        command.add("--server.port=" + port);
+        command.add("--jwt.secret=" + SECRET);
+        command.add("--spring.datasource.url=" + DATABASE_URL);
+        command.addAll(appArgs);
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/products"))
+                .header("Authorization", "Bearer " + token())
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(Long.getLong("startup.timeout", 120L));
+
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try {
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Service exited during startup, see " + log);
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("No successful request before the timeout, see " + log);
+                }
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                    }
+                } catch (ConnectException ex) {
+                    // Not listening yet
+                }
+                Thread.sleep(5);
+            }
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    // CDS only archives classes loaded from jars, so package classpath directories (target/classes etc.)
+    private static String jarClasspath() throws IOException {
+        Path jarDir = WORK_DIR.resolve("classpath");
+        Files.createDirectories(jarDir);
+        List<String> entries = new ArrayList<>();
+        String[] classpath = System.getProperty("java.class.path").split(File.pathSeparator);
+        for (int i = 0; i < classpath.length; i++) {
+            Path entry = Paths.get(classpath[i]);
+            if (!Files.isDirectory(entry)) {
+                entries.add(entry.toAbsolutePath().toString());
+                continue;
+            }
+            Path jar = jarDir.resolve(i + "-" + entry.getFileName() + ".jar");
+            try (OutputStream out = Files.newOutputStream(jar);
+                 JarOutputStream jarOut = new JarOutputStream(out);
+                 Stream<Path> files = Files.walk(entry)) {
+                for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                    jarOut.putNextEntry(new JarEntry(entry.relativize(file).toString().replace(File.separatorChar, '/')));
+                    Files.copy(file, jarOut);
+                    jarOut.closeEntry();
+                }
+            }
+            entries.add(jar.toAbsolutePath().toString());
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static String javaExecutable() {
+        return Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String token() {
+        return Jwts.builder()
+                .setSubject("startup-benchmark")
+                .claim("role", "ROLE_USER")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(SignatureAlgorithm.HS256, SECRET)
+                .compact();
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.productservice.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Weighted mix of read, search and write requests against the product API.
+ * <p>
+ * The mix is given as {@code name:weight} pairs, e.g. {@code read:70,search:20,write:10}.
+ * Reads hit random ids, searches use one of a small set of name fragments, and writes update
+ * random products as admin.
+ */
+class Workload {
+
+    static final String[] SEARCH_TERMS = {"alpha", "beta", "gamma", "delta", "omega", "pro", "max", "lite"};
+
+    private final String baseUrl;
+    private final String userToken;
+    private final String adminToken;
+    private final long productCount;
+    private final Duration timeout;
+    private final String[] kinds;
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+
+    Workload(String baseUrl, String userToken, String adminToken, long productCount, String mix, Duration timeout) {
+        this.baseUrl = baseUrl;
+        this.userToken = userToken;
+        this.adminToken = adminToken;
+        this.productCount = productCount;
+        this.timeout = timeout;
+
+        Map<String, Integer> weights = parseMix(mix);
+        this.kinds = weights.keySet().toArray(new String[0]);
+        this.cumulativeWeights = new int[kinds.length];
+        int sum = 0;
+        for (int i = 0; i < kinds.length; i++) {
+            sum += weights.get(kinds[i]);
+            cumulativeWeights[i] = sum;
+        }
+        this.totalWeight = sum;
+    }
+
+    String[] kinds() {
+        return kinds;
+    }
+
+    /**
+     * @return the index into {@link #kinds()} of the next request type
+     */
+    int nextKind() {
+        int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return i;
+            }
+        }
+        return cumulativeWeights.length - 1;
+    }
+
+    HttpRequest request(int kind) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long id = 1 + random.nextLong(productCount);
+        switch (kinds[kind]) {
+            case "read":
+                return get("/api/products/" + id, userToken);
+            case "search":
+                return get("/api/products/search?name=" + SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)]
+                        + "&fields=id,name,price", userToken);
+            case "range":
+                int low = random.nextInt(900);
+                return get("/api/products/price/range?minPrice=" + low + "&maxPrice=" + (low + 5), userToken);
+            case "list":
+                return get("/api/products?fields=id,name,price", userToken);
+            case "write":
+                String body = "{\"name\":\"" + SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)] + " product " + id
+                        + "\",\"description\":\"Updated by load test\",\"price\":" + (1 + random.nextInt(999))
+                        + ".99,\"stock\":" + random.nextInt(1000) + "}";
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/api/products/" + id))
+                        .timeout(timeout)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+            default:
+                throw new IllegalArgumentException("Unknown request type: " + kinds[kind]);
+        }
+    }
+
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(timeout)
+                .header("Authorization", "Bearer " + token)
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Mix entries must be name:weight, got: " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(pair[0].trim(), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Mix must contain at least one positive weight");
+        }
+        return weights;
+    }
+}
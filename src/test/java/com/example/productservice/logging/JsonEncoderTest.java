@@ -0,0 +1,84 @@
+package com.example.productservice.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonEncoderTest {
+
+    private final Logger logger = new LoggerContext().getLogger("com.example.Test");
+    private final JsonEncoder encoder = new JsonEncoder();
+
+    @Test
+    void writesOneJsonObjectPerLine() {
+        LoggingEvent event = event(Level.INFO, "Created product {}", null, 42);
+        assertEquals("{\"ts\":1700000000000,\"level\":\"INFO\",\"thread\":\"main\","
+                + "\"logger\":\"com.example.Test\",\"msg\":\"Created product 42\"}\n", encode(event));
+    }
+
+    @Test
+    void escapesSpecialAndControlCharacters() {
+        LoggingEvent event = event(Level.WARN, "say \"hi\" \\ a\nb\tc\u0001", null);
+        assertTrue(encode(event).contains("\"msg\":\"say \\\"hi\\\" \\\\ a\\nb\\tc\\u0001\""));
+    }
+
+    @Test
+    void writesMdcInInsertionOrder() {
+        LoggingEvent event = event(Level.INFO, "with mdc", null);
+        Map<String, String> mdc = new LinkedHashMap<>();
+        mdc.put("requestId", "r-1");
+        mdc.put("user", "alice");
+        event.setMDCPropertyMap(mdc);
+        assertTrue(encode(event).endsWith(",\"mdc\":{\"requestId\":\"r-1\",\"user\":\"alice\"}}\n"));
+
+        encoder.setIncludeMdc(false);
+        assertFalse(encode(event).contains("mdc"));
+    }
+
+    @Test
+    void omitsEmptyMdc() {
+        LoggingEvent event = event(Level.INFO, "no mdc", null);
+        event.setMDCPropertyMap(Collections.emptyMap());
+        assertFalse(encode(event).contains("mdc"));
+    }
+
+    @Test
+    void writesExceptionAsEscapedString() {
+        LoggingEvent event = event(Level.ERROR, "failed", new IllegalStateException("boom"));
+        String json = encode(event);
+        assertTrue(json.contains(",\"exception\":\"java.lang.IllegalStateException: boom\\n"));
+        assertEquals(1, json.split("\n", -1).length - 1);
+    }
+
+    @Test
+    void encodesNonAsciiAsUtf8() {
+        LoggingEvent event = event(Level.INFO, "Crème brûlée", null);
+        assertTrue(encode(event).contains("\"msg\":\"Crème brûlée\""));
+    }
+
+    @Test
+    void hasNoHeaderOrFooter() {
+        assertNull(encoder.headerBytes());
+        assertNull(encoder.footerBytes());
+    }
+
+    private LoggingEvent event(Level level, String message, Throwable throwable, Object... args) {
+        LoggingEvent event = new LoggingEvent(Logger.class.getName(), logger, level, message, throwable, args);
+        event.setTimeStamp(1_700_000_000_000L);
+        event.setThreadName("main");
+        return event;
+    }
+
+    private String encode(LoggingEvent event) {
+        return new String(encoder.encode(event), StandardCharsets.UTF_8);
+    }
+}
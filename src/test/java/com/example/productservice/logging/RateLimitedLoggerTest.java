@@ -0,0 +1,75 @@
+package com.example.productservice.logging;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RateLimitedLoggerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000L);
+    private Logger delegate;
+    private RateLimitedLogger logger;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(Logger.class);
+        when(delegate.isWarnEnabled()).thenReturn(true);
+        when(delegate.isErrorEnabled()).thenReturn(true);
+        logger = new RateLimitedLogger(delegate, 2, 1_000L, now::get);
+    }
+
+    @Test
+    void writesUpToPermitsPerWindowThenCounts() {
+        for (int i = 0; i < 5; i++) {
+            logger.warn("Bad request {}", i);
+        }
+        verify(delegate).warn("Bad request {}", new Object[]{0});
+        verify(delegate).warn("Bad request {}", new Object[]{1});
+        verify(delegate, times(2)).warn(anyString(), any(Object[].class));
+        assertEquals(3, logger.getSuppressedCount());
+    }
+
+    @Test
+    void nextWindowReportsSuppressedEvents() {
+        for (int i = 0; i < 5; i++) {
+            logger.warn("Bad request {}", i);
+        }
+        now.addAndGet(1_000L);
+        logger.warn("Bad request {}", 5);
+        verify(delegate).warn("Bad request {} [suppressed {} similar events]", new Object[]{5, 3L});
+        assertEquals(0, logger.getSuppressedCount());
+    }
+
+    @Test
+    void keepsThrowableLastWhenAddingSummary() {
+        logger.error("Failed");
+        logger.error("Failed");
+        logger.error("Failed");
+        now.addAndGet(1_000L);
+        IllegalStateException ex = new IllegalStateException("boom");
+        logger.error("Failed {}", "again", ex);
+        verify(delegate).error("Failed {} [suppressed {} similar events]", new Object[]{"again", 1L, ex});
+    }
+
+    @Test
+    void disabledLevelIsNeitherWrittenNorCounted() {
+        when(delegate.isWarnEnabled()).thenReturn(false);
+        for (int i = 0; i < 5; i++) {
+            logger.warn("Bad request {}", i);
+        }
+        verify(delegate, never()).warn(anyString(), any(Object[].class));
+        assertEquals(0, logger.getSuppressedCount());
+    }
+
+    @Test
+    void rejectsNonPositiveLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitedLogger(delegate, 0, 1_000L));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitedLogger(delegate, 1, 0L));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.productservice.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SamplingTurboFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final Logger sqlLogger = context.getLogger("org.hibernate.SQL");
+    private final Logger otherLogger = context.getLogger("org.springframework.web");
+    private SamplingTurboFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        sqlLogger.setLevel(Level.DEBUG);
+        otherLogger.setLevel(Level.DEBUG);
+        filter = new SamplingTurboFilter();
+        filter.setContext(context);
+        filter.setName("test-" + System.nanoTime());
+        filter.addLoggerPrefix(" org.hibernate ");
+        filter.setSampleRate(3);
+        filter.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        filter.stop();
+    }
+
+    @Test
+    void letsThroughOneInEverySampleRateEvents() {
+        int passed = 0;
+        for (int i = 0; i < 9; i++) {
+            if (decide(sqlLogger, Level.DEBUG) == FilterReply.NEUTRAL) {
+                passed++;
+            }
+        }
+        assertEquals(3, passed);
+        assertEquals(6, filter.getSampledOutCount());
+    }
+
+    @Test
+    void neverSamplesInfoAndAbove() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(sqlLogger, Level.INFO));
+            assertEquals(FilterReply.NEUTRAL, decide(sqlLogger, Level.ERROR));
+        }
+        assertEquals(0, filter.getSampledOutCount());
+    }
+
+    @Test
+    void ignoresLoggersOutsideThePrefixes() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(otherLogger, Level.DEBUG));
+        }
+        assertEquals(0, filter.getSampledOutCount());
+    }
+
+    @Test
+    void disabledEventsDoNotCount() {
+        sqlLogger.setLevel(Level.INFO);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(sqlLogger, Level.DEBUG));
+        }
+        assertEquals(0, filter.getSampledOutCount());
+    }
+
+    @Test
+    void invalidSampleRateLeavesFilterStopped() {
+        SamplingTurboFilter invalid = new SamplingTurboFilter();
+        invalid.setContext(context);
+        invalid.addLoggerPrefix("org.hibernate");
+        invalid.setSampleRate(0);
+        invalid.start();
+        assertFalse(invalid.isStarted());
+        assertEquals(FilterReply.NEUTRAL, invalid.decide(null, sqlLogger, Level.DEBUG, "select", null, null));
+    }
+
+    private FilterReply decide(Logger logger, Level level) {
+        return filter.decide(null, logger, level, "select 1", null, null);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.productservice.merkle;
+
+import com.example.productservice.dto.MerkleNode;
+import com.example.productservice.dto.MerkleNodes;
+import com.example.productservice.dto.ProductChange;
+import com.example.productservice.exception.ChangeFeedUnsupportedException;
+import com.example.productservice.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogMerkleTreeTest {
+
+    @Test
+    void hashes_FollowDocumentedScheme() throws Exception {
+        CatalogMerkleTree tree = new CatalogMerkleTree(4, 8, 4);
+        tree.put(product(1L, "Laptop", "999.9", 5));
+        tree.put(product(2L, "Lamp", "25.00", 40));
+        tree.put(product(6L, "Mouse", "5.00", 0));
+
+        // A client recomputes the same hashes from its own copy
+        long leaf0 = sha("1\nLaptop\nDescription of Laptop\n999.90\n5")
+                + sha("2\nLamp\nDescription of Lamp\n25.00\n40");
+        long leaf1 = sha("6\nMouse\nDescription of Mouse\n5.00\n0");
+        long root = sha(ByteBuffer.allocate(16).putLong(leaf0).putLong(leaf1).array());
+
+        MerkleNodes leaves = tree.nodes(1, 0, 10);
+        assertEquals(1, leaves.getDepth());
+        assertEquals(Arrays.asList(CatalogMerkleTree.hex(leaf0), CatalogMerkleTree.hex(leaf1)), hashes(leaves));
+        assertEquals(4, leaves.getNodes().get(1).getFromId());
+        assertEquals(7, leaves.getNodes().get(1).getToId());
+        assertEquals(CatalogMerkleTree.hex(root), tree.nodes(0, 0, 1).getNodes().get(0).getHash());
+    }
+
+    @Test
+    void incrementalWrites_MatchFullLoad() {
+        CatalogMerkleTree incremental = new CatalogMerkleTree(4, 3, 4);
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 40; id += 3) {
+            Product product = product(id, "Product " + id, "10.00", (int) id);
+            products.add(product);
+            incremental.put(product);
+        }
+        // Beyond 3 levels of 4-id leaves the leaves widen instead
+        assertEquals(3, incremental.nodes(0, 0, 1).getDepth());
+        assertEquals(8, incremental.nodes(0, 0, 1).getLeafWidth());
+
+        Product changed = products.get(3);
+        changed.setStock(99);
+        incremental.put(changed);
+        incremental.put(product(4L, "Product 4", "10.00", 4));
+        incremental.remove(products.get(5).getId());
+        products.remove(5);
+
+        CatalogMerkleTree loaded = new CatalogMerkleTree(4, 3, 4);
+        loaded.reload(products);
+        assertEquals(hashes(loaded.nodes(3, 0, 8)), hashes(incremental.nodes(3, 0, 8)));
+        assertEquals(hashes(loaded.nodes(0, 0, 1)), hashes(incremental.nodes(0, 0, 1)));
+    }
+
+    @Test
+    void changedProduct_ChangesOnlyItsPath() {
+        CatalogMerkleTree tree = new CatalogMerkleTree(4, 8, 4);
+        for (long id = 0; id < 16; id++) {
+            tree.put(product(id, "Product " + id, "10.00", 1));
+        }
+        List<String> before = hashes(tree.nodes(2, 0, 4));
+        tree.put(product(9L, "Product 9", "10.01", 1));
+        List<String> after = hashes(tree.nodes(2, 0, 4));
+
+        assertEquals(before.get(0), after.get(0));
+        assertEquals(before.get(1), after.get(1));
+        assertNotEquals(before.get(2), after.get(2));
+        assertEquals(before.get(3), after.get(3));
+    }
+
+    @Test
+    void apply_PutsWrittenAndRemovesDeletedProducts() {
+        CatalogMerkleTree tree = new CatalogMerkleTree(4, 8, 4);
+        Product lamp = product(1L, "Lamp", "25.00", 40);
+        Product mouse = product(2L, "Mouse", "5.00", 0);
+        tree.reload(Arrays.asList(lamp, mouse));
+        mouse.setModSeq(7L);
+        Product cheaperLamp = product(1L, "Lamp", "20.00", 40);
+        cheaperLamp.setModSeq(8L);
+
+        tree.apply(Arrays.asList(ProductChange.written(mouse), ProductChange.written(cheaperLamp),
+                ProductChange.deleted(9L, 2L)));
+
+        CatalogMerkleTree expected = new CatalogMerkleTree(4, 8, 4);
+        expected.put(cheaperLamp);
+        assertEquals(hashes(expected.nodes(0, 0, 1)), hashes(tree.nodes(0, 0, 1)));
+    }
+
+    @Test
+    void disabled_RejectsReads() {
+        CatalogMerkleTree tree = CatalogMerkleTree.disabled();
+        assertThrows(ChangeFeedUnsupportedException.class, () -> tree.nodes(0, 0, 1));
+        assertThrows(ChangeFeedUnsupportedException.class, () -> tree.checkFetchRange(0, 1));
+    }
+
+    @Test
+    void checkFetchRange_LimitsWidth() {
+        CatalogMerkleTree tree = new CatalogMerkleTree(4, 8, 4);
+        assertDoesNotThrow(() -> tree.checkFetchRange(0, 15));
+        assertThrows(IllegalArgumentException.class, () -> tree.checkFetchRange(0, 16));
+        assertThrows(IllegalArgumentException.class, () -> tree.checkFetchRange(5, 4));
+        assertThrows(IllegalArgumentException.class, () -> tree.nodes(1, 0, 1));
+    }
+
+    private static Product product(Long id, String name, String price, int stock) {
+        Product product = new Product(name, "Description of " + name, new BigDecimal(price), stock);
+        product.setId(id);
+        return product;
+    }
+
+    private static List<String> hashes(MerkleNodes nodes) {
+        return nodes.getNodes().stream().map(MerkleNode::getHash).collect(Collectors.toList());
+    }
+
+    private static long sha(String text) throws Exception {
+        return sha(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long sha(byte[] bytes) throws Exception {
+        return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(bytes)).getLong();
+    }
+}
@@ -1,17 +1,25 @@
 package com.example.productservice.service;
 
+import com.example.productservice.bulk.ProductBulkUpdater;
+import com.example.productservice.cache.CatalogVersion;
+import com.example.productservice.exception.ChangeFeedUnsupportedException;
+import com.example.productservice.exception.InsufficientStockException;
+import com.example.productservice.exception.InvalidProductException;
+import com.example.productservice.exception.ProductNotFoundException;
+import com.example.productservice.hotkeys.HotKeys;
+import com.example.productservice.merkle.CatalogMerkleTree;
 import com.example.productservice.model.Product;
 import com.example.productservice.repository.ProductRepository;
+import com.example.productservice.stock.StockWriteBehind;
+import com.example.productservice.store.JpaProductStore;
+import com.example.productservice.suggest.ProductSuggestIndex;
+import com.example.productservice.validation.ProductValidator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionOperations;
 
-import javax.validation.ConstraintViolation;
-import javax.validation.ConstraintViolationException;
-import javax.validation.Validator;
 import java.math.BigDecimal;
 import java.util.*;
 
@@ -25,9 +33,10 @@ class ProductServiceTest {
     private ProductRepository productRepository;
 
     @Mock
-    private Validator validator;
+    private CatalogVersion catalogVersion;
+
+    private ProductSuggestIndex suggestIndex;
 
-    @InjectMocks
     private ProductService productService;
 
     private Product product;
@@ -35,6 +44,12 @@ class ProductServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        suggestIndex = new ProductSuggestIndex(10);
+        JpaProductStore store = new JpaProductStore(productRepository, false);
+        productService = new ProductService(store, new ProductValidator(), catalogVersion, StockWriteBehind.disabled(), suggestIndex,
+                new ProductBulkUpdater(store, TransactionOperations.withoutTransaction(), catalogVersion,
+                        StockWriteBehind.disabled(), suggestIndex, 500),
+                HotKeys.disabled(), CatalogMerkleTree.disabled());
         product = new Product("Test Product", "Test Description", new BigDecimal("10.00"), 5);
         product.setId(1L);
     }
@@ -65,28 +80,40 @@ class ProductServiceTest {
 
     @Test
     void createProduct_ValidProduct_Success() {
-        when(validator.validate(any(Product.class))).thenReturn(Collections.emptySet());
         when(productRepository.save(any(Product.class))).thenReturn(product);
         Product created = productService.createProduct(product);
         assertEquals(product, created);
         verify(productRepository, times(1)).save(product);
+        verify(catalogVersion, times(1)).bumpAfterCommit();
     }
 
     @Test
     void createProduct_InvalidProduct_ThrowsException() {
-        Set<ConstraintViolation<Product>> violations = new HashSet<>();
-        ConstraintViolation<Product> violation = mock(ConstraintViolation.class);
-        when(violation.getMessage()).thenReturn("Invalid");
-        violations.add(violation);
-        when(validator.validate(any(Product.class))).thenReturn(violations);
-        assertThrows(ConstraintViolationException.class, () -> productService.createProduct(product));
+        Product invalid = new Product(" ", null, new BigDecimal("-1.00"), -1);
+        InvalidProductException ex =
+                assertThrows(InvalidProductException.class, () -> productService.createProduct(invalid));
+        assertEquals(ProductValidator.NAME_REQUIRED, ex.getViolations().get("name"));
+        assertEquals(ProductValidator.STOCK_NEGATIVE, ex.getViolations().get("stock"));
         verify(productRepository, never()).save(any(Product.class));
     }
 
+    @Test
+    void updateProduct_InvalidProduct_ThrowsException() {
+        Product details = new Product("Updated", "Desc", new BigDecimal("20.00"), -3);
+        assertThrows(InvalidProductException.class, () -> productService.updateProduct(1L, details));
+        verify(productRepository, never()).save(any(Product.class));
+    }
+
+    @Test
+    void getMerkleNodes_WithoutChangeFeed_Throws() {
+        assertThrows(ChangeFeedUnsupportedException.class, () -> productService.getMerkleNodes(0, 0, 1));
+        assertThrows(ChangeFeedUnsupportedException.class, () -> productService.getProductRange(0, 10));
+        verifyNoInteractions(productRepository);
+    }
+
     @Test
     void updateProduct_ValidProduct_Success() {
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(validator.validate(any(Product.class))).thenReturn(Collections.emptySet());
         when(productRepository.save(any(Product.class))).thenReturn(product);
         Product details = new Product("Updated", "Desc", new BigDecimal("20.00"), 10);
         Product updated = productService.updateProduct(1L, details);
@@ -100,8 +127,7 @@ class ProductServiceTest {
     void updateProduct_NotFound_ThrowsException() {
         when(productRepository.findById(2L)).thenReturn(Optional.empty());
         Product details = new Product("Updated", "Desc", new BigDecimal("20.00"), 10);
-        when(validator.validate(any(Product.class))).thenReturn(Collections.emptySet());
-        assertThrows(IllegalArgumentException.class, () -> productService.updateProduct(2L, details));
+        assertThrows(ProductNotFoundException.class, () -> productService.updateProduct(2L, details));
     }
 
     @Test
@@ -110,15 +136,62 @@ class ProductServiceTest {
         doNothing().when(productRepository).deleteById(1L);
         assertDoesNotThrow(() -> productService.deleteProduct(1L));
         verify(productRepository, times(1)).deleteById(1L);
+        verify(catalogVersion, times(1)).bumpAfterCommit();
+    }
+
+    @Test
+    void writes_KeepSuggestionsInSync() {
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        productService.createProduct(product);
+        assertEquals(1, productService.suggestProducts("test", 5).size());
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        productService.updateProduct(1L, new Product("Renamed", "Desc", new BigDecimal("10.00"), 5));
+        assertTrue(productService.suggestProducts("test", 5).isEmpty());
+        assertEquals(1L, productService.suggestProducts("ren", 5).get(0).getId());
+
+        when(productRepository.existsById(1L)).thenReturn(true);
+        productService.deleteProduct(1L);
+        assertTrue(productService.suggestProducts("ren", 5).isEmpty());
     }
 
     @Test
     void deleteProduct_NotFound_ThrowsException() {
         when(productRepository.existsById(2L)).thenReturn(false);
-        assertThrows(IllegalArgumentException.class, () -> productService.deleteProduct(2L));
+        assertThrows(ProductNotFoundException.class, () -> productService.deleteProduct(2L));
         verify(productRepository, never()).deleteById(anyLong());
     }
 
+    @Test
+    void adjustStock_AddsDeltaInOneUpdate() {
+        Product after = new Product("Test Product", "Test Description", new BigDecimal("10.00"), 2);
+        after.setId(1L);
+        when(productRepository.addStock(1L, -3)).thenReturn(true);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(after));
+        Product adjusted = productService.adjustStock(1L, -3);
+        assertEquals(2, adjusted.getStock());
+        verify(productRepository, never()).save(any(Product.class));
+        verify(catalogVersion, times(1)).bumpAfterCommit();
+    }
+
+    @Test
+    void adjustStock_BelowZero_ThrowsException() {
+        when(productRepository.addStock(1L, -6)).thenReturn(false);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        InsufficientStockException ex =
+                assertThrows(InsufficientStockException.class, () -> productService.adjustStock(1L, -6));
+        assertEquals(5, ex.getAvailable());
+        assertEquals(6, ex.getRequested());
+        verify(catalogVersion, never()).bumpAfterCommit();
+    }
+
+    @Test
+    void adjustStock_NotFound_ThrowsException() {
+        when(productRepository.addStock(2L, 1)).thenReturn(false);
+        when(productRepository.findById(2L)).thenReturn(Optional.empty());
+        assertThrows(ProductNotFoundException.class, () -> productService.adjustStock(2L, 1));
+    }
+
     @Test
     void searchProductsByName_ReturnsList() {
         List<Product> products = Arrays.asList(product);
@@ -0,0 +1,289 @@
+package com.example.productservice.stock;
+
+import com.example.productservice.cache.CatalogVersion;
+import com.example.productservice.dto.ProductFieldSet;
+import com.example.productservice.exception.InsufficientStockException;
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.StockUpdate;
+import com.example.productservice.store.ProductStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class StockWriteBehindTest {
+
+    @TempDir
+    Path journalDirectory;
+
+    private ProductStore productStore;
+    private CatalogVersion catalogVersion;
+    private StockWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        productStore = mock(ProductStore.class);
+        catalogVersion = mock(CatalogVersion.class);
+        writeBehind = open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        writeBehind.close();
+    }
+
+    @Test
+    void stagedChanges_CoalescePerProduct() {
+        when(productStore.updateStock(anyList())).thenReturn(2);
+        writeBehind.stageStock(product(1L, 0), 10);
+        writeBehind.stageStock(product(1L, 0), 12);
+        writeBehind.stageDelta(1L, -2, () -> product(1L, 0));
+        writeBehind.stageDelta(2L, 3, () -> product(2L, 7));
+        writeBehind.stageDelta(2L, 4, () -> product(2L, 7));
+
+        assertEquals(2, writeBehind.flush());
+        assertEquals(Arrays.asList("1:=10", "2:+7"), flushed(1));
+        verify(catalogVersion).bump();
+    }
+
+    @Test
+    void reads_ShowPendingStockWithoutTouchingTheStoredProduct() {
+        Product stored = product(1L, 5);
+        writeBehind.stageDelta(1L, 3, () -> stored);
+
+        Product visible = writeBehind.readProduct(() -> Optional.of(stored)).orElseThrow(AssertionError::new);
+        assertEquals(8, visible.getStock());
+        assertEquals(5, stored.getStock());
+
+        Product untouched = product(2L, 1);
+        assertSame(untouched, writeBehind.readProducts(() -> Arrays.asList(stored, untouched)).get(1));
+    }
+
+    @Test
+    void readRows_WithoutId_StillAppliesPendingStock() {
+        writeBehind.stageDelta(1L, 3, () -> product(1L, 5));
+
+        List<ProductFieldSet> queried = new ArrayList<>();
+        List<Object[]> rows = writeBehind.readRows(ProductFieldSet.parse("name,stock"), fields -> {
+            queried.add(fields);
+            return new ArrayList<>(Arrays.asList(new Object[]{1L, "Product 1", 5}, new Object[]{2L, "Product 2", 1}));
+        });
+
+        assertEquals(ProductFieldSet.parse("id,name,stock"), queried.get(0));
+        assertArrayEquals(new Object[]{"Product 1", 8}, rows.get(0));
+        assertArrayEquals(new Object[]{"Product 2", 1}, rows.get(1));
+    }
+
+    @Test
+    void stageDelta_BelowZero_ThrowsAndStagesNothing() {
+        writeBehind.stageDelta(1L, -4, () -> product(1L, 5));
+        assertThrows(InsufficientStockException.class, () -> writeBehind.stageDelta(1L, -2, () -> product(1L, 5)));
+        assertEquals(1, visibleStock(product(1L, 5)));
+    }
+
+    @Test
+    void staging_InATransaction_WaitsForCommitAndIsDroppedOnRollback() {
+        inTransaction(false, () -> {
+            writeBehind.stageStock(product(1L, 0), 10);
+            writeBehind.stageDelta(2L, -4, () -> product(2L, 5));
+        });
+        assertEquals(0, writeBehind.pendingCount());
+
+        // The rolled-back delta no longer counts against the stock
+        inTransaction(true, () -> {
+            writeBehind.stageDelta(2L, -5, () -> product(2L, 5));
+            // Counted by the check before it commits, but not yet visible
+            assertThrows(InsufficientStockException.class, () -> writeBehind.stageDelta(2L, -1, () -> product(2L, 5)));
+            assertEquals(5, visibleStock(product(2L, 5)));
+        });
+        assertEquals(1, writeBehind.pendingCount());
+        assertEquals(0, visibleStock(product(2L, 5)));
+    }
+
+    @Test
+    void failedFlush_KeepsChangesPendingUnderNewerOnes() {
+        when(productStore.updateStock(anyList())).thenThrow(new IllegalStateException("database down"));
+        writeBehind.stageStock(product(1L, 0), 10);
+        assertThrows(IllegalStateException.class, () -> writeBehind.flush());
+
+        writeBehind.stageDelta(1L, 5, () -> product(1L, 0));
+        assertEquals(15, visibleStock(product(1L, 0)));
+
+        reset(productStore);
+        writeBehind.flush();
+        assertEquals(Collections.singletonList("1:=15"), flushed(1));
+    }
+
+    @Test
+    void flush_DoesNotBlockReadersUntilItCommits() throws Exception {
+        writeBehind.close();
+        writeBehind = open(committingTransactions());
+        writeBehind.stageDelta(1L, 3, () -> product(1L, 5));
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        AtomicInteger seenDuringFlush = new AtomicInteger();
+        try {
+            // A reader holding a connection must get through while the flush runs its UPDATEs
+            when(productStore.updateStock(anyList())).thenAnswer(invocation -> {
+                seenDuringFlush.set(reader.submit(() -> visibleStock(product(1L, 5))).get(5, TimeUnit.SECONDS));
+                return 1;
+            });
+            assertEquals(1, writeBehind.flush());
+        } finally {
+            reader.shutdownNow();
+        }
+        assertEquals(8, seenDuringFlush.get());
+        // Once committed, the delta is no longer applied on top of the stored value
+        assertEquals(5, visibleStock(product(1L, 5)));
+    }
+
+    @Test
+    void flush_InsideATransaction_Throws() {
+        writeBehind.stageStock(product(1L, 0), 10);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThrows(IllegalStateException.class, () -> writeBehind.flush());
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        assertEquals(1, writeBehind.pendingCount());
+    }
+
+    @Test
+    void journal_ReplaysUnflushedChangesAfterRestart() throws IOException {
+        writeBehind.stageStock(product(1L, 0), 10);
+        writeBehind.flush();
+        writeBehind.stageDelta(2L, 3, () -> product(2L, 0));
+        writeBehind.stageStock(product(3L, 0), 4);
+
+        // Simulate a crash: the old instance is abandoned without its final flush
+        writeBehind = open();
+        assertEquals(2, writeBehind.pendingCount());
+        assertEquals(13, visibleStock(product(2L, 10)));
+        clearInvocations(productStore);
+        writeBehind.flush();
+        assertEquals(Arrays.asList("2:+3", "3:=4"), flushed(1));
+    }
+
+    @Test
+    void journal_SkipsGenerationsFlushedBeforeACrash() throws IOException {
+        AtomicLong flushedGeneration = new AtomicLong();
+        doAnswer(invocation -> {
+            flushedGeneration.set(invocation.getArgument(1));
+            return null;
+        }).when(productStore).markStockJournalFlushed(anyString(), anyLong());
+        when(productStore.flushedStockJournalGeneration(anyString())).thenAnswer(invocation -> flushedGeneration.get());
+        writeBehind.stageDelta(1L, 3, () -> product(1L, 0));
+
+        // Simulate a crash after the flush commits but before its journal files are deleted
+        Map<Path, byte[]> files = new HashMap<>();
+        try (Stream<Path> journal = Files.list(journalDirectory)) {
+            for (Path file : journal.filter(f -> f.getFileName().toString().endsWith(".log")).toArray(Path[]::new)) {
+                files.put(file, Files.readAllBytes(file));
+            }
+        }
+        writeBehind.flush();
+        for (Map.Entry<Path, byte[]> file : files.entrySet()) {
+            Files.write(file.getKey(), file.getValue());
+        }
+
+        writeBehind = open();
+        assertEquals(0, writeBehind.pendingCount());
+        // Later generations are numbered past the flushed one, so they still replay
+        writeBehind.stageDelta(2L, 1, () -> product(2L, 0));
+        writeBehind = open();
+        assertEquals(1, writeBehind.pendingCount());
+    }
+
+    private StockWriteBehind open() {
+        return open(TransactionOperations.withoutTransaction());
+    }
+
+    private StockWriteBehind open(TransactionOperations transactions) {
+        return new StockWriteBehind(productStore, transactions, catalogVersion,
+                0, Integer.MAX_VALUE, journalDirectory, false);
+    }
+
+    // Runs the callback with transaction synchronization and calls beforeCommit, like a real commit
+    private static TransactionOperations committingTransactions() {
+        return new TransactionOperations() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                TransactionSynchronizationManager.initSynchronization();
+                try {
+                    T result = action.doInTransaction(new SimpleTransactionStatus());
+                    for (TransactionSynchronization synchronization
+                            : TransactionSynchronizationManager.getSynchronizations()) {
+                        synchronization.beforeCommit(false);
+                    }
+                    return result;
+                } finally {
+                    TransactionSynchronizationManager.clearSynchronization();
+                }
+            }
+        };
+    }
+
+    // Runs the work with transaction synchronization, then completes it like a commit or a rollback
+    private static void inTransaction(boolean commit, Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            if (commit) {
+                synchronizations.forEach(TransactionSynchronization::afterCommit);
+            }
+            int status = commit ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK;
+            synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private int visibleStock(Product stored) {
+        return writeBehind.readProduct(() -> Optional.of(stored)).orElseThrow(AssertionError::new).getStock();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> flushed(int invocation) {
+        ArgumentCaptor<List<StockUpdate>> captor = ArgumentCaptor.forClass(List.class);
+        verify(productStore, times(invocation)).updateStock(captor.capture());
+        return captor.getValue().stream().map(StockUpdate::toString).sorted().collect(Collectors.toList());
+    }
+
+    private static Product product(Long id, int stock) {
+        Product product = new Product("Product " + id, "Description", new BigDecimal("10.00"), stock);
+        product.setId(id);
+        return product;
+    }
+}
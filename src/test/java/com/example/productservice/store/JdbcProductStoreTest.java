@@ -0,0 +1,52 @@
+package com.example.productservice.store;
+
+import com.example.productservice.exception.ProductNotFoundException;
+import com.example.productservice.model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcProductStoreTest extends ProductStoreConformanceTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcProductStore store;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = ProductTables.newDatabase();
+        store = new JdbcProductStore(dataSource, 5, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(dataSource).execute("SHUTDOWN");
+    }
+
+    @Override
+    protected ProductStore store() {
+        return store;
+    }
+
+    @Test
+    void insert_WithAllocatedId_InsertsUnderThatId() {
+        Product product = product("Laptop", "10.00", 5);
+        product.setId(1000L);
+        store.insert(product);
+
+        assertEquals("Laptop", store.findById(1000L).orElseThrow(AssertionError::new).getName());
+        assertEquals(1000L, store.maxId());
+    }
+
+    @Test
+    void save_WithUnknownId_ThrowsNotFound() {
+        Product saved = store.save(product("Laptop", "10.00", 5));
+        store.deleteById(saved.getId());
+
+        assertThrows(ProductNotFoundException.class, () -> store.save(saved));
+        assertFalse(store.existsById(saved.getId()));
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.productservice.store;
+
+import com.example.productservice.dto.ProductChanges;
+import com.example.productservice.exception.ChangeFeedUnsupportedException;
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.ProductRepository;
+import com.example.productservice.repository.StockUpdate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "product.change-feed.enabled=true")
+class JpaProductStoreTest extends ProductStoreConformanceTest {
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = Product.class)
+    @EnableJpaRepositories(basePackageClasses = ProductRepository.class)
+    static class Config {
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private ProductStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new JpaProductStore(productRepository, true);
+    }
+
+    @Override
+    protected ProductStore store() {
+        return store;
+    }
+
+    @Test
+    void findChangesSince_ReturnsLatestWritesAndDeletesInOrder() {
+        Product laptop = store.save(product("Laptop"));
+        Product mouse = store.save(product("Mouse"));
+        laptop.setStock(9);
+        store.save(laptop);
+        store.deleteById(mouse.getId());
+
+        ProductChanges changes = store.findChangesSince(0, 10);
+        assertEquals(Arrays.asList("written " + laptop.getId(), "deleted " + mouse.getId()), describe(changes));
+        assertEquals(9, changes.getChanges().get(0).getProduct().getStock());
+        assertEquals(changes.getChanges().get(1).getSeq(), changes.getNextSince());
+        assertEquals(changes.getNextSince(), store.currentChangeSeq());
+        assertFalse(changes.isHasMore());
+        assertTrue(store.findChangesSince(changes.getNextSince(), 10).getChanges().isEmpty());
+    }
+
+    @Test
+    void findChangesSince_PagesWithNextSince() {
+        Product laptop = store.save(product("Laptop"));
+        Product mouse = store.save(product("Mouse"));
+        store.deleteById(laptop.getId());
+
+        ProductChanges first = store.findChangesSince(0, 1);
+        assertEquals(Collections.singletonList("written " + mouse.getId()), describe(first));
+        assertTrue(first.isHasMore());
+        ProductChanges second = store.findChangesSince(first.getNextSince(), 1);
+        assertEquals(Collections.singletonList("deleted " + laptop.getId()), describe(second));
+        ProductChanges last = store.findChangesSince(second.getNextSince(), 1);
+        assertTrue(last.getChanges().isEmpty());
+        assertFalse(last.isHasMore());
+        assertEquals(second.getNextSince(), last.getNextSince());
+    }
+
+    @Test
+    void updateStock_StampsUpdatedRows() {
+        Product laptop = store.save(product("Laptop"));
+        store.save(product("Mouse"));
+        long since = store.findChangesSince(0, 10).getNextSince();
+
+        store.updateStock(Collections.singletonList(StockUpdate.add(laptop.getId(), 3)));
+        entityManager.clear();
+
+        ProductChanges changes = store.findChangesSince(since, 10);
+        assertEquals(Collections.singletonList("written " + laptop.getId()), describe(changes));
+        assertEquals(8, changes.getChanges().get(0).getProduct().getStock());
+    }
+
+    @Test
+    void backfillModSeqs_NumbersUnstampedRows() {
+        Product legacy = productRepository.save(product("Legacy"));
+        entityManager.flush();
+        assertTrue(store.findChangesSince(0, 10).getChanges().isEmpty());
+
+        assertEquals(1, productRepository.backfillModSeqs());
+        entityManager.clear();
+        assertEquals(Collections.singletonList("written " + legacy.getId()), describe(store.findChangesSince(0, 10)));
+        assertEquals(0, productRepository.backfillModSeqs());
+    }
+
+    @Test
+    void markStockJournalFlushed_KeepsLatestGenerationPerJournal() {
+        assertEquals(0, store.flushedStockJournalGeneration("a"));
+        store.markStockJournalFlushed("a", 3);
+        store.markStockJournalFlushed("a", 5);
+        store.markStockJournalFlushed("b", 1);
+
+        assertEquals(5, store.flushedStockJournalGeneration("a"));
+        assertEquals(1, store.flushedStockJournalGeneration("b"));
+    }
+
+    @Test
+    void findChangesSince_WithFeedDisabled_Throws() {
+        JpaProductStore unstamped = new JpaProductStore(productRepository, false);
+        Product laptop = unstamped.save(product("Laptop"));
+
+        assertNull(laptop.getModSeq());
+        assertThrows(ChangeFeedUnsupportedException.class, () -> unstamped.findChangesSince(0, 10));
+    }
+
+    private static Product product(String name) {
+        return new Product(name, "Description of " + name, new BigDecimal("10.00"), 5);
+    }
+
+    private static List<String> describe(ProductChanges changes) {
+        return changes.getChanges().stream()
+                .map(change -> (change.isDeleted() ? "deleted " : "written ") + change.getId())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.productservice.store;
+
+import com.example.productservice.dto.ProductFieldSet;
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.BulkMutation;
+import com.example.productservice.repository.ProductFilter;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Behavior every {@link ProductStore} implementation must share. Subclasses supply an empty store.
+ */
+public abstract class ProductStoreConformanceTest {
+
+    protected abstract ProductStore store();
+
+    @Test
+    void save_AssignsIdAndFindsById() {
+        Product saved = store().save(product("Laptop", "10.00", 5));
+        assertNotNull(saved.getId());
+
+        Optional<Product> found = store().findById(saved.getId());
+        assertTrue(found.isPresent());
+        assertEquals("Laptop", found.get().getName());
+        assertEquals("Description of Laptop", found.get().getDescription());
+        assertEquals(0, new BigDecimal("10.00").compareTo(found.get().getPrice()));
+        assertEquals(5, found.get().getStock());
+        assertTrue(store().existsById(saved.getId()));
+    }
+
+    @Test
+    void findById_Missing_ReturnsEmpty() {
+        assertFalse(store().findById(12345L).isPresent());
+        assertFalse(store().existsById(12345L));
+    }
+
+    @Test
+    void save_ExistingId_ReplacesProduct() {
+        Product saved = store().save(product("Laptop", "10.00", 5));
+        Product update = store().findById(saved.getId()).orElseThrow(AssertionError::new);
+        update.setName("Gaming Laptop");
+        update.setStock(7);
+        store().save(update);
+
+        Product found = store().findById(saved.getId()).orElseThrow(AssertionError::new);
+        assertEquals("Gaming Laptop", found.getName());
+        assertEquals(7, found.getStock());
+        assertEquals(1, store().findAll().size());
+    }
+
+    @Test
+    void deleteById_RemovesProduct() {
+        Product kept = store().save(product("Laptop", "10.00", 5));
+        Product deleted = store().save(product("Mouse", "5.00", 50));
+        store().deleteById(deleted.getId());
+
+        assertFalse(store().existsById(deleted.getId()));
+        assertFalse(store().findById(deleted.getId()).isPresent());
+        assertEquals(ids(kept), ids(store().findAll()));
+    }
+
+    @Test
+    void finders_MatchRepositorySemantics() {
+        Product laptop = store().save(product("Laptop", "999.99", 5));
+        Product lamp = store().save(product("Desk Lamp", "25.00", 40));
+        Product mouse = store().save(product("Mouse", "25.00", 0));
+
+        assertEquals(ids(laptop, lamp), ids(store().findByNameContaining("LA")));
+        assertEquals(ids(laptop, lamp, mouse), ids(store().findByPriceGreaterThanEqual(new BigDecimal("25.00"))));
+        assertEquals(ids(laptop, mouse), ids(store().findByStockLessThan(10)));
+        assertEquals(ids(lamp, mouse),
+                ids(store().findByPriceBetween(new BigDecimal("25.00"), new BigDecimal("100.00"))));
+        assertEquals(ids(lamp), ids(store().findByNameAndStockGreaterThan("la", 5)));
+    }
+
+    @Test
+    void nameConditions_MatchWildcardsLiterally() {
+        Product percent = store().save(product("100% Cotton", "10.00", 5));
+        Product underscore = store().save(product("Desk_Lamp", "25.00", 40));
+        Product backslash = store().save(product("C:\\Tools", "5.00", 10));
+        store().save(product("1000 Cotton", "10.00", 5));
+        store().save(product("Desk Lamp", "25.00", 40));
+
+        assertEquals(ids(percent), ids(store().findByNameContaining("0%")));
+        assertEquals(ids(underscore), ids(store().findByNameContaining("k_l")));
+        assertEquals(ids(backslash), ids(store().findByNameContaining(":\\t")));
+        assertEquals(ids(underscore), ids(store().findByNameAndStockGreaterThan("_", 1)));
+        assertEquals(1, store().findFields(ProductFilter.nameContains("%"), ProductFieldSet.parse("id")).size());
+    }
+
+    @Test
+    void findFields_ReturnsSelectedColumnsInFieldOrder() {
+        Product laptop = store().save(product("Laptop", "999.99", 5));
+        store().save(product("Mouse", "25.00", 0));
+
+        List<Object[]> rows = store().findFields(ProductFilter.nameContains("lap"), ProductFieldSet.parse("stock,id"));
+        assertEquals(1, rows.size());
+        assertEquals(2, rows.get(0).length);
+        assertEquals(laptop.getId(), ((Number) rows.get(0)[0]).longValue());
+        assertEquals(5, ((Number) rows.get(0)[1]).intValue());
+    }
+
+    @Test
+    void findFields_IdRangeIsInclusive() {
+        Product laptop = store().save(product("Laptop", "999.99", 5));
+        Product lamp = store().save(product("Desk Lamp", "25.00", 40));
+        store().save(product("Mouse", "25.00", 0));
+
+        List<Object[]> rows = store().findFields(ProductFilter.idBetween(laptop.getId(), lamp.getId()),
+                ProductFieldSet.parse("id"));
+        assertEquals(ids(laptop, lamp), rows.stream().map(row -> ((Number) row[0]).longValue()).sorted()
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void addStock_AppliesDeltaUnlessStockWouldGoNegative() {
+        Product laptop = store().save(product("Laptop", "999.99", 5));
+
+        assertTrue(store().addStock(laptop.getId(), 3));
+        assertTrue(store().addStock(laptop.getId(), -8));
+        assertEquals(0, store().findById(laptop.getId()).orElseThrow(AssertionError::new).getStock());
+        assertFalse(store().addStock(laptop.getId(), -1));
+        assertEquals(0, store().findById(laptop.getId()).orElseThrow(AssertionError::new).getStock());
+        assertFalse(store().addStock(laptop.getId() + 1000, 1));
+    }
+
+    @Test
+    void bulkUpdate_UpdatesMatchingProductsWithValidResults() {
+        Product laptop = store().save(product("Laptop", "999.99", 5));
+        Product lamp = store().save(product("Desk Lamp", "25.00", 40));
+        Product mouse = store().save(product("Mouse", "25.00", 0));
+        List<Long> all = ids(laptop, lamp, mouse);
+
+        assertEquals(ids(laptop, lamp), store().bulkUpdate(ProductFilter.nameContains("la").withIds(all),
+                BulkMutation.of(BulkMutation.Field.PRICE, BulkMutation.Operation.MULTIPLY, new BigDecimal("1.105"))));
+        // Results below zero are skipped
+        assertEquals(ids(lamp), store().bulkUpdate(ProductFilter.all().withIds(all),
+                BulkMutation.of(BulkMutation.Field.STOCK, BulkMutation.Operation.ADD, new BigDecimal("-10"))));
+        assertEquals(ids(laptop, mouse), store().bulkUpdate(ProductFilter.stockLessThan(10).withIds(all),
+                BulkMutation.of(BulkMutation.Field.STOCK, BulkMutation.Operation.SET, new BigDecimal("100"))));
+        assertTrue(store().bulkUpdate(ProductFilter.all().withIds(Collections.emptyList()),
+                BulkMutation.of(BulkMutation.Field.STOCK, BulkMutation.Operation.SET, BigDecimal.ONE)).isEmpty());
+
+        // Scalar projections read the rows, not entities cached before the update
+        List<Object[]> rows = store().findFields(ProductFilter.all().withIds(all), ProductFieldSet.parse("id,price,stock"));
+        rows.sort((a, b) -> Long.compare(((Number) a[0]).longValue(), ((Number) b[0]).longValue()));
+        assertEquals(0, new BigDecimal("1104.99").compareTo((BigDecimal) rows.get(0)[1]));
+        assertEquals(100, ((Number) rows.get(0)[2]).intValue());
+        assertEquals(0, new BigDecimal("27.63").compareTo((BigDecimal) rows.get(1)[1]));
+        assertEquals(30, ((Number) rows.get(1)[2]).intValue());
+        assertEquals(0, new BigDecimal("25.00").compareTo((BigDecimal) rows.get(2)[1]));
+        assertEquals(100, ((Number) rows.get(2)[2]).intValue());
+    }
+
+    protected static Product product(String name, String price, int stock) {
+        return new Product(name, "Description of " + name, new BigDecimal(price), stock);
+    }
+
+    private static List<Long> ids(Product... products) {
+        return ids(Arrays.asList(products));
+    }
+
+    private static List<Long> ids(List<Product> products) {
+        return products.stream().map(Product::getId).sorted().collect(Collectors.toList());
+    }
+}
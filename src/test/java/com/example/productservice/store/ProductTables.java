@@ -0,0 +1,28 @@
+package com.example.productservice.store;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.UUID;
+
+/**
+ * Shared H2 fixture for the JDBC store tests: the PRODUCTS table as a shard database defines it.
+ */
+public final class ProductTables {
+
+    public static final String PRODUCTS_DDL = "CREATE TABLE PRODUCTS (ID BIGINT AUTO_INCREMENT PRIMARY KEY, "
+            + "NAME VARCHAR(100) NOT NULL, DESCRIPTION VARCHAR(255), PRICE DECIMAL(12,2) NOT NULL, STOCK INT NOT NULL)";
+
+    private ProductTables() {
+    }
+
+    /**
+     * A fresh in-memory database holding an empty PRODUCTS table. Callers shut it down when done.
+     */
+    public static DriverManagerDataSource newDatabase() {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new JdbcTemplate(dataSource).execute(PRODUCTS_DDL);
+        return dataSource;
+    }
+}
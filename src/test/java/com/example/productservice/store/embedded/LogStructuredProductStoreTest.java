@@ -0,0 +1,135 @@
+package com.example.productservice.store.embedded;
+
+import com.example.productservice.model.Product;
+import com.example.productservice.store.ProductStore;
+import com.example.productservice.store.ProductStoreConformanceTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogStructuredProductStoreTest extends ProductStoreConformanceTest {
+
+    @TempDir
+    Path directory;
+
+    private LogStructuredProductStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = open(1 << 20);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        store.close();
+    }
+
+    @Override
+    protected ProductStore store() {
+        return store;
+    }
+
+    @Test
+    void reopen_RecoversProductsAndIdSequence() throws IOException {
+        Product laptop = store.save(product("Laptop", "10.00", 5));
+        Product mouse = store.save(product("Mouse", "5.00", 50));
+        laptop.setStock(4);
+        store.save(laptop);
+        store.deleteById(mouse.getId());
+        store.close();
+
+        store = open(1 << 20);
+        assertEquals(1, store.size());
+        assertEquals(4, store.findById(laptop.getId()).orElseThrow(AssertionError::new).getStock());
+        assertFalse(store.existsById(mouse.getId()));
+        assertTrue(store.save(product("Keyboard", "20.00", 1)).getId() > mouse.getId());
+    }
+
+    @Test
+    void reopen_TruncatesTornTail() throws IOException {
+        Product laptop = store.save(product("Laptop", "10.00", 5));
+        store.close();
+
+        Path segment = segments().get(0);
+        long validSize = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            // Header of a record whose payload never made it to disk
+            ByteBuffer header = ByteBuffer.allocate(8).putInt(200).putInt(0);
+            header.flip();
+            channel.write(header);
+        }
+
+        store = open(1 << 20);
+        assertEquals(validSize, Files.size(segment));
+        assertTrue(store.existsById(laptop.getId()));
+        Product mouse = store.save(product("Mouse", "5.00", 50));
+        store.close();
+
+        store = open(1 << 20);
+        assertTrue(store.existsById(mouse.getId()));
+    }
+
+    @Test
+    void compact_KeepsLiveProductsAndDropsGarbage() throws IOException {
+        store.close();
+        store = open(256);
+        Product laptop = store.save(product("Laptop", "10.00", 0));
+        for (int stock = 1; stock <= 50; stock++) {
+            laptop.setStock(stock);
+            store.save(laptop);
+        }
+        Product mouse = store.save(product("Mouse", "5.00", 50));
+        Product deleted = store.save(product("Cable", "1.00", 1));
+        store.deleteById(deleted.getId());
+        int segmentsBefore = store.segmentCount();
+        assertTrue(segmentsBefore > 2);
+
+        store.compact();
+        assertEquals(2, store.segmentCount());
+        assertEquals(2, segments().size());
+        assertEquals(50, store.findById(laptop.getId()).orElseThrow(AssertionError::new).getStock());
+        assertTrue(store.existsById(mouse.getId()));
+        assertFalse(store.existsById(deleted.getId()));
+        store.close();
+
+        store = open(256);
+        assertEquals(2, store.size());
+        assertEquals(50, store.findById(laptop.getId()).orElseThrow(AssertionError::new).getStock());
+        assertFalse(store.existsById(deleted.getId()));
+    }
+
+    @Test
+    void reopen_IgnoresUnfinishedCompactionOutput() throws IOException {
+        Product laptop = store.save(product("Laptop", "10.00", 5));
+        store.close();
+        Path leftover = directory.resolve(segments().get(0).getFileName() + Segment.COMPACTING_SUFFIX);
+        Files.write(leftover, new byte[]{1, 2, 3});
+
+        store = open(1 << 20);
+        assertFalse(Files.exists(leftover));
+        assertTrue(store.existsById(laptop.getId()));
+    }
+
+    private LogStructuredProductStore open(long maxSegmentBytes) {
+        return new LogStructuredProductStore(directory, maxSegmentBytes, false, 0, 0.5);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(Segment::isSegmentFile).sorted().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.productservice.store.sharded;
+
+import com.example.productservice.dto.ProductFieldSet;
+import com.example.productservice.exception.ShardTimeoutException;
+import com.example.productservice.model.Product;
+import com.example.productservice.repository.ProductFilter;
+import com.example.productservice.repository.StockUpdate;
+import com.example.productservice.store.JdbcProductStore;
+import com.example.productservice.store.ProductStore;
+import com.example.productservice.store.ProductStoreConformanceTest;
+import com.example.productservice.store.ProductTables;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedProductStoreTest extends ProductStoreConformanceTest {
+
+    private static final String ID_BLOCKS_DDL =
+            "CREATE TABLE PRODUCT_ID_BLOCKS (NAME VARCHAR(30) PRIMARY KEY, NEXT_ID BIGINT NOT NULL)";
+
+    private final List<DriverManagerDataSource> dataSources = new ArrayList<>();
+    private final List<JdbcProductStore> shards = new ArrayList<>();
+    private ShardedProductStore store;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 3; i++) {
+            DriverManagerDataSource dataSource = ProductTables.newDatabase();
+            dataSources.add(dataSource);
+            shards.add(new JdbcProductStore(dataSource, 5, 0));
+        }
+        new JdbcTemplate(dataSources.get(0)).execute(ID_BLOCKS_DDL);
+        store = sharded(shards, ShardRouter.hash(3), 2000, 0);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        store.close();
+        for (DriverManagerDataSource dataSource : dataSources) {
+            new JdbcTemplate(dataSource).execute("SHUTDOWN");
+        }
+    }
+
+    @Override
+    protected ProductStore store() {
+        return store;
+    }
+
+    @Test
+    void save_StoresEachProductOnItsOwnShardOnly() {
+        ShardRouter router = ShardRouter.hash(3);
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            Product saved = store.save(product("Product " + i, "10.00", i));
+            int owner = router.shardFor(saved.getId());
+            used.add(owner);
+            for (int shard = 0; shard < shards.size(); shard++) {
+                assertEquals(shard == owner, shards.get(shard).existsById(saved.getId()));
+            }
+        }
+        assertEquals(3, used.size());
+    }
+
+    @Test
+    void findAll_MergesShardsInIdOrderUpToMaxResults() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            store.save(product("Product " + i, "10.00", i));
+        }
+        List<Long> all = store.findAll().stream().map(Product::getId).collect(Collectors.toList());
+        assertEquals(10, all.size());
+        assertEquals(all.stream().sorted().collect(Collectors.toList()), all);
+
+        store.close();
+        store = sharded(shards, ShardRouter.hash(3), 2000, 4);
+        assertEquals(all.subList(0, 4), store.findAll().stream().map(Product::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void findIds_ScansEveryShardPastMaxResults() throws IOException {
+        List<Long> lamps = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            lamps.add(store.save(product("Lamp " + i, "10.00", i)).getId());
+            store.save(product("Mouse " + i, "10.00", i));
+        }
+        List<JdbcProductStore> capped = new ArrayList<>();
+        for (DriverManagerDataSource dataSource : dataSources) {
+            capped.add(new JdbcProductStore(dataSource, 5, 2));
+        }
+        store.close();
+        store = sharded(capped, ShardRouter.hash(3), 2000, 3);
+
+        assertEquals(3, store.findFields(ProductFilter.nameContains("lamp"), ProductFieldSet.parse("id")).size());
+        assertEquals(lamps.stream().sorted().collect(Collectors.toList()),
+                store.findIds(ProductFilter.nameContains("lamp")));
+    }
+
+    @Test
+    void findFields_WithoutId_MergesByIdAndReturnsOnlyRequestedFields() {
+        store.save(product("Laptop", "10.00", 3));
+        store.save(product("Lamp", "20.00", 1));
+        store.save(product("Mouse", "5.00", 2));
+
+        List<Object[]> rows = store.findFields(ProductFilter.nameContains("la"), ProductFieldSet.parse("stock"));
+        assertEquals(Arrays.asList(3, 1), rows.stream().map(row -> {
+            assertEquals(1, row.length);
+            return row[0];
+        }).collect(Collectors.toList()));
+    }
+
+    @Test
+    void updateStock_RoutesEachUpdateToItsShard() {
+        Product laptop = store.save(product("Laptop", "10.00", 3));
+        Product mouse = store.save(product("Mouse", "5.00", 2));
+
+        int updated = store.updateStock(Arrays.asList(StockUpdate.set(laptop.getId(), 9),
+                StockUpdate.add(mouse.getId(), 5), StockUpdate.add(999_999L, 1)));
+
+        assertEquals(2, updated);
+        assertEquals(9, store.findById(laptop.getId()).orElseThrow(AssertionError::new).getStock());
+        assertEquals(7, store.findById(mouse.getId()).orElseThrow(AssertionError::new).getStock());
+    }
+
+    @Test
+    void findAll_SlowShard_FailsWithShardTimeout() throws IOException {
+        List<JdbcProductStore> slow = new ArrayList<>(shards);
+        slow.set(1, new JdbcProductStore(dataSources.get(1), 5, 0) {
+            @Override
+            public List<Product> findAll() {
+                try {
+                    Thread.sleep(2000);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.findAll();
+            }
+        });
+        store.close();
+        store = sharded(slow, ShardRouter.hash(3), 100, 0);
+
+        assertThrows(ShardTimeoutException.class, () -> store.findAll());
+    }
+
+    @Test
+    void rangeRouter_AssignsContiguousRanges() {
+        ShardRouter router = ShardRouter.range(1, 100, 1000);
+        assertEquals(-1, router.shardFor(0));
+        assertEquals(0, router.shardFor(1));
+        assertEquals(0, router.shardFor(99));
+        assertEquals(1, router.shardFor(100));
+        assertEquals(1, router.shardFor(999));
+        assertEquals(2, router.shardFor(Long.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> ShardRouter.range(1, 1));
+    }
+
+    private ShardedProductStore sharded(List<JdbcProductStore> stores, ShardRouter router, long timeoutMs,
+                                        int maxResults) {
+        IdBlockAllocator ids = new IdBlockAllocator(dataSources.get(0), 4,
+                () -> stores.stream().mapToLong(JdbcProductStore::maxId).max().orElse(0) + 1);
+        return new ShardedProductStore(stores, router, ids, 4, timeoutMs, maxResults);
+    }
+}
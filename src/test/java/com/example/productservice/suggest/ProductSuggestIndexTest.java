@@ -0,0 +1,129 @@
+package com.example.productservice.suggest;
+
+import com.example.productservice.dto.ProductChange;
+import com.example.productservice.dto.ProductSuggestion;
+import com.example.productservice.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSuggestIndexTest {
+
+    private ProductSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSuggestIndex(3);
+    }
+
+    @Test
+    void suggest_MatchesWordPrefixesRankedByStock() {
+        index.put(product(1L, "Laptop", 5));
+        index.put(product(2L, "Gaming Laptop", 9));
+        index.put(product(3L, "Desk Lamp", 7));
+        index.put(product(4L, "Mouse", 50));
+
+        assertEquals(Arrays.asList(2L, 3L, 1L), ids(index.suggest("la", 3)));
+        assertEquals(Arrays.asList(2L, 1L), ids(index.suggest("LAPT", 3)));
+        assertEquals(Arrays.asList(2L), ids(index.suggest("gaming l", 3)));
+        assertEquals(Arrays.asList(2L), ids(index.suggest("la", 1)));
+        assertTrue(index.suggest("keyboard", 3).isEmpty());
+        assertTrue(index.suggest("  ", 3).isEmpty());
+    }
+
+    @Test
+    void suggest_NormalizesAccentsAndPunctuation() {
+        index.put(product(1L, "Café-Crème Mug", 1));
+
+        assertEquals(Arrays.asList(1L), ids(index.suggest("cafe cr", 3)));
+        assertEquals(Arrays.asList(1L), ids(index.suggest("CRÈME", 3)));
+    }
+
+    @Test
+    void suggest_ReturnsEachProductOnceWhenSeveralWordsMatch() {
+        index.put(product(1L, "Lamp Lamp Lamp", 1));
+        index.put(product(2L, "Lamp Shade", 0));
+
+        assertEquals(Arrays.asList(1L, 2L), ids(index.suggest("lamp", 3)));
+    }
+
+    @Test
+    void put_ReplacesNameAndRanking() {
+        index.put(product(1L, "Laptop", 5));
+        index.put(product(2L, "Lamp", 7));
+        index.put(product(1L, "Laptop", 10));
+        assertEquals(Arrays.asList(1L, 2L), ids(index.suggest("la", 3)));
+
+        index.put(product(1L, "Notebook", 10));
+        assertEquals(Arrays.asList(2L), ids(index.suggest("la", 3)));
+        assertEquals(Arrays.asList(1L), ids(index.suggest("note", 3)));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void remove_DropsProductAndKeepsSiblings() {
+        index.put(product(1L, "Laptop", 5));
+        index.put(product(2L, "Lap Desk", 7));
+        index.remove(2L);
+
+        assertEquals(Arrays.asList(1L), ids(index.suggest("lap", 3)));
+        assertTrue(index.suggest("desk", 3).isEmpty());
+        index.remove(1L);
+        assertTrue(index.suggest("l", 3).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void load_ReplacesContents() {
+        index.put(product(9L, "Old", 1));
+        index.load(() -> Arrays.asList(product(1L, "Laptop", 5), product(2L, "Lamp", 7)));
+
+        assertTrue(index.suggest("old", 3).isEmpty());
+        assertEquals(Arrays.asList(2L, 1L), ids(index.suggest("la", 3)));
+    }
+
+    @Test
+    void load_KeepsWritesAppliedWhileReading() {
+        index.load(() -> {
+            // Committed after the snapshot below was read
+            index.put(product(3L, "Lantern", 9));
+            index.remove(1L);
+            return Arrays.asList(product(1L, "Laptop", 5), product(2L, "Lamp", 7));
+        });
+
+        assertEquals(Arrays.asList(3L, 2L), ids(index.suggest("la", 3)));
+    }
+
+    @Test
+    void apply_PutsWrittenAndRemovesDeletedProducts() {
+        index.put(product(1L, "Laptop", 5));
+        Product lamp = product(2L, "Lamp", 7);
+        lamp.setModSeq(3L);
+        index.apply(Arrays.asList(ProductChange.written(lamp), ProductChange.deleted(4L, 1L)));
+
+        assertEquals(Collections.singletonList(2L), ids(index.suggest("la", 3)));
+    }
+
+    @Test
+    void suggest_LimitOutOfRange_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> index.suggest("la", 0));
+        assertThrows(IllegalArgumentException.class, () -> index.suggest("la", 4));
+    }
+
+    private static Product product(Long id, String name, int stock) {
+        Product product = new Product(name, "Description of " + name, new BigDecimal("10.00"), stock);
+        product.setId(id);
+        return product;
+    }
+
+    private static List<Long> ids(List<ProductSuggestion> suggestions) {
+        return suggestions.stream().map(ProductSuggestion::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.productservice.timing;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerTimingFilterTest {
+
+    private final FilterChain chain = (request, response) -> {
+        try (PhaseTimer ignored = RequestTimings.start(RequestPhase.DATABASE)) {
+            LockSupport.parkNanos(2_000_000L);
+        }
+        try (PhaseTimer ignored = RequestTimings.start(RequestPhase.SERIALIZATION)) {
+            response.getOutputStream().write("[]".getBytes(StandardCharsets.UTF_8));
+            response.flushBuffer();
+        }
+    };
+
+    @Test
+    void enabled_AddsPhasesThatRanAndTotal() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new ServerTimingFilter(true).doFilter(new MockHttpServletRequest("GET", "/api/products"), response, chain);
+
+        String header = response.getHeader(ServerTimingFilter.SERVER_TIMING);
+        assertNotNull(header);
+        assertTrue(header.matches("db;dur=\\d+\\.\\d{3}, ser;dur=\\d+\\.\\d{3}, total;dur=\\d+\\.\\d{3}"), header);
+        assertTrue(Double.parseDouble(header.substring(7, header.indexOf(','))) >= 2.0, header);
+        assertEquals("[]", response.getContentAsString());
+    }
+
+    @Test
+    void disabled_LeavesResponseUntouched() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new ServerTimingFilter(false).doFilter(new MockHttpServletRequest("GET", "/api/products"), response, chain);
+
+        assertNull(response.getHeader(ServerTimingFilter.SERVER_TIMING));
+        assertEquals("[]", response.getContentAsString());
+    }
+
+    @Test
+    void start_OutsideRequest_OnlyEmitsEvent() {
+        try (PhaseTimer ignored = RequestTimings.start(RequestPhase.DATABASE)) {
+            assertNotNull(ignored);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.productservice.validation;
+
+import com.example.productservice.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductValidatorTest {
+
+    private final ProductValidator validator = new ProductValidator();
+
+    @Test
+    void validProduct_ReturnsNull() {
+        Product product = new Product("Test Product", "Test Description", new BigDecimal("10.00"), 5);
+        assertNull(validator.validate(product));
+    }
+
+    @Test
+    void missingFields_ReturnsRequiredMessages() {
+        Map<String, String> errors = validator.validate(new Product("", "", null, null));
+        assertNotNull(errors);
+        assertEquals(ProductValidator.NAME_REQUIRED, errors.get("name"));
+        assertEquals(ProductValidator.PRICE_REQUIRED, errors.get("price"));
+        assertEquals(ProductValidator.STOCK_REQUIRED, errors.get("stock"));
+        assertFalse(errors.containsKey("description"));
+    }
+
+    @Test
+    void blankName_IsRejected() {
+        Map<String, String> errors = validator.validate(new Product("   ", null, BigDecimal.ONE, 0));
+        assertEquals(ProductValidator.NAME_REQUIRED, errors.get("name"));
+    }
+
+    @Test
+    void tooLongFields_AreRejected() {
+        String name = new String(new char[101]).replace('\0', 'n');
+        String description = new String(new char[256]).replace('\0', 'd');
+        Map<String, String> errors = validator.validate(new Product(name, description, BigDecimal.ONE, 0));
+        assertEquals(ProductValidator.NAME_TOO_LONG, errors.get("name"));
+        assertEquals(ProductValidator.DESCRIPTION_TOO_LONG, errors.get("description"));
+    }
+
+    @Test
+    void nonPositivePrice_IsRejected() {
+        Map<String, String> errors = validator.validate(new Product("P", null, BigDecimal.ZERO, 1));
+        assertEquals(ProductValidator.PRICE_NOT_POSITIVE, errors.get("price"));
+    }
+
+    @Test
+    void priceDigits_FollowDigitsConstraint() {
+        assertNull(validator.validate(new Product("P", null, new BigDecimal("9999999999.99"), 1)));
+        assertNull(validator.validate(new Product("P", null, new BigDecimal("1.500"), 1)));
+        assertEquals(ProductValidator.PRICE_INVALID,
+                validator.validate(new Product("P", null, new BigDecimal("1.001"), 1)).get("price"));
+        assertEquals(ProductValidator.PRICE_INVALID,
+                validator.validate(new Product("P", null, new BigDecimal("10000000000"), 1)).get("price"));
+    }
+
+    @Test
+    void negativeStock_IsRejected() {
+        Map<String, String> errors = validator.validate(new Product("P", null, BigDecimal.ONE, -1));
+        assertEquals(ProductValidator.STOCK_NEGATIVE, errors.get("stock"));
+    }
+}